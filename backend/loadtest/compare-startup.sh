@@ -0,0 +1,65 @@
+#!/bin/bash
+# JVM(bootJar)과 네이티브 이미지(nativeCompile)의 시작 시간과 메모리(RSS) 비교
+# 빈 상태에서 서버를 RUNS 번씩 띄워서 health 가 응답할 때까지의 시간, 그때의 RSS, 스모크 테스트(모든 필터 엔드포인트)를 돌린 뒤의 RSS 와 최대 RSS 를 잰다
+# 사용법: ./loadtest/compare-startup.sh (RUNS=5, SKIP_BUILD=1 이면 이미 만든 jar/바이너리 사용, 네이티브 빌드에는 GraalVM JDK 21 필요)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+if [ "${SKIP_BUILD:-0}" != 1 ]; then
+    ./gradlew bootJar nativeCompile -q
+fi
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+NATIVE=build/native/nativeCompile/image-processing
+mkdir -p build/loadtest
+RESULT=build/loadtest/startup.txt
+
+now_ms() {
+    date +%s%3N
+}
+
+# /proc/<pid>/status 의 값 (kB)
+memory_kb() {
+    awk -v key="$2:" '$1 == key { print $2 }' "/proc/$1/status"
+}
+
+printf '%-8s %4s %12s %12s %14s %14s %14s\n' build run 'ready(ms)' 'started(s)' 'rss-ready(MB)' 'rss-smoke(MB)' 'rss-peak(MB)' | tee "$RESULT"
+for build in jvm native; do
+    for run in $(seq 1 "$RUNS"); do
+        log="build/loadtest/server-$build-$run.log"
+        start=$(now_ms)
+        if [ "$build" = jvm ]; then
+            java --add-modules jdk.incubator.vector -jar "$JAR" --server.port="$PORT" > "$log" 2>&1 &
+        else
+            "$NATIVE" --server.port="$PORT" > "$log" 2>&1 &
+        fi
+        SERVER_PID=$!
+        trap 'kill $SERVER_PID 2>/dev/null || true' EXIT
+
+        until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+            if ! kill -0 $SERVER_PID 2>/dev/null; then
+                echo "$build 서버가 시작하지 못했습니다: $log" >&2
+                exit 1
+            fi
+            sleep 0.01
+        done
+        ready=$(( $(now_ms) - start ))
+        rss_ready=$(memory_kb $SERVER_PID VmRSS)
+        # 스프링이 기록한 시작 시간 ("Started ImageProcessingApplication in 0.123 seconds")
+        started=$(grep -o 'Started ImageProcessingApplication in [0-9.]*' "$log" | awk '{ print $4 }')
+
+        ./loadtest/smoke-image-endpoints.sh "http://localhost:$PORT" > "build/loadtest/smoke-$build-$run.txt" \
+            || { echo "$build 스모크 테스트 실패: build/loadtest/smoke-$build-$run.txt" >&2; exit 1; }
+        rss_smoke=$(memory_kb $SERVER_PID VmRSS)
+        rss_peak=$(memory_kb $SERVER_PID VmHWM)
+
+        kill $SERVER_PID
+        wait $SERVER_PID 2>/dev/null || true
+
+        printf '%-8s %4d %12d %12s %14d %14d %14d\n' "$build" "$run" "$ready" "${started:--}" \
+            $((rss_ready / 1024)) $((rss_smoke / 1024)) $((rss_peak / 1024)) | tee -a "$RESULT"
+    done
+done
+
+echo "결과: $RESULT (서버 로그와 스모크 테스트 출력은 build/loadtest/server-*.log, smoke-*.txt)"
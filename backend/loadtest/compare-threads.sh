@@ -0,0 +1,24 @@
+#!/bin/bash
+# 플랫폼 스레드(기존 Tomcat 스레드 풀)와 가상 스레드 설정에서 같은 부하 테스트를 돌려 결과를 비교
+# 사용법: ./loadtest/compare-threads.sh [k6 에 넘길 추가 옵션...]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+./gradlew bootJar -q
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+mkdir -p build/loadtest
+
+for virtual in false true; do
+    java --add-modules jdk.incubator.vector -jar "$JAR" --spring.threads.virtual.enabled=$virtual > "build/loadtest/server-virtual-$virtual.log" 2>&1 &
+    SERVER_PID=$!
+    trap 'kill $SERVER_PID 2>/dev/null || true' EXIT
+
+    until curl -sf http://localhost:8080/actuator/health > /dev/null; do sleep 1; done
+
+    k6 run --summary-export "build/loadtest/summary-virtual-$virtual.json" "$@" loadtest/image-load.js || true
+
+    kill $SERVER_PID
+    wait $SERVER_PID 2>/dev/null || true
+done
+
+echo "결과: build/loadtest/summary-virtual-{false,true}.json (http_reqs, http_req_duration p(95), http_req_failed 비교)"
@@ -0,0 +1,55 @@
+// 동시 요청 처리량 비교용 k6 부하 테스트
+// 사용법: k6 run -e BASE_URL=http://localhost:8080 -e IMAGE=../../resources/img.png loadtest/image-load.js
+// SEARCH=true 이면 Pixabay 검색(외부 I/O 를 기다리는 요청)을 섞어서 보낸다
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const IMAGE = open(__ENV.IMAGE || '../../resources/img.png', 'b');
+const SEARCH = __ENV.SEARCH === 'true';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '800');
+
+export const options = {
+    scenarios: {
+        filters: {
+            executor: 'ramping-vus',
+            exec: 'filter',
+            startVUs: 10,
+            stages: [
+                { duration: '30s', target: MAX_VUS / 4 },
+                { duration: '30s', target: MAX_VUS / 2 },
+                { duration: '30s', target: MAX_VUS },
+                { duration: '30s', target: MAX_VUS },
+            ],
+        },
+        ...(SEARCH ? {
+            search: {
+                executor: 'ramping-vus',
+                exec: 'search',
+                startVUs: 10,
+                stages: [
+                    { duration: '60s', target: MAX_VUS / 2 },
+                    { duration: '60s', target: MAX_VUS },
+                ],
+            },
+        } : {}),
+    },
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{scenario:filters}': ['p(95)<2000'],
+    },
+};
+
+export function filter() {
+    const response = http.post(`${BASE_URL}/api/image/grayscale`, {
+        file: http.file(IMAGE, 'img.png', 'image/png'),
+        filterHistory: '["Inversion"]',
+        brightnessAdjustment: '20',
+    });
+    check(response, { 'filter 200': (r) => r.status === 200 });
+}
+
+export function search() {
+    const response = http.get(`${BASE_URL}/api/pixabay/search?q=flower`);
+    check(response, { 'search 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,90 @@
+#!/bin/bash
+# 떠 있는 서버에 ImageController 의 모든 엔드포인트를 PNG, JPEG 으로 한 번씩 호출해서 응답 상태, 형식, 헤더를 확인
+# 네이티브 이미지에서 리플렉션, JNI 설정이 빠진 경로는 여기서 500 으로 드러난다
+# 사용법: ./loadtest/smoke-image-endpoints.sh [기본 URL (http://localhost:8080)]
+set -uo pipefail
+cd "$(dirname "$0")"
+
+BASE_URL=${1:-http://localhost:8080}
+API="$BASE_URL/api/image"
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+FAILURES=0
+
+fail() {
+    echo "FAIL $1"
+    FAILURES=$((FAILURES + 1))
+}
+
+# post <이름> <파일> <기대 형식(png|jpeg)> <엔드포인트> [curl -F 인자...]
+post() {
+    local name=$1 file=$2 format=$3 endpoint=$4
+    shift 4
+    local form=()
+    for field in "$@"; do
+        form+=(-F "$field")
+    done
+    local status
+    status=$(curl -s -o "$WORK/$name.body" -D "$WORK/$name.headers" -w '%{http_code}' \
+        -F "file=@fixtures/$file" "${form[@]}" "$API/$endpoint")
+    if [ "$status" != 200 ]; then
+        fail "$name: HTTP $status $(head -c 200 "$WORK/$name.body")"
+        return
+    fi
+    local magic
+    magic=$(head -c 4 "$WORK/$name.body" | od -An -tx1 | tr -d ' \n')
+    case "$format" in
+        png) [ "$magic" = 89504e47 ] || { fail "$name: PNG 가 아닙니다 ($magic)"; return; } ;;
+        jpeg) [ "${magic:0:4}" = ffd8 ] || { fail "$name: JPEG 이 아닙니다 ($magic)"; return; } ;;
+    esac
+    echo "ok   $name"
+}
+
+header() {
+    grep -i "^$2:" "$WORK/$1.headers" | head -n 1 | cut -d' ' -f2- | tr -d '\r'
+}
+
+for sample in png:sample.png jpeg:sample.jpg; do
+    format=${sample%%:*}
+    file=${sample#*:}
+    post "$format-grayscale" "$file" "$format" grayscale
+    post "$format-invert" "$file" "$format" invert
+    post "$format-brightness" "$file" "$format" brightness brightnessAdjustment=30
+    post "$format-brightness-auto" "$file" "$format" brightness auto=true
+    post "$format-blur" "$file" "$format" blur
+    post "$format-box-blur" "$file" "$format" box-blur
+    post "$format-sharpen" "$file" "$format" sharpen
+    post "$format-edge-detect" "$file" "$format" edge-detect
+    post "$format-crop" "$file" "$format" crop x1=4 y1=4 x2=40 y2=30
+    # filterHistory 는 JSON(Jackson 으로 FilterType 변환)과 한 글자 코드 두 가지로
+    post "$format-history-json" "$file" "$format" grayscale 'filterHistory=["Inversion","Blur"]' brightnessAdjustment=10
+    post "$format-history-compact" "$file" "$format" grayscale 'filterHistory=i,b' brightnessAdjustment=10
+    post "$format-preview" "$file" "$format" invert previewMaxDimension=16
+done
+
+# 같은 요청을 If-None-Match 로 다시 보내면 304, 결과의 ETag 로 통계(JSON) 조회
+etag=$(header png-invert etag)
+if [ -z "$etag" ]; then
+    fail "png-invert: ETag 가 없습니다"
+else
+    status=$(curl -s -o /dev/null -w '%{http_code}' -H "If-None-Match: $etag" -F "file=@fixtures/sample.png" "$API/invert")
+    [ "$status" = 304 ] && echo "ok   not-modified" || fail "not-modified: HTTP $status"
+
+    status=$(curl -s -o "$WORK/statistics.json" -w '%{http_code}' -G --data-urlencode "etag=$etag" "$API/statistics")
+    if [ "$status" = 200 ] && grep -q '"luminanceHistogram"' "$WORK/statistics.json"; then
+        echo "ok   statistics"
+    else
+        fail "statistics: HTTP $status $(head -c 200 "$WORK/statistics.json")"
+    fi
+fi
+[ -n "$(header png-grayscale x-image-luminance-mean)" ] && echo "ok   statistics-headers" || fail "statistics-headers: X-Image-Luminance-Mean 이 없습니다"
+
+# 잘못된 요청은 400 (예외 처리기)
+status=$(curl -s -o /dev/null -w '%{http_code}' -F "file=@fixtures/sample.png" -F 'filterHistory=g,z' "$API/grayscale")
+[ "$status" = 400 ] && echo "ok   bad-request" || fail "bad-request: HTTP $status"
+
+if [ "$FAILURES" -gt 0 ]; then
+    echo "$FAILURES 개 실패"
+    exit 1
+fi
+echo "모두 통과"
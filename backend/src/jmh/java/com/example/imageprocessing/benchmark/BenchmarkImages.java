@@ -0,0 +1,55 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.FilterType;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// 벤치마크용 합성 이미지와 필터 히스토리
+// 코덱 비용이 실제 사진과 비슷하도록 완전한 노이즈 대신 그라데이션 + 약한 노이즈를 쓴다
+final class BenchmarkImages {
+    private BenchmarkImages() {}
+
+    // 디코딩 결과로 흔히 나오는 형식
+    enum SourceType {
+        JPEG_BGR(BufferedImage.TYPE_3BYTE_BGR),
+        PNG_ARGB(BufferedImage.TYPE_INT_ARGB),
+        GRAY(BufferedImage.TYPE_BYTE_GRAY);
+
+        private final int imageType;
+
+        SourceType(int imageType) {
+            this.imageType = imageType;
+        }
+    }
+
+    static BufferedImage create(double megapixels, SourceType sourceType) {
+        int width = (int) Math.round(Math.sqrt(megapixels * 1_000_000 * 4 / 3));
+        int height = (int) Math.round(megapixels * 1_000_000 / width);
+
+        BufferedImage image = new BufferedImage(width, height, sourceType.imageType);
+        Random random = new Random(42);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                int green = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                int blue = ((x + y) * 255 / (width + height) + random.nextInt(16)) & 0xFF;
+                row[x] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    // 흑백/반전이 번갈아 나오는 길이 n 의 히스토리 (프론트가 보내는 실행 취소 히스토리와 비슷한 모양)
+    static List<FilterType> history(int length) {
+        List<FilterType> history = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            history.add(i % 3 == 1 ? FilterType.GrayScale : FilterType.Inversion);
+        }
+        return history;
+    }
+}
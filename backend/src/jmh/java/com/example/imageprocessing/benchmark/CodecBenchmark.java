@@ -0,0 +1,49 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.ImageEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// ImageIO 디코딩과 ImageEncoder 인코딩 비용
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    @Param({"0.3", "12", "50"})
+    public double megapixels;
+
+    @Param({"png", "jpg"})
+    public String formatName;
+
+    private BufferedImage image;
+    private byte[] encoded;
+    private ImageEncoder imageEncoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = BenchmarkImages.create(megapixels, BenchmarkImages.SourceType.JPEG_BGR);
+        imageEncoder = new ImageEncoder(0.9f, true, 4);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        imageEncoder.write(image, formatName, output);
+        encoded = output.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        imageEncoder.write(image, formatName, OutputStream.nullOutputStream());
+    }
+}
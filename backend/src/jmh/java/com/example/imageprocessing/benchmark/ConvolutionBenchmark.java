@@ -0,0 +1,74 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.ConvolutionFilter;
+import com.example.imageprocessing.service.FilterType;
+import com.example.imageprocessing.service.ParallelRasterExecutor;
+import com.example.imageprocessing.service.RasterAccess;
+import com.example.imageprocessing.service.SeparableKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// 주변 픽셀을 보는 필터 비용: 2차원 직접 계산 vs 분리 패스(스칼라) vs 분리 패스(Vector API)
+// 모두 한 스레드에서 실행해서 병렬 처리 효과는 빼고 본다 (병렬 효과는 ParallelScalingBenchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ConvolutionBenchmark {
+
+    @Param({"1", "12"})
+    public double megapixels;
+
+    private BufferedImage image;
+    private SeparableKernel blurKernel;
+    private ParallelRasterExecutor scalar;
+    private ParallelRasterExecutor vectorized;
+
+    @Setup
+    public void setUp() {
+        image = RasterAccess.toPacked(BenchmarkImages.create(megapixels, BenchmarkImages.SourceType.JPEG_BGR));
+        blurKernel = SeparableKernel.gaussian(ConvolutionFilter.BLUR_SIGMA);
+        scalar = new ParallelRasterExecutor(1, Long.MAX_VALUE, false);
+        vectorized = new ParallelRasterExecutor(1, Long.MAX_VALUE, true);
+        if (!vectorized.isVectorized()) {
+            throw new IllegalStateException("Vector API 모듈이 없습니다. --add-modules jdk.incubator.vector 로 실행해 주세요.");
+        }
+    }
+
+    // 12MP 에서는 분리 패스보다 수십 배 느리므로 -p megapixels=1 로 제한해서 보는 것을 권장
+    @Benchmark
+    public BufferedImage blurNaive2d() {
+        return NaiveConvolution.apply(image, blurKernel);
+    }
+
+    @Benchmark
+    public BufferedImage blurSeparable() {
+        return ConvolutionFilter.of(FilterType.Blur).apply(image, scalar);
+    }
+
+    @Benchmark
+    public BufferedImage blurVectorized() {
+        return ConvolutionFilter.of(FilterType.Blur).apply(image, vectorized);
+    }
+
+    @Benchmark
+    public BufferedImage sharpenSeparable() {
+        return ConvolutionFilter.of(FilterType.Sharpen).apply(image, scalar);
+    }
+
+    @Benchmark
+    public BufferedImage sharpenVectorized() {
+        return ConvolutionFilter.of(FilterType.Sharpen).apply(image, vectorized);
+    }
+
+    @Benchmark
+    public BufferedImage boxBlurRunningSum() {
+        return ConvolutionFilter.of(FilterType.BoxBlur).apply(image, scalar);
+    }
+
+    @Benchmark
+    public BufferedImage edgeDetect() {
+        return ConvolutionFilter.of(FilterType.EdgeDetect).apply(image, scalar);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.domain.Pixel;
+import com.example.imageprocessing.service.FilterType;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+// 비교 기준: 필터마다 새 이미지를 만들고 getRGB/setRGB + Pixel 객체로 처리하던 예전 방식
+final class LegacyFilters {
+    private LegacyFilters() {}
+
+    static BufferedImage apply(BufferedImage image, List<FilterType> history, int brightnessAdjustment) {
+        BufferedImage current = image;
+        for (FilterType type : history) {
+            if (type == FilterType.GrayScale) {
+                current = applyEachPixel(current, Pixel::toGrayScale);
+            } else if (type == FilterType.Inversion) {
+                current = applyEachPixel(current, Pixel::toInvert);
+            }
+        }
+        if (brightnessAdjustment != 0) {
+            current = applyEachPixel(current, pixel -> pixel.adjustBrightness(brightnessAdjustment));
+        }
+        return current;
+    }
+
+    private static BufferedImage applyEachPixel(BufferedImage image, UnaryOperator<Pixel> operation) {
+        BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Color color = new Color(image.getRGB(x, y));
+                Pixel pixel = operation.apply(new Pixel(color.getRed(), color.getGreen(), color.getBlue()));
+                result.setRGB(x, y, pixel.toAwtColor().getRGB());
+            }
+        }
+        return result;
+    }
+}
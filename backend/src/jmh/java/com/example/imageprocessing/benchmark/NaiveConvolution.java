@@ -0,0 +1,56 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.RasterAccess;
+import com.example.imageprocessing.service.SeparableKernel;
+
+import java.awt.image.BufferedImage;
+
+// 비교 기준: 분리 가능한 커널을 가로x세로 2차원 커널로 펼쳐서 픽셀마다 (2r+1)^2 개 이웃을 직접 더하는 방식
+final class NaiveConvolution {
+    private NaiveConvolution() {}
+
+    static BufferedImage apply(BufferedImage packedImage, SeparableKernel kernel) {
+        int width = packedImage.getWidth();
+        int height = packedImage.getHeight();
+        int radius = kernel.radius();
+        int[] weights = kernel.weights();
+        int[] source = RasterAccess.pixels(packedImage);
+
+        BufferedImage result = RasterAccess.createCompatible(packedImage);
+        int[] target = RasterAccess.pixels(result);
+
+        // 가중치 합이 2 의 거듭제곱이라 2차원 가중치 합은 그 제곱. 채널 합이 int 를 넘으므로 long 으로 더한다
+        int shift = Integer.numberOfTrailingZeros(sum(weights)) * 2;
+        long half = 1L << (shift - 1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                long red = 0;
+                long green = 0;
+                long blue = 0;
+                for (int j = 0; j < weights.length; j++) {
+                    int row = Math.min(height - 1, Math.max(0, y - radius + j)) * width;
+                    for (int i = 0; i < weights.length; i++) {
+                        int pixel = source[row + Math.min(width - 1, Math.max(0, x - radius + i))];
+                        long weight = (long) weights[j] * weights[i];
+                        red += ((pixel >> 16) & 0xFF) * weight;
+                        green += ((pixel >> 8) & 0xFF) * weight;
+                        blue += (pixel & 0xFF) * weight;
+                    }
+                }
+                target[y * width + x] = (source[y * width + x] & 0xFF000000)
+                        | (int) ((red + half) >> shift) << 16
+                        | (int) ((green + half) >> shift) << 8
+                        | (int) ((blue + half) >> shift);
+            }
+        }
+        return result;
+    }
+
+    private static int sum(int[] weights) {
+        int sum = 0;
+        for (int weight : weights) {
+            sum += weight;
+        }
+        return sum;
+    }
+}
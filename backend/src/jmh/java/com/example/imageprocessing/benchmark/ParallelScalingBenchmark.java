@@ -0,0 +1,44 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.FilterPipeline;
+import com.example.imageprocessing.service.FilterType;
+import com.example.imageprocessing.service.ParallelRasterExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 줄 묶음 병렬 처리의 스레드 수별 확장성
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ParallelScalingBenchmark {
+
+    @Param({"12", "50"})
+    public double megapixels;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private BufferedImage image;
+    private ParallelRasterExecutor executor;
+    private FilterPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        image = BenchmarkImages.create(megapixels, BenchmarkImages.SourceType.PNG_ARGB);
+        executor = new ParallelRasterExecutor(parallelism, 0, true);
+        pipeline = FilterPipeline.compile(List.of(FilterType.Inversion, FilterType.GrayScale), 40);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public BufferedImage grayscaleInvertBrightness() {
+        return pipeline.apply(image, executor);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.domain.ChannelLookupTables;
+import com.example.imageprocessing.domain.Pixel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Pixel 도메인 연산과 룩업 테이블 연산의 픽셀당 비용 (64K 픽셀 단위)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PixelBenchmark {
+    private static final int PIXELS = 64 * 1024;
+
+    private int[] rgb;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rgb = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            rgb[i] = random.nextInt(0x1000000);
+        }
+    }
+
+    @Benchmark
+    public void pixelGrayscale(Blackhole blackhole) {
+        for (int value : rgb) {
+            blackhole.consume(new Pixel((value >> 16) & 0xFF, (value >> 8) & 0xFF, value & 0xFF).toGrayScale().toAwtColor().getRGB());
+        }
+    }
+
+    @Benchmark
+    public void pixelInvert(Blackhole blackhole) {
+        for (int value : rgb) {
+            blackhole.consume(new Pixel((value >> 16) & 0xFF, (value >> 8) & 0xFF, value & 0xFF).toInvert().toAwtColor().getRGB());
+        }
+    }
+
+    @Benchmark
+    public void pixelBrightness(Blackhole blackhole) {
+        for (int value : rgb) {
+            blackhole.consume(new Pixel((value >> 16) & 0xFF, (value >> 8) & 0xFF, value & 0xFF).adjustBrightness(40).toAwtColor().getRGB());
+        }
+    }
+
+    @Benchmark
+    public int[] lookupGrayscale() {
+        int[] result = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            int value = rgb[i];
+            int gray = ChannelLookupTables.luminance((value >> 16) & 0xFF, (value >> 8) & 0xFF, value & 0xFF);
+            result[i] = (gray << 16) | (gray << 8) | gray;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] lookupBrightness() {
+        int[] table = ChannelLookupTables.brightness(40);
+        int[] result = new int[PIXELS];
+        for (int i = 0; i < PIXELS; i++) {
+            int value = rgb[i];
+            result[i] = (table[(value >> 16) & 0xFF] << 16) | (table[(value >> 8) & 0xFF] << 8) | table[value & 0xFF];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.BrightnessProcessor;
+import com.example.imageprocessing.service.CropProcessor;
+import com.example.imageprocessing.service.FilterChainOptimizer;
+import com.example.imageprocessing.service.FilterPipeline;
+import com.example.imageprocessing.service.FilterType;
+import com.example.imageprocessing.service.GrayscaleProcessor;
+import com.example.imageprocessing.service.InvertProcessor;
+import com.example.imageprocessing.service.ParallelRasterExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 각 ImageProcessor 와 필터 히스토리 전체 적용 비용 (이미지 크기 x 디코딩 형식 x 히스토리 길이)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PointFilterBenchmark {
+
+    @Param({"0.3", "12", "50"})
+    public double megapixels;
+
+    @Param({"JPEG_BGR", "PNG_ARGB", "GRAY"})
+    public BenchmarkImages.SourceType sourceType;
+
+    @Param({"1", "4", "10"})
+    public int chainLength;
+
+    private BufferedImage image;
+    private List<FilterType> history;
+    private ParallelRasterExecutor executor;
+    private GrayscaleProcessor grayscaleProcessor;
+    private InvertProcessor invertProcessor;
+    private BrightnessProcessor brightnessProcessor;
+    private CropProcessor cropProcessor;
+
+    @Setup
+    public void setUp() {
+        image = BenchmarkImages.create(megapixels, sourceType);
+        history = BenchmarkImages.history(chainLength);
+        executor = ParallelRasterExecutor.sequential();
+        grayscaleProcessor = new GrayscaleProcessor(executor);
+        invertProcessor = new InvertProcessor(executor);
+        brightnessProcessor = new BrightnessProcessor(executor);
+        cropProcessor = new CropProcessor();
+    }
+
+    @Benchmark
+    public BufferedImage grayscale() {
+        return grayscaleProcessor.process(image);
+    }
+
+    @Benchmark
+    public BufferedImage invert() {
+        return invertProcessor.process(image);
+    }
+
+    @Benchmark
+    public BufferedImage brightness() {
+        return brightnessProcessor.process(image, 40);
+    }
+
+    @Benchmark
+    public BufferedImage crop() {
+        return cropProcessor.process(image, image.getWidth() / 4, image.getHeight() / 4, image.getWidth() * 3 / 4, image.getHeight() * 3 / 4);
+    }
+
+    @Benchmark
+    public BufferedImage fusedHistory() {
+        return FilterPipeline.compile(FilterChainOptimizer.optimize(history), 40).apply(image, executor);
+    }
+
+    // 예전 구현은 50MP 에서 너무 느려서 -p megapixels=0.3,12 로 제한해서 보는 것을 권장
+    @Benchmark
+    public BufferedImage legacyHistory() {
+        return LegacyFilters.apply(image, history, 40);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.FilterPipeline;
+import com.example.imageprocessing.service.FilterType;
+import com.example.imageprocessing.service.ParallelRasterExecutor;
+import com.example.imageprocessing.service.RasterAccess;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 픽셀 단위 필터 한 단계: 룩업 테이블(스칼라) vs Vector API
+// 한 스레드에서 같은 배열에 덮어쓰므로 할당 없이 연산 비용만 본다 (초당 픽셀 수 = megapixels / 평균 시간)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PointKernelBenchmark {
+
+    @Param({"1", "12"})
+    public double megapixels;
+
+    @Param({"GrayScale", "Inversion", "Brightness"})
+    public String operation;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    private int[] original;
+    private BufferedImage image;
+    private FilterPipeline pipeline;
+    private ParallelRasterExecutor executor;
+
+    @Setup
+    public void setUp() {
+        image = RasterAccess.toPacked(BenchmarkImages.create(megapixels, BenchmarkImages.SourceType.JPEG_BGR));
+        original = RasterAccess.pixels(image).clone();
+        pipeline = operation.equals("Brightness")
+                ? FilterPipeline.compile(List.of(), 40)
+                : FilterPipeline.compile(List.of(FilterType.valueOf(operation)), 0);
+        executor = new ParallelRasterExecutor(1, Long.MAX_VALUE, vectorized);
+        if (vectorized && !executor.isVectorized()) {
+            throw new IllegalStateException("Vector API 모듈이 없습니다. --add-modules jdk.incubator.vector 로 실행해 주세요.");
+        }
+    }
+
+    // 흑백은 한 번 적용하면 입력이 회색이 되어 계산이 달라지므로 매번 원본으로 되돌린다
+    @Setup(Level.Invocation)
+    public void restore() {
+        System.arraycopy(original, 0, RasterAccess.pixels(image), 0, original.length);
+    }
+
+    @Benchmark
+    public BufferedImage apply() {
+        pipeline.applyInPlace(image, executor);
+        return image;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.service.FilterPipeline;
+import com.example.imageprocessing.service.FilterProgram;
+import com.example.imageprocessing.service.FilterProgramCache;
+import com.example.imageprocessing.service.FilterType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 요청마다 filterHistory 를 읽고 파이프라인을 합성하는 비용: 캐시 없음(매번 파싱, 합성) vs FilterProgramCache 적중
+// JSON 배열과 한 글자 코드 표현을 비교한다 (이미지 처리는 하지 않음)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ProgramCacheBenchmark {
+
+    @Param({"1", "10"})
+    public int chainLength;
+
+    @Param({"json", "compact"})
+    public String encoding;
+
+    // false 면 항목 수 0 으로 만들어서 매번 파싱하고 합성한다
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private FilterProgramCache programCache;
+    private String filterHistory;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<FilterType> history = BenchmarkImages.history(chainLength);
+        filterHistory = encoding.equals("json")
+                ? new ObjectMapper().writeValueAsString(history)
+                : FilterProgramCache.encode(history);
+        programCache = new FilterProgramCache(new SimpleMeterRegistry(), cached ? 100 : 0);
+    }
+
+    @Benchmark
+    public FilterPipeline buildPipeline() throws IOException {
+        FilterProgram program = FilterProgram.of(programCache.history(filterHistory), 40);
+        return programCache.pipeline(program.filters(), program.brightnessAdjustment());
+    }
+}
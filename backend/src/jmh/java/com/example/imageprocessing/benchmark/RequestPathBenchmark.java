@@ -0,0 +1,79 @@
+package com.example.imageprocessing.benchmark;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import com.example.imageprocessing.service.CpuStageExecutor;
+import com.example.imageprocessing.service.CropProcessor;
+import com.example.imageprocessing.service.FilterProgramCache;
+import com.example.imageprocessing.service.ImageDecoder;
+import com.example.imageprocessing.service.ImageEncoder;
+import com.example.imageprocessing.service.ImageMetrics;
+import com.example.imageprocessing.service.ImageResultCache;
+import com.example.imageprocessing.service.ImageService;
+import com.example.imageprocessing.service.MemoryBudget;
+import com.example.imageprocessing.service.OutOfCoreProcessor;
+import com.example.imageprocessing.service.ParallelRasterExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// 업로드 바이트 -> 검증/디코딩 -> 필터 -> 인코딩까지 ImageService 요청 경로 전체 (결과 캐시는 끔)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RequestPathBenchmark {
+
+    @Param({"0.3", "12"})
+    public double megapixels;
+
+    @Param({"png", "jpg"})
+    public String formatName;
+
+    @Param({"1", "10"})
+    public int chainLength;
+
+    // 0 이면 원본 해상도, 그 외에는 긴 변 기준 미리보기 크기
+    @Param({"0", "1600"})
+    public int previewMaxDimension;
+
+    // 필터 루프에서 결과 히스토그램을 같이 셀 때의 추가 비용
+    @Param({"false", "true"})
+    public boolean statistics;
+
+    private ImageService imageService;
+    private MockMultipartFile file;
+    private String filterHistoryJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ImageEncoder imageEncoder = new ImageEncoder(0.9f, true, 4);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        imageEncoder.write(BenchmarkImages.create(megapixels, BenchmarkImages.SourceType.JPEG_BGR), formatName, output);
+        file = new MockMultipartFile("file", "image." + formatName, "image/" + formatName, output.toByteArray());
+        filterHistoryJson = new ObjectMapper().writeValueAsString(BenchmarkImages.history(chainLength - 1));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        imageService = new ImageService(
+                new ImageDecoder(new ImageValidator(Long.MAX_VALUE)),
+                new CropProcessor(),
+                ParallelRasterExecutor.sequential(),
+                new MemoryBudget(meterRegistry, 0, 0),
+                imageEncoder,
+                new ImageResultCache(meterRegistry, 0, 0, "", 0),
+                new ImageMetrics(meterRegistry),
+                CpuStageExecutor.callerRuns(),
+                new OutOfCoreProcessor(0, 2_000_000_000L, 1 << 20, ""),
+                new FilterProgramCache(meterRegistry, 100),
+                statistics, 100, 60_000);
+    }
+
+    @Benchmark
+    public void processGrayscale() throws IOException {
+        imageService.processGrayscale(file, filterHistoryJson, 40, previewMaxDimension, null).writeTo(OutputStream.nullOutputStream());
+    }
+}
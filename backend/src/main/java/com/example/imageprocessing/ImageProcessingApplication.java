@@ -1,9 +1,14 @@
 package com.example.imageprocessing;
 
+import com.example.imageprocessing.config.NativeImageHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
+@ImportRuntimeHints(NativeImageHints.class)
 public class ImageProcessingApplication {
 
     public static void main(String[] args) {
@@ -1,6 +1,8 @@
 package com.example.imageprocessing.config;
 
+import com.example.imageprocessing.controller.ImageController;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,6 +15,12 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("https://image-processing-puce.vercel.app")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                // 결과 통계와 자동 밝기 값은 응답 헤더로 내려준다
+                .exposedHeaders(HttpHeaders.ETAG,
+                        ImageController.LUMINANCE_MEAN_HEADER,
+                        ImageController.LUMINANCE_RANGE_HEADER,
+                        ImageController.LUMINANCE_PERCENTILES_HEADER,
+                        ImageController.BRIGHTNESS_ADJUSTMENT_HEADER)
                 .allowCredentials(true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.example.imageprocessing.config;
+
+import com.example.imageprocessing.service.FilterType;
+import com.example.imageprocessing.service.ImageJob;
+import com.example.imageprocessing.service.ImageStatistics;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+// 네이티브 이미지(./gradlew nativeCompile)에서 정적 분석으로 찾지 못하는 리플렉션, JNI, 리소스 접근
+// AWT 그리기 루프처럼 경로마다 달라지는 나머지는 추적 에이전트로 모아서 src/main/resources/META-INF/native-image 에 둔다
+// (./gradlew -Pagent test metadataCopy)
+public class NativeImageHints implements RuntimeHintsRegistrar {
+    // 네이티브 코드(libawt, libjavajpeg, liblcms)가 JNI 로 필드를 읽고 메서드를 부르는 클래스
+    private static final List<String> JNI_TYPES = List.of(
+            // BufferedImage, ColorModel, Raster 의 initIDs 와 SurfaceData (getRGB, drawImage)
+            "java.awt.image.BufferedImage",
+            "java.awt.image.ColorModel",
+            "java.awt.image.IndexColorModel",
+            "java.awt.image.Raster",
+            "java.awt.image.SampleModel",
+            "java.awt.image.SinglePixelPackedSampleModel",
+            "sun.awt.image.ByteComponentRaster",
+            "sun.awt.image.BytePackedRaster",
+            "sun.awt.image.IntegerComponentRaster",
+            "sun.awt.image.ShortComponentRaster",
+            "sun.awt.image.BufImgSurfaceData",
+            "sun.awt.image.BufImgSurfaceData$ICMColorData",
+            "sun.java2d.SurfaceData",
+            "sun.java2d.Disposer",
+            "sun.java2d.InvalidPipeException",
+            "sun.java2d.NullSurfaceData",
+            "sun.java2d.SunGraphics2D",
+            "java.awt.AlphaComposite",
+            "java.awt.Color",
+            // JPEG 을 흰 배경에 합성할 때 쓰는 그리기 루프 (GraphicsPrimitiveMgr 가 네이티브에서 생성자를 부른다)
+            "sun.java2d.loops.GraphicsPrimitiveMgr",
+            "sun.java2d.loops.GraphicsPrimitive",
+            "sun.java2d.loops.SurfaceType",
+            "sun.java2d.loops.CompositeType",
+            "sun.java2d.loops.Blit",
+            "sun.java2d.loops.BlitBg",
+            "sun.java2d.loops.FillRect",
+            "sun.java2d.loops.MaskBlit",
+            "sun.java2d.loops.MaskFill",
+            "sun.java2d.loops.ScaledBlit",
+            // JPEG 코덱 콜백 (readInputData, acceptPixels, writeOutputData 등)과 양자화/허프만 테이블
+            "com.sun.imageio.plugins.jpeg.JPEGImageReader",
+            "com.sun.imageio.plugins.jpeg.JPEGImageWriter",
+            "javax.imageio.plugins.jpeg.JPEGQTable",
+            "javax.imageio.plugins.jpeg.JPEGHuffmanTable",
+            // 흑백 이미지의 색 공간 변환
+            "sun.java2d.cmm.lcms.LCMS",
+            "sun.java2d.cmm.lcms.LCMSImageLayout",
+            "sun.java2d.cmm.lcms.LCMSTransform");
+
+    // Vision API 요청/응답 protobuf 메시지 (GeneratedMessageV3 의 FieldAccessorTable 이 메시지와 Builder 의 접근자를 리플렉션으로 찾는다)
+    // 응답은 OcrGateway 가 읽는 필드(fullTextAnnotation, error)와 그 안의 메시지까지. 각 메시지의 $Builder 도 함께 등록한다
+    // gRPC, Netty, 인증 클라이언트 설정은 Google 클라이언트 라이브러리 jar 의 META-INF/native-image 를 쓴다
+    private static final List<String> VISION_MESSAGE_TYPES = List.of(
+            "com.google.cloud.vision.v1.BatchAnnotateImagesRequest",
+            "com.google.cloud.vision.v1.BatchAnnotateImagesResponse",
+            "com.google.cloud.vision.v1.AnnotateImageRequest",
+            "com.google.cloud.vision.v1.AnnotateImageResponse",
+            "com.google.cloud.vision.v1.Feature",
+            "com.google.cloud.vision.v1.Image",
+            "com.google.cloud.vision.v1.ImageContext",
+            "com.google.cloud.vision.v1.TextAnnotation",
+            "com.google.cloud.vision.v1.TextAnnotation$TextProperty",
+            "com.google.cloud.vision.v1.TextAnnotation$DetectedLanguage",
+            "com.google.cloud.vision.v1.TextAnnotation$DetectedBreak",
+            "com.google.cloud.vision.v1.Page",
+            "com.google.cloud.vision.v1.Block",
+            "com.google.cloud.vision.v1.Paragraph",
+            "com.google.cloud.vision.v1.Word",
+            "com.google.cloud.vision.v1.Symbol",
+            "com.google.cloud.vision.v1.EntityAnnotation",
+            "com.google.cloud.vision.v1.BoundingPoly",
+            "com.google.cloud.vision.v1.Vertex",
+            "com.google.cloud.vision.v1.NormalizedVertex",
+            "com.google.rpc.Status",
+            "com.google.protobuf.Any");
+
+    // 메시지 필드의 enum (Builder 가 valueOf, forNumber 를 리플렉션으로 부른다)
+    private static final List<String> VISION_ENUM_TYPES = List.of(
+            "com.google.cloud.vision.v1.Feature$Type",
+            "com.google.cloud.vision.v1.Block$BlockType",
+            "com.google.cloud.vision.v1.TextAnnotation$DetectedBreak$BreakType");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // 기본 코덱은 IIORegistry 가 직접 만들고, 클래스패스에 추가한 ImageIO 플러그인은 ServiceLoader 로 찾는다
+        hints.resources().registerPattern("META-INF/services/javax.imageio.spi.*");
+
+        for (String type : JNI_TYPES) {
+            hints.jni().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        for (String type : VISION_MESSAGE_TYPES) {
+            registerProtobufType(hints, classLoader, type);
+            registerProtobufType(hints, classLoader, type + "$Builder");
+        }
+        for (String type : VISION_ENUM_TYPES) {
+            registerProtobufType(hints, classLoader, type);
+        }
+
+        // 컨트롤러 반환 타입으로 드러나지 않는 Jackson 변환 대상 (filterHistory JSON, 작업 상태, 통계)
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                FilterType.class, ImageJob.State.class, ImageJob.Priority.class, ImageStatistics.class);
+    }
+
+    private static void registerProtobufType(RuntimeHints hints, ClassLoader classLoader, String type) {
+        hints.reflection().registerTypeIfPresent(classLoader, type,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+}
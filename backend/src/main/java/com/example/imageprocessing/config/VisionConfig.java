@@ -6,6 +6,7 @@ import com.google.cloud.vision.v1.ImageAnnotatorClient;
 import com.google.cloud.vision.v1.ImageAnnotatorSettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 
 import java.io.ByteArrayInputStream;
@@ -18,6 +19,8 @@ import java.util.List;
 @Configuration
 public class VisionConfig {
 
+    // 처음 OCR 요청을 보낼 때 만든다 (OcrGateway). 인증 정보가 없어도 서버는 뜨고, 네이티브 이미지의 시작 시간에도 들어가지 않는다
+    @Lazy
     @Bean
     public ImageAnnotatorClient imageAnnotatorClient() throws IOException {
 
@@ -0,0 +1,63 @@
+package com.example.imageprocessing.controller;
+
+import com.example.imageprocessing.service.BatchService;
+import com.example.imageprocessing.service.CropRegion;
+import com.example.imageprocessing.service.FilterProgram;
+import com.example.imageprocessing.service.ImageService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+
+// 여러 이미지(파일 여러 개 또는 ZIP)에 같은 필터를 적용해서 ZIP 으로 돌려준다
+// 항목별 성공/실패는 ZIP 안의 results.json 에 기록
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/image")
+public class BatchController {
+    private final BatchService batchService;
+    private final ImageService imageService;
+
+    public BatchController(BatchService batchService, ImageService imageService) {
+        this.batchService = batchService;
+        this.imageService = imageService;
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> processBatch(
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+            @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+            @RequestParam(value = "x1", required = false) Integer x1,
+            @RequestParam(value = "y1", required = false) Integer y1,
+            @RequestParam(value = "x2", required = false) Integer x2,
+            @RequestParam(value = "y2", required = false) Integer y2
+    ) throws IOException {
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        batchService.validate(files, archive);
+        FilterProgram program = imageService.buildProgram(filterHistoryJson, adjustment, toCropRegion(x1, y1, x2, y2));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("batch.zip").build().toString())
+                .body(output -> batchService.process(files, archive, program, output));
+    }
+
+    private CropRegion toCropRegion(Integer x1, Integer y1, Integer x2, Integer y2) {
+        if (x1 == null && y1 == null && x2 == null && y2 == null) {
+            return null;
+        }
+        if (x1 == null || y1 == null || x2 == null || y2 == null) {
+            throw new IllegalArgumentException("크롭 좌표는 x1, y1, x2, y2 를 모두 지정해야 합니다.");
+        }
+        return new CropRegion(x1, y1, x2, y2);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.imageprocessing.controller;
+
+import com.example.imageprocessing.service.EditOperation;
+import com.example.imageprocessing.service.EditSession;
+import com.example.imageprocessing.service.EditSessionService;
+import com.example.imageprocessing.service.ProcessedImage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+// 원본을 한 번 업로드해 세션을 만들고, 이후에는 편집 작업만 보낸다
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/session")
+public class EditSessionController {
+    private final EditSessionService editSessionService;
+
+    public EditSessionController(EditSessionService editSessionService) {
+        this.editSessionService = editSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createSession(@RequestParam("file") MultipartFile file) throws IOException {
+        EditSession session = editSessionService.create(file);
+
+        return ResponseEntity.ok(Map.of(
+                "sessionId", session.getId(),
+                "width", session.getWidth(),
+                "height", session.getHeight()
+        ));
+    }
+
+    @PostMapping("/{sessionId}/operations")
+    public ResponseEntity<StreamingResponseBody> applyOperation(@PathVariable String sessionId,
+                                                                @RequestBody EditOperation operation) throws IOException {
+        ProcessedImage processedImage = editSessionService.apply(sessionId, operation);
+
+        return toResponse(processedImage);
+    }
+
+    @PostMapping("/{sessionId}/undo")
+    public ResponseEntity<StreamingResponseBody> undo(@PathVariable String sessionId) throws IOException {
+        ProcessedImage processedImage = editSessionService.undo(sessionId);
+
+        return toResponse(processedImage);
+    }
+
+    @GetMapping("/{sessionId}/image")
+    public ResponseEntity<StreamingResponseBody> getImage(@PathVariable String sessionId) {
+        ProcessedImage processedImage = editSessionService.current(sessionId);
+
+        return toResponse(processedImage);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+        editSessionService.close(sessionId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<StreamingResponseBody> toResponse(ProcessedImage processedImage) {
+        // 본문이 실행되지 않고 요청이 끝나도 메모리 예약을 반납하도록
+        ProcessedImageCleanupFilter.releaseAfterRequest(processedImage);
+        return ResponseEntity.ok()
+                .eTag(processedImage.getETag())
+                .contentType(MediaType.parseMediaType(processedImage.getContentType()))
+                .body(processedImage::writeTo);
+    }
+}
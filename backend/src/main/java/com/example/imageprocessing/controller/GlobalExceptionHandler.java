@@ -1,5 +1,11 @@
 package com.example.imageprocessing.controller;
 
+import com.example.imageprocessing.service.EditSessionNotFoundException;
+import com.example.imageprocessing.service.ImageJobNotFoundException;
+import com.example.imageprocessing.service.ImageJobNotReadyException;
+import com.example.imageprocessing.service.ImageOverloadException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -20,6 +26,35 @@ public class GlobalExceptionHandler {
                 .body(wrapError(e.getMessage()));
     }
 
+    @ExceptionHandler(EditSessionNotFoundException.class)
+    public ResponseEntity<?> handleNotFound(EditSessionNotFoundException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(wrapError(e.getMessage()));
+    }
+
+    @ExceptionHandler(ImageJobNotFoundException.class)
+    public ResponseEntity<?> handleJobNotFound(ImageJobNotFoundException e) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(wrapError(e.getMessage()));
+    }
+
+    @ExceptionHandler(ImageJobNotReadyException.class)
+    public ResponseEntity<?> handleJobNotReady(ImageJobNotReadyException e) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(wrapError(e.getMessage()));
+    }
+
+    @ExceptionHandler(ImageOverloadException.class)
+    public ResponseEntity<?> handleOverload(ImageOverloadException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(wrapError(e.getMessage()));
+    }
+
     @ExceptionHandler(IOException.class)
     public ResponseEntity<?> handleIO(IOException e) {
         return ResponseEntity
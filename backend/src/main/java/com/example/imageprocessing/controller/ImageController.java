@@ -1,20 +1,36 @@
 package com.example.imageprocessing.controller;
 
+import com.example.imageprocessing.service.FilterType;
 import com.example.imageprocessing.service.ImageService;
+import com.example.imageprocessing.service.ImageStatistics;
+import com.example.imageprocessing.service.ProcessedImage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/api/image")
 public class ImageController {
+    public static final String LUMINANCE_MEAN_HEADER = "X-Image-Luminance-Mean";
+    public static final String LUMINANCE_RANGE_HEADER = "X-Image-Luminance-Range";
+    public static final String LUMINANCE_PERCENTILES_HEADER = "X-Image-Luminance-Percentiles";
+    public static final String BRIGHTNESS_ADJUSTMENT_HEADER = "X-Brightness-Adjustment";
+
     private final ImageService imageService;
 
     public ImageController(ImageService imageService){
@@ -22,55 +38,173 @@ public class ImageController {
     }
 
     @PostMapping("/grayscale")
-    public ResponseEntity<byte[]> processGrayscale(@RequestParam("file") MultipartFile file,
+    public ResponseEntity<StreamingResponseBody> processGrayscale(@RequestParam("file") MultipartFile file,
                                                    @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
-                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment) throws IOException {
+                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
 
         int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
 
         // Service layer로 MultipartFile과 필터 처리 위임
-        byte[] processedImageBytes = imageService.processGrayscale(file, filterHistoryJson, adjustment);
+        ProcessedImage processedImage = imageService.processGrayscale(file, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
 
-        // 처리된 이미지 바이트 배열을 HTTP 응답으로 변환
-        return ResponseEntity.ok(processedImageBytes);
+        // 처리된 이미지를 HTTP 응답 스트림에 바로 인코딩
+        return toResponse(processedImage);
     }
 
     @PostMapping("/invert")
-    public ResponseEntity<byte[]> processInvert(@RequestParam("file") MultipartFile file,
+    public ResponseEntity<StreamingResponseBody> processInvert(@RequestParam("file") MultipartFile file,
                                                 @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
-                                                @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment) throws IOException {
+                                                @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
         int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
 
-        byte[] processedImageBytes = imageService.processInvert(file, filterHistoryJson, adjustment);
+        ProcessedImage processedImage = imageService.processInvert(file, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
 
-        return ResponseEntity.ok(processedImageBytes);
+        return toResponse(processedImage);
     }
 
     @PostMapping("/brightness")
-    public ResponseEntity<byte[]> processBrightness(@RequestParam("file") MultipartFile file,
+    public ResponseEntity<StreamingResponseBody> processBrightness(@RequestParam("file") MultipartFile file,
                                                     @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
-                                                    @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment) throws IOException {
+                                                    @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                    @RequestParam(value = "auto", required = false) Boolean auto,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        // auto 면 필터 결과의 휘도 히스토그램으로 밝기를 정하고, 정한 값은 X-Brightness-Adjustment 헤더로 돌려준다
+        if (Boolean.TRUE.equals(auto)) {
+            return toResponse(imageService.processAutoBrightness(file, filterHistoryJson, previewOf(previewMaxDimension), ifNoneMatch));
+        }
+
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        ProcessedImage processedImage = imageService.processBrightness(file,filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
+
+        return toResponse(processedImage);
+    }
+
+    @PostMapping("/blur")
+    public ResponseEntity<StreamingResponseBody> processBlur(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        ProcessedImage processedImage = imageService.processConvolution(file, FilterType.Blur, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
+
+        return toResponse(processedImage);
+    }
+
+    @PostMapping("/box-blur")
+    public ResponseEntity<StreamingResponseBody> processBoxBlur(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        ProcessedImage processedImage = imageService.processConvolution(file, FilterType.BoxBlur, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
+
+        return toResponse(processedImage);
+    }
+
+    @PostMapping("/sharpen")
+    public ResponseEntity<StreamingResponseBody> processSharpen(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        ProcessedImage processedImage = imageService.processConvolution(file, FilterType.Sharpen, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
+
+        return toResponse(processedImage);
+    }
+
+    @PostMapping("/edge-detect")
+    public ResponseEntity<StreamingResponseBody> processEdgeDetect(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+                                                   @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+                                                   @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
         int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
 
-        byte[] processedImageBytes = imageService.processBrightness(file,filterHistoryJson, adjustment);
+        ProcessedImage processedImage = imageService.processConvolution(file, FilterType.EdgeDetect, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
 
-        return ResponseEntity.ok(processedImageBytes);
+        return toResponse(processedImage);
     }
 
     @PostMapping("/crop")
-    public ResponseEntity<byte[]> cropImage(
+    public ResponseEntity<StreamingResponseBody> cropImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam("x1") int x1,
             @RequestParam("y1") int y1,
             @RequestParam("x2") int x2,
             @RequestParam("y2") int y2,
             @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
-            @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment
+            @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+            @RequestParam(value = "previewMaxDimension", required = false) Integer previewMaxDimension,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) throws IOException {
         int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
 
-        byte[] processedImageBytes = imageService.processCrop(file, x1, y1, x2, y2, filterHistoryJson, adjustment);
+        ProcessedImage processedImage = imageService.processCrop(file, x1, y1, x2, y2, filterHistoryJson, adjustment, previewOf(previewMaxDimension), ifNoneMatch);
+
+        return toResponse(processedImage);
+    }
+
+    // 필터 응답의 ETag 로 결과 이미지의 채널별/휘도 히스토그램 전체를 조회
+    @GetMapping("/statistics")
+    public ResponseEntity<ImageStatistics> statistics(@RequestParam("etag") String eTag) {
+        return imageService.statistics(eTag)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // 미리보기 크기를 지정하지 않으면 원본 해상도 (저장/내보내기용)
+    private int previewOf(Integer previewMaxDimension) {
+        if (previewMaxDimension == null) {
+            return ImageService.FULL_RESOLUTION;
+        }
+        if (previewMaxDimension <= 0) {
+            throw new IllegalArgumentException("미리보기 크기는 0보다 커야 합니다.");
+        }
+        return previewMaxDimension;
+    }
+
+    // 같은 원본과 필터로 이미 받은 결과가 있으면 (서비스가 If-None-Match 를 처리 전에 비교) 본문 없이 304
+    private ResponseEntity<StreamingResponseBody> toResponse(ProcessedImage processedImage) {
+        // 본문이 실행되지 않고 요청이 끝나도 메모리 예약을 반납하도록
+        ProcessedImageCleanupFilter.releaseAfterRequest(processedImage);
+        if (processedImage.isNotModified()) {
+            return withStatistics(ResponseEntity.status(HttpStatus.NOT_MODIFIED), processedImage)
+                    .eTag(processedImage.getETag())
+                    .build();
+        }
+
+        return withStatistics(ResponseEntity.ok(), processedImage)
+                .eTag(processedImage.getETag())
+                .contentType(MediaType.parseMediaType(processedImage.getContentType()))
+                .body(processedImage::writeTo);
+    }
 
-        return ResponseEntity.ok(processedImageBytes);
+    // 요약 값만 헤더로 (히스토그램 전체는 /statistics)
+    private ResponseEntity.BodyBuilder withStatistics(ResponseEntity.BodyBuilder response, ProcessedImage processedImage) {
+        ImageStatistics statistics = processedImage.getStatistics();
+        if (statistics != null) {
+            String percentiles = statistics.getLuminancePercentiles().entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(","));
+            response.header(LUMINANCE_MEAN_HEADER, String.format(Locale.ROOT, "%.2f", statistics.getMeanLuminance()))
+                    .header(LUMINANCE_RANGE_HEADER, statistics.getMinLuminance() + "-" + statistics.getMaxLuminance())
+                    .header(LUMINANCE_PERCENTILES_HEADER, percentiles);
+        }
+        if (processedImage.getAutoBrightnessAdjustment() != null) {
+            response.header(BRIGHTNESS_ADJUSTMENT_HEADER, String.valueOf(processedImage.getAutoBrightnessAdjustment()));
+        }
+        return response;
     }
-}
\ No newline at end of file
+}
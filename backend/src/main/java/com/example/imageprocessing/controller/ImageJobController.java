@@ -0,0 +1,133 @@
+package com.example.imageprocessing.controller;
+
+import com.example.imageprocessing.service.CropRegion;
+import com.example.imageprocessing.service.FilterProgram;
+import com.example.imageprocessing.service.ImageJob;
+import com.example.imageprocessing.service.ImageJobService;
+import com.example.imageprocessing.service.ImageService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 큰 이미지를 비동기로 처리. 등록하면 바로 작업 id 를 돌려주고, 진행률 조회 후 결과를 받아 간다
+// 결과는 Range 요청으로 나눠 받거나 끊긴 지점부터 이어 받을 수 있다
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/jobs")
+public class ImageJobController {
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String DEFAULT_TENANT = "anonymous";
+    private static final int MAX_TENANT_LENGTH = 64;
+
+    private final ImageJobService imageJobService;
+    private final ImageService imageService;
+
+    public ImageJobController(ImageJobService imageJobService, ImageService imageService) {
+        this.imageJobService = imageJobService;
+        this.imageService = imageService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submit(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "filterHistory", required = false) String filterHistoryJson,
+            @RequestParam(value = "brightnessAdjustment", required = false) Integer brightnessAdjustment,
+            @RequestParam(value = "x1", required = false) Integer x1,
+            @RequestParam(value = "y1", required = false) Integer y1,
+            @RequestParam(value = "x2", required = false) Integer x2,
+            @RequestParam(value = "y2", required = false) Integer y2,
+            @RequestParam(value = "priority", required = false) String priority,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenant
+    ) throws IOException {
+        int adjustment = (brightnessAdjustment != null) ? brightnessAdjustment : 0;
+
+        FilterProgram program = imageService.buildProgram(filterHistoryJson, adjustment, toCropRegion(x1, y1, x2, y2));
+        ImageJob job = imageJobService.submit(file, program, tenantOf(tenant), priorityOf(priority));
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(toStatus(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(toStatus(imageJobService.get(jobId)));
+    }
+
+    // Resource 로 돌려주면 Range 헤더에 따라 206 부분 응답과 Accept-Ranges 는 Spring 이 처리한다
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String jobId) {
+        ImageJob job = imageJobService.result(jobId);
+
+        return ResponseEntity.ok()
+                .eTag(job.getETag())
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .body(new FileSystemResource(job.getResult()));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable String jobId) {
+        imageJobService.cancel(jobId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private Map<String, Object> toStatus(ImageJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getId());
+        status.put("state", job.getState());
+        status.put("priority", job.getPriority());
+        status.put("rowsProcessed", job.getRowsProcessed());
+        status.put("totalRows", job.getTotalRows());
+        status.put("retries", job.getRetries());
+        if (job.getState() == ImageJob.State.SUCCEEDED) {
+            status.put("resultBytes", job.getResultBytes());
+            status.put("resultUrl", "/api/jobs/" + job.getId() + "/result");
+        }
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return status;
+    }
+
+    private ImageJob.Priority priorityOf(String priority) {
+        if (priority == null || priority.isBlank()) {
+            return ImageJob.Priority.NORMAL;
+        }
+        try {
+            return ImageJob.Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("우선순위는 HIGH, NORMAL, LOW 중 하나여야 합니다.");
+        }
+    }
+
+    private String tenantOf(String tenant) {
+        if (tenant == null || tenant.isBlank()) {
+            return DEFAULT_TENANT;
+        }
+        if (tenant.length() > MAX_TENANT_LENGTH) {
+            throw new IllegalArgumentException("테넌트 id 는 최대 " + MAX_TENANT_LENGTH + "자입니다.");
+        }
+        return tenant.trim();
+    }
+
+    private CropRegion toCropRegion(Integer x1, Integer y1, Integer x2, Integer y2) {
+        if (x1 == null && y1 == null && x2 == null && y2 == null) {
+            return null;
+        }
+        if (x1 == null || y1 == null || x2 == null || y2 == null) {
+            throw new IllegalArgumentException("크롭 좌표는 x1, y1, x2, y2 를 모두 지정해야 합니다.");
+        }
+        return new CropRegion(x1, y1, x2, y2);
+    }
+}
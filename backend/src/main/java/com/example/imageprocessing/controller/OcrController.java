@@ -1,46 +1,32 @@
 package com.example.imageprocessing.controller;
 
-import com.google.cloud.vision.v1.*;
-import com.google.protobuf.ByteString;
+import com.example.imageprocessing.service.OcrGateway;
+import com.example.imageprocessing.service.OcrResult;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/image")
 public class OcrController {
-    private final ImageAnnotatorClient client;
+    private final OcrGateway ocrGateway;
 
-    public OcrController(ImageAnnotatorClient client) {
-        this.client = client;
+    public OcrController(OcrGateway ocrGateway) {
+        this.ocrGateway = ocrGateway;
     }
 
+    // 동시에 들어온 요청은 OcrGateway 에서 묶어서 한 번에 보내고, 같은 이미지는 캐시된 결과를 돌려준다
     @PostMapping("/ocr")
-    public ResponseEntity<?> extractText(@RequestParam("file") MultipartFile file) throws Exception{
-        ByteString imgBytes = ByteString.copyFrom(file.getBytes());
-        Image image = Image.newBuilder().setContent(imgBytes).build();
+    public ResponseEntity<?> extractText(@RequestParam("file") MultipartFile file) throws IOException {
+        OcrResult result = ocrGateway.extractText(file);
 
-        Feature feature = Feature.newBuilder()
-                .setType(Feature.Type.TEXT_DETECTION)
-                .build();
-
-        AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
-                .addFeatures(feature)
-                .setImage(image)
-                .build();
-
-        BatchAnnotateImagesResponse response = client.batchAnnotateImages(List.of(request));
-        AnnotateImageResponse res = response.getResponses(0);
-
-        if(res.hasError()){
-            return ResponseEntity.badRequest().body(Map.of("error",  res.getError().getMessage()));
+        if (result.hasError()) {
+            return ResponseEntity.badRequest().body(Map.of("error", result.error()));
         }
 
-        String detectedText = res.getFullTextAnnotation().getText();
-
-        return ResponseEntity.ok(Map.of("text", detectedText));
+        return ResponseEntity.ok(Map.of("text", result.text()));
     }
 }
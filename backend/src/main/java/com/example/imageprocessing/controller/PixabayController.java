@@ -1,31 +1,41 @@
 package com.example.imageprocessing.controller;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.example.imageprocessing.service.PixabayGateway;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/pixabay")
 public class PixabayController {
+    private final PixabayGateway pixabayGateway;
 
-    @Value("${PIXABAY_API_KEY}")
-    private String pixabayKey;
+    public PixabayController(PixabayGateway pixabayGateway) {
+        this.pixabayGateway = pixabayGateway;
+    }
 
+    // 같은 검색어는 PixabayGateway 에서 캐시된 결과를 돌려주고, 동시에 들어온 같은 검색은 한 번만 호출한다
     @GetMapping("/search")
     public ResponseEntity<?> searchImages(@RequestParam String q) {
         try {
-            String url = "https://pixabay.com/api/?key=" + pixabayKey + "&q=" + q;
-
-            RestTemplate rt = new RestTemplate();
-            Map<String, Object> response = rt.getForObject(url, Map.class);
-
-            return ResponseEntity.ok(response.get("hits"));
-
-        } catch (Exception e) {
+            return ResponseEntity.ok(pixabayGateway.search(q));
+        } catch (IOException e) {
             return ResponseEntity.status(500).body("[ERROR] Pixabay 검색 실패");
         }
     }
-}
\ No newline at end of file
+
+    // 검색 결과의 thumbnailURL. 썸네일 미리 받기를 켠 경우에만 내려준다
+    @GetMapping("/thumbnails/{id}")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable String id) throws IOException {
+        return pixabayGateway.thumbnail(id)
+                .map(thumbnail -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(thumbnail.contentType()))
+                        .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                        .body(thumbnail.bytes()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
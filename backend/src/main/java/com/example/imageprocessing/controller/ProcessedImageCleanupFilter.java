@@ -0,0 +1,87 @@
+package com.example.imageprocessing.controller;
+
+import com.example.imageprocessing.service.ProcessedImage;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// 응답 본문(StreamingResponseBody)이 끝내 실행되지 않아도 (본문을 쓰기 전에 연결이 끊김, 비동기 실행기가 거절, 응답을 만든 뒤의 오류)
+// 처리 결과가 붙잡은 메모리 예약과 임시 파일을 반납하도록, 요청이 끝날 때 컨트롤러가 등록한 결과를 정리한다.
+// 비동기로 넘어간 요청은 AsyncListener 의 완료/오류/시간 초과 때, 아니면 필터 체인이 끝날 때 정리한다 (ProcessedImage.discard 는 여러 번 불러도 된다)
+@Component
+public class ProcessedImageCleanupFilter extends OncePerRequestFilter {
+    private static final String ATTRIBUTE = ProcessedImageCleanupFilter.class.getName() + ".images";
+
+    // 응답으로 돌려줄 결과를 요청 스레드에서 등록. 요청 밖(서비스 테스트 등)이면 writeTo/discard 로만 반납한다
+    static ProcessedImage releaseAfterRequest(ProcessedImage processedImage) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            imagesOf(attributes).add(processedImage);
+        }
+        return processedImage;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new DiscardOnCompletion(request));
+            } else {
+                discardAll(request);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ProcessedImage> imagesOf(RequestAttributes attributes) {
+        List<ProcessedImage> images = (List<ProcessedImage>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (images == null) {
+            images = new ArrayList<>();
+            attributes.setAttribute(ATTRIBUTE, images, RequestAttributes.SCOPE_REQUEST);
+        }
+        return images;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void discardAll(HttpServletRequest request) {
+        List<ProcessedImage> images = (List<ProcessedImage>) request.getAttribute(ATTRIBUTE);
+        if (images != null) {
+            images.forEach(ProcessedImage::discard);
+        }
+    }
+
+    private record DiscardOnCompletion(HttpServletRequest request) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            discardAll(request);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            discardAll(request);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            discardAll(request);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.imageprocessing.domain;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntUnaryOperator;
+
+// 채널 값(0~255)마다 Pixel 연산 결과를 미리 계산해 둔 256칸 테이블
+// 반환되는 배열은 캐시를 공유하므로 수정하면 안 된다.
+public class ChannelLookupTables {
+    private ChannelLookupTables() {}
+
+    private static final int SIZE = 256;
+    private static final int MAX_ADJUSTMENT = 255;
+
+    private static final int[] IDENTITY = build(value -> value);
+    private static final int[] INVERT = build(value -> red(new Pixel(value, value, value).toInvert()));
+    private static final int[] GRAYSCALE_OF_GRAY = build(value -> red(new Pixel(value, value, value).toGrayScale()));
+
+    // 밝기 -255 ~ 255 마다 테이블 하나씩, 처음 요청될 때 만든다
+    private static final AtomicReferenceArray<int[]> BRIGHTNESS = new AtomicReferenceArray<>(MAX_ADJUSTMENT * 2 + 1);
+
+    // 흑백 가중합의 채널별 항. Pixel.toGrayScale 과 같은 순서로 더해야 반올림 결과가 같다
+    private static final double[] RED_LUMINANCE = weighted(GrayscaleWeights.RED_SENSITIVITY);
+    private static final double[] GREEN_LUMINANCE = weighted(GrayscaleWeights.GREEN_SENSITIVITY);
+    private static final double[] BLUE_LUMINANCE = weighted(GrayscaleWeights.BLUE_SENSITIVITY);
+
+    public static int[] identity() {
+        return IDENTITY;
+    }
+
+    public static int[] invert() {
+        return INVERT;
+    }
+
+    // 이미 흑백인 픽셀(R = G = B)에 흑백 변환을 다시 적용하는 테이블
+    public static int[] grayscaleOfGray() {
+        return GRAYSCALE_OF_GRAY;
+    }
+
+    public static int[] brightness(int adjustment) {
+        // 범위를 벗어난 값은 어차피 모든 채널이 0 또는 255로 clamp 되므로 양 끝 테이블과 같다
+        int clamped = Math.max(-MAX_ADJUSTMENT, Math.min(MAX_ADJUSTMENT, adjustment));
+        int index = clamped + MAX_ADJUSTMENT;
+
+        int[] table = BRIGHTNESS.get(index);
+        if (table == null) {
+            table = build(value -> red(new Pixel(value, value, value).adjustBrightness(clamped)));
+            if (!BRIGHTNESS.compareAndSet(index, null, table)) {
+                table = BRIGHTNESS.get(index);
+            }
+        }
+        return table;
+    }
+
+    // first 를 적용한 뒤 second 를 적용하는 테이블
+    public static int[] compose(int[] first, int[] second) {
+        if (first == IDENTITY) {
+            return second;
+        }
+        if (second == IDENTITY) {
+            return first;
+        }
+        return build(value -> second[first[value]]);
+    }
+
+    public static int luminance(int red, int green, int blue) {
+        return (int) Math.round(RED_LUMINANCE[red] + GREEN_LUMINANCE[green] + BLUE_LUMINANCE[blue]);
+    }
+
+    private static int[] build(IntUnaryOperator operator) {
+        int[] table = new int[SIZE];
+        for (int value = 0; value < SIZE; value++) {
+            table[value] = operator.applyAsInt(value);
+        }
+        return table;
+    }
+
+    private static double[] weighted(double weight) {
+        double[] table = new double[SIZE];
+        for (int value = 0; value < SIZE; value++) {
+            table[value] = weight * value;
+        }
+        return table;
+    }
+
+    private static int red(Pixel pixel) {
+        Color color = pixel.toAwtColor();
+        return color.getRed();
+    }
+}
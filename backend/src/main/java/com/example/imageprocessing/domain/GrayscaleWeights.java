@@ -6,4 +6,15 @@ public class GrayscaleWeights {
     public static final double RED_SENSITIVITY = 0.2126;
     public static final double GREEN_SENSITIVITY = 0.7152;
     public static final double BLUE_SENSITIVITY = 0.0722;
+
+    // 정수 연산용 2^22 고정소수점 가중치 (합이 정확히 2^22)
+    // 16,777,216 가지 색을 모두 대조해서 고른 값으로, (가중합 + 2^21) >> 22 가 Pixel.toGrayScale 의 Math.round 결과와 같다.
+    // 단, 십진 가중합이 정확히 x.5 인 색(3,368 가지)은 double 계산 오차에 따라 올림/내림이 갈려서 어떤 정수 가중치로도 맞출 수 없다.
+    // 이런 색은 고정소수점 소수부가 0.5 에서 FIXED_POINT_TIE_WINDOW 안쪽(실제로는 58 이내)에 있고,
+    // 나머지 색은 모두 781 이상 떨어져 있으므로 이 범위 안이면 double 로 다시 계산한다.
+    public static final int FIXED_POINT_SHIFT = 22;
+    public static final int RED_FIXED_POINT = 891709;
+    public static final int GREEN_FIXED_POINT = 2999766;
+    public static final int BLUE_FIXED_POINT = 302829;
+    public static final int FIXED_POINT_TIE_WINDOW = 256;
 }
@@ -0,0 +1,9 @@
+package com.example.imageprocessing.domain;
+
+// 픽셀을 디코딩하지 않고 헤더에서 읽은 이미지 정보
+public record ImageHeader(String formatName, int width, int height) {
+
+    public long pixelCount() {
+        return (long) width * height;
+    }
+}
@@ -1,24 +1,39 @@
 package com.example.imageprocessing.domain;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-
 @Component
 public class ImageValidator {
+    private final long maxPixels;
+
+    public ImageValidator(@Value("${image.max-pixels:100000000}") long maxPixels) {
+        this.maxPixels = maxPixels;
+    }
 
-    public void validate(MultipartFile file) throws IOException {
+    public void validate(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("파일이 존재하지 않습니다.");
         }
+    }
 
-        BufferedImage image = ImageIO.read(file.getInputStream());
+    public long getMaxPixels() {
+        return maxPixels;
+    }
+
+    // 디코딩 전에 헤더의 크기만으로 너무 큰 이미지(픽셀 폭탄)를 거른다
+    public void validate(ImageHeader header) {
+        validate(header, maxPixels);
+    }
+
+    public void validate(ImageHeader header, long maxPixels) {
+        if (header.width() <= 0 || header.height() <= 0) {
+            throw new IllegalArgumentException("유효하지 않은 이미지 크기입니다.");
+        }
 
-        if (image == null) {
-            throw new IllegalArgumentException("지원하지 않는 파일 형식 또는 유효하지 않은 이미지 파일입니다.");
+        if (header.pixelCount() > maxPixels) {
+            throw new IllegalArgumentException("이미지 해상도가 너무 큽니다. (최대 " + maxPixels + " 픽셀)");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,375 @@
+package com.example.imageprocessing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+// 같은 필터 프로그램을 여러 이미지에 동시에 적용하고, 끝나는 순서대로 ZIP 응답에 바로 쓴다
+// 동시에 처리 중인 항목 수를 제한해서, 결과를 다 쓰기 전에는 ZIP 입력도 더 읽지 않는다
+// ZIP 에서 꺼낸 원본과 인코딩한 결과는 힙에 두지 않고 디렉터리에 파일로 두었다가 응답에 옮긴 뒤 지운다
+// (항목마다 최대 max-entry-bytes 인 원본과 결과를 동시에 여러 개 들고 있으면 메모리 예산 밖에서 힙을 쓴다)
+@Service
+public class BatchService {
+    static final String MANIFEST_NAME = "results.json";
+    private static final String INPUT_SUFFIX = ".batch-input";
+    private static final String RESULT_SUFFIX = ".batch-result";
+    private static final String PROCESSING_ERROR = "이미지 처리 중 오류가 발생했습니다.";
+
+    private final ImageService imageService;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int maxItems;
+    private final long maxEntryBytes;
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BatchService(ImageService imageService,
+                        @Value("${image.batch.concurrency:0}") int concurrency,
+                        @Value("${image.batch.max-items:1000}") int maxItems,
+                        @Value("${image.batch.max-entry-bytes:67108864}") long maxEntryBytes,
+                        @Value("${image.batch.directory:}") String directory) throws IOException {
+        this.imageService = imageService;
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "image-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 처리 중인 항목 외에 하나씩 더 대기시켜 두어 스레드가 놀지 않게 한다
+        this.maxInFlight = threads * 2;
+        this.maxItems = maxItems;
+        this.maxEntryBytes = maxEntryBytes;
+        // 비워 두면 시스템 임시 디렉터리 아래에 만든다
+        this.directory = directory.isBlank()
+                ? Files.createTempDirectory("image-batch")
+                : Files.createDirectories(Path.of(directory));
+        deleteLeftovers();
+    }
+
+    // 응답을 시작하기 전에 확인할 수 있는 것만 검사 (ZIP 안의 항목 오류는 결과 목록에 기록)
+    public void validate(List<MultipartFile> files, MultipartFile archive) {
+        boolean hasFiles = files != null && !files.isEmpty();
+        boolean hasArchive = archive != null && !archive.isEmpty();
+        if (!hasFiles && !hasArchive) {
+            throw new IllegalArgumentException("처리할 파일이 없습니다.");
+        }
+        if (hasFiles && files.size() > maxItems) {
+            throw new IllegalArgumentException("한 번에 최대 " + maxItems + "개까지 처리할 수 있습니다.");
+        }
+    }
+
+    public void process(List<MultipartFile> files, MultipartFile archive, FilterProgram program, OutputStream output) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(output);
+        Batch batch = new Batch(program, zip);
+        try {
+            if (files != null) {
+                for (MultipartFile file : files) {
+                    batch.submit(file.getOriginalFilename(), file);
+                }
+            }
+            if (archive != null && !archive.isEmpty()) {
+                readArchive(archive, batch);
+            }
+            batch.finish();
+        } finally {
+            // 클라이언트가 연결을 끊는 등으로 중간에 실패하면 남은 작업은 버린다
+            batch.cancelPending();
+        }
+        zip.finish();
+    }
+
+    private void readArchive(MultipartFile archive, Batch batch) throws IOException {
+        try (ZipInputStream input = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory() || isHidden(name)) {
+                    continue;
+                }
+
+                // 선언된 크기는 믿을 수 없으므로 실제로 옮긴 바이트 수로 제한 (ZIP 폭탄 방지)
+                Path spooled = batch.spool(INPUT_SUFFIX);
+                if (!copyAtMost(input, spooled, maxEntryBytes)) {
+                    batch.delete(spooled);
+                    batch.fail(name, "파일이 너무 큽니다. (최대 " + maxEntryBytes + " 바이트)");
+                } else {
+                    batch.submit(name, new PathMultipartFile(name, spooled), spooled);
+                }
+            }
+        } catch (ZipException e) {
+            batch.fail(archive.getOriginalFilename(), "ZIP 파일을 읽을 수 없습니다.");
+        }
+    }
+
+    // limit 바이트를 넘으면 거기서 멈추고 false
+    private static boolean copyAtMost(InputStream input, Path target, long limit) throws IOException {
+        try (OutputStream output = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            long copied = 0;
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                copied += read;
+                if (copied > limit) {
+                    return false;
+                }
+                output.write(buffer, 0, read);
+            }
+            return true;
+        }
+    }
+
+    private static boolean isHidden(String entryName) {
+        return entryName.startsWith("__MACOSX/") || baseName(entryName).startsWith(".");
+    }
+
+    // ZIP 안의 경로나 클라이언트가 보낸 경로는 버리고 파일 이름만 사용
+    private static String baseName(String name) {
+        if (name == null || name.isBlank()) {
+            return "image";
+        }
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+        return name.substring(slash + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 이전 실행이 끝나지 못하고 남긴 파일
+    private void deleteLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.toString().endsWith(INPUT_SUFFIX) || path.toString().endsWith(RESULT_SUFFIX))
+                    .forEach(BatchService::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 다음 실행 때 deleteLeftovers 에서 지운다
+        }
+    }
+
+    // result 는 인코딩한 결과 파일 (실패면 null), size 와 crc 는 STORED 항목 헤더에 쓴다
+    private record ItemResult(int index, String name, Path result, long size, long crc, String error) {
+        static ItemResult failed(int index, String name, String error) {
+            return new ItemResult(index, name, null, 0, 0, error);
+        }
+    }
+
+    // 요청 하나의 진행 상태. 응답 스트림은 이 객체를 만든 스레드에서만 쓴다
+    private final class Batch {
+        private final FilterProgram program;
+        private final ZipOutputStream zip;
+        private final CompletionService<ItemResult> completion = new ExecutorCompletionService<>(executor);
+        private final List<Future<ItemResult>> pending = new ArrayList<>();
+        private final List<Map<String, Object>> manifest = new ArrayList<>();
+        private final Set<String> usedNames = new HashSet<>();
+        // 아직 지우지 않은 원본, 결과 파일. 중간에 실패하면 처리 중인 항목의 파일까지 여기서 지운다
+        private final Set<Path> spooled = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+        private int nextIndex;
+        private int inFlight;
+
+        private Batch(FilterProgram program, ZipOutputStream zip) {
+            this.program = program;
+            this.zip = zip;
+        }
+
+        // 이 배치가 끝날 때 지울 파일 경로
+        Path spool(String suffix) {
+            Path path = directory.resolve(UUID.randomUUID() + suffix);
+            spooled.add(path);
+            return path;
+        }
+
+        void delete(Path path) {
+            if (path != null && spooled.remove(path)) {
+                deleteQuietly(path);
+            }
+        }
+
+        void submit(String name, MultipartFile file) throws IOException {
+            submit(name, file, null);
+        }
+
+        // spooledInput 은 이 배치가 만든 원본 파일 (처리가 끝나면 지운다)
+        void submit(String name, MultipartFile file, Path spooledInput) throws IOException {
+            int index = nextIndex++;
+            if (index >= maxItems) {
+                delete(spooledInput);
+                record(ItemResult.failed(index, name, "한 번에 최대 " + maxItems + "개까지 처리할 수 있습니다."));
+                return;
+            }
+
+            // 동시에 처리 중인 항목이 가득 차면 하나가 끝나서 응답에 쓸 때까지 기다린다
+            while (inFlight >= maxInFlight) {
+                writeNext(take());
+            }
+
+            pending.add(completion.submit(() -> processItem(index, name, file, spooledInput)));
+            inFlight++;
+
+            Future<ItemResult> done;
+            while ((done = completion.poll()) != null) {
+                writeNext(done);
+            }
+        }
+
+        void fail(String name, String error) throws IOException {
+            record(ItemResult.failed(nextIndex++, name, error));
+        }
+
+        void finish() throws IOException {
+            while (inFlight > 0) {
+                writeNext(take());
+            }
+
+            manifest.sort(Comparator.comparingInt(item -> (Integer) item.get("index")));
+            zip.putNextEntry(new ZipEntry(MANIFEST_NAME));
+            zip.write(objectMapper.writeValueAsBytes(manifest));
+            zip.closeEntry();
+        }
+
+        void cancelPending() {
+            closed = true;
+            for (Future<ItemResult> future : pending) {
+                future.cancel(true);
+            }
+            // 응답에 옮기지 못한 결과와 아직 처리 중인 항목의 파일 (처리 중인 항목은 닫힌 것을 보고 새로 만든 파일을 지운다)
+            for (Path path : spooled) {
+                delete(path);
+            }
+        }
+
+        // 결과는 CRC 를 세면서 파일에 쓴다 (STORED 항목은 헤더에 크기와 CRC 가 먼저 들어가야 한다)
+        private ItemResult processItem(int index, String name, MultipartFile file, Path spooledInput) {
+            Path result = spool(RESULT_SUFFIX);
+            try {
+                ProcessedImage processed = imageService.processBatchItem(file, program);
+                CheckedOutputStream encoded = new CheckedOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(result), 64 * 1024), new CRC32());
+                try (encoded) {
+                    processed.writeTo(encoded);
+                }
+                if (closed) {
+                    delete(result);
+                }
+                return new ItemResult(index, name, result, Files.size(result), encoded.getChecksum().getValue(), null);
+            } catch (IllegalArgumentException | ImageOverloadException e) {
+                delete(result);
+                return ItemResult.failed(index, name, e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                delete(result);
+                return ItemResult.failed(index, name, PROCESSING_ERROR);
+            } finally {
+                delete(spooledInput);
+            }
+        }
+
+        private Future<ItemResult> take() throws IOException {
+            try {
+                return completion.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("배치 처리가 중단되었습니다.", e);
+            }
+        }
+
+        private void writeNext(Future<ItemResult> done) throws IOException {
+            inFlight--;
+            pending.remove(done);
+            try {
+                record(done.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("배치 처리가 중단되었습니다.", e);
+            } catch (ExecutionException e) {
+                throw new IOException(PROCESSING_ERROR, e.getCause());
+            }
+        }
+
+        private void record(ItemResult result) throws IOException {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", result.index());
+            item.put("name", result.name());
+
+            if (result.error() == null) {
+                String outputName = uniqueName(baseName(result.name()));
+                try {
+                    zip.putNextEntry(storedEntry(outputName, result));
+                    Files.copy(result.result(), zip);
+                    zip.closeEntry();
+                    zip.flush();
+                } finally {
+                    delete(result.result());
+                }
+                item.put("output", outputName);
+            } else {
+                item.put("error", result.error());
+            }
+            manifest.add(item);
+        }
+
+        // PNG, JPEG 는 이미 압축되어 있으므로 다시 압축하지 않고 그대로 저장
+        private ZipEntry storedEntry(String name, ItemResult result) {
+            ZipEntry entry = new ZipEntry(name);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(result.size());
+            entry.setCompressedSize(result.size());
+            entry.setCrc(result.crc());
+            return entry;
+        }
+
+        // 같은 이름이 여러 번 나오면 "a (1).png" 처럼 번호를 붙인다
+        private String uniqueName(String name) {
+            if (usedNames.add(name) && !name.equals(MANIFEST_NAME)) {
+                return name;
+            }
+            int dot = name.lastIndexOf('.');
+            String stem = dot > 0 ? name.substring(0, dot) : name;
+            String extension = dot > 0 ? name.substring(dot) : "";
+            for (int n = 1; ; n++) {
+                String candidate = stem + " (" + n + ")" + extension;
+                if (usedNames.add(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+    }
+}
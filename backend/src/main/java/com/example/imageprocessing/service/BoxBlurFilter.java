@@ -0,0 +1,105 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+
+// 박스 블러 (반경 안 픽셀의 단순 평균)
+//
+// 창을 한 칸 옮길 때 들어오는 픽셀을 더하고 나가는 픽셀만 빼는 이동 합계라서 반경과 상관없이 픽셀당 덧셈/뺄셈 두 번이다.
+// 가로 평균을 반올림해 둔 뒤 세로 평균을 구하므로 2차원 평균과는 반올림 한 번만큼 다를 수 있다.
+class BoxBlurFilter extends ConvolutionFilter {
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    private final int radius;
+    // 합계 → 반올림한 평균. 나눗셈 대신 표를 읽는다
+    private final int[] average;
+
+    BoxBlurFilter(int radius) {
+        this.radius = radius;
+        int taps = radius * 2 + 1;
+        this.average = new int[255 * taps + 1];
+        for (int sum = 0; sum < average.length; sum++) {
+            average[sum] = (sum + taps / 2) / taps;
+        }
+    }
+
+    @Override
+    public int radius() {
+        return radius;
+    }
+
+    @Override
+    public int rowPasses() {
+        return 2;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage packedImage, ParallelRasterExecutor executor) {
+        int width = packedImage.getWidth();
+        int height = packedImage.getHeight();
+        int[] source = RasterAccess.pixels(packedImage);
+        int[] horizontal = new int[source.length];
+
+        BufferedImage blurredImage = RasterAccess.createCompatible(packedImage);
+        int[] target = RasterAccess.pixels(blurredImage);
+
+        executor.forEachRowBand(width, height, (startRow, endRow) -> horizontal(source, horizontal, width, startRow, endRow));
+        executor.forEachRowBand(width, height, (startRow, endRow) -> vertical(horizontal, target, width, height, startRow, endRow));
+        return blurredImage;
+    }
+
+    private void horizontal(int[] source, int[] target, int width, int startRow, int endRow) {
+        for (int y = startRow; y < endRow; y++) {
+            int row = y * width;
+            int red = 0;
+            int green = 0;
+            int blue = 0;
+            for (int i = -radius; i <= radius; i++) {
+                int pixel = source[row + Math.min(width - 1, Math.max(0, i))];
+                red += (pixel >> 16) & 0xFF;
+                green += (pixel >> 8) & 0xFF;
+                blue += pixel & 0xFF;
+            }
+
+            for (int x = 0; x < width; x++) {
+                target[row + x] = (source[row + x] & ALPHA_MASK) | average[red] << 16 | average[green] << 8 | average[blue];
+
+                int entering = source[row + Math.min(width - 1, x + radius + 1)];
+                int leaving = source[row + Math.max(0, x - radius)];
+                red += ((entering >> 16) & 0xFF) - ((leaving >> 16) & 0xFF);
+                green += ((entering >> 8) & 0xFF) - ((leaving >> 8) & 0xFF);
+                blue += (entering & 0xFF) - (leaving & 0xFF);
+            }
+        }
+    }
+
+    // 세로 방향은 열마다 합계를 들고 한 줄씩 내려가서 메모리를 순서대로 읽는다
+    private void vertical(int[] source, int[] target, int width, int height, int startRow, int endRow) {
+        int[] red = new int[width];
+        int[] green = new int[width];
+        int[] blue = new int[width];
+        for (int i = startRow - radius; i <= startRow + radius; i++) {
+            int row = Math.min(height - 1, Math.max(0, i)) * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = source[row + x];
+                red[x] += (pixel >> 16) & 0xFF;
+                green[x] += (pixel >> 8) & 0xFF;
+                blue[x] += pixel & 0xFF;
+            }
+        }
+
+        for (int y = startRow; y < endRow; y++) {
+            int row = y * width;
+            int enteringRow = Math.min(height - 1, y + radius + 1) * width;
+            int leavingRow = Math.max(0, y - radius) * width;
+            for (int x = 0; x < width; x++) {
+                target[row + x] = (source[row + x] & ALPHA_MASK) | average[red[x]] << 16 | average[green[x]] << 8 | average[blue[x]];
+
+                int entering = source[enteringRow + x];
+                int leaving = source[leavingRow + x];
+                red[x] += ((entering >> 16) & 0xFF) - ((leaving >> 16) & 0xFF);
+                green[x] += ((entering >> 8) & 0xFF) - ((leaving >> 8) & 0xFF);
+                blue[x] += (entering & 0xFF) - (leaving & 0xFF);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.imageprocessing.service;
+
+// 채널 값 하나에 대한 "부호 반전? + 더하기 + 범위 제한" 연산: clamp((inverted ? -v : v) + offset, min, max)
+//
+// 반전(255 - v), 밝기(clamp(v + a)), 그리고 이들을 이어 붙인 결과는 모두 이 형태로 닫혀 있어서
+// 룩업 테이블 없이 벡터 레인에서 덧셈/최대/최소만으로 계산할 수 있다.
+record ChannelMap(boolean inverted, int offset, int min, int max) {
+    static final ChannelMap IDENTITY = new ChannelMap(false, 0, 0, 255);
+    static final ChannelMap INVERT = new ChannelMap(true, 255, 0, 255);
+
+    static ChannelMap brightness(int adjustment) {
+        // 테이블과 같이 -255 ~ 255 로 제한 (그 밖은 어차피 0 또는 255)
+        return new ChannelMap(false, Math.max(-255, Math.min(255, adjustment)), 0, 255);
+    }
+
+    int apply(int value) {
+        int shifted = (inverted ? -value : value) + offset;
+        return Math.max(min, Math.min(max, shifted));
+    }
+
+    // 이 연산을 적용한 뒤 next 를 적용하는 연산
+    ChannelMap then(ChannelMap next) {
+        // next 의 부호/더하기를 안쪽 범위 [min, max] 에 먼저 적용
+        int innerMin = next.inverted ? next.offset - max : min + next.offset;
+        int innerMax = next.inverted ? next.offset - min : max + next.offset;
+        // 두 범위 제한을 하나로. 범위가 겹치지 않으면 min == max 인 상수가 된다
+        int combinedMin = Math.min(Math.max(innerMin, next.min), next.max);
+        int combinedMax = Math.max(Math.min(innerMax, next.max), next.min);
+        int combinedOffset = next.inverted ? next.offset - offset : offset + next.offset;
+
+        return new ChannelMap(inverted != next.inverted, combinedOffset, combinedMin, combinedMax);
+    }
+
+    boolean isIdentity() {
+        return equals(IDENTITY);
+    }
+
+    // 룩업 테이블과 0~255 모든 값에서 결과가 같은지
+    boolean matches(int[] table) {
+        for (int value = 0; value < table.length; value++) {
+            if (apply(value) != table[value]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+
+// 주변 픽셀을 함께 보는 필터 (블러, 샤픈, 윤곽선 검출)
+//
+// 결과 픽셀 하나가 원본의 radius() 반경 안 픽셀을 읽으므로 결과는 항상 새 배열에 쓴다.
+// 이미지 밖은 가장 가까운 가장자리 픽셀로 채운 것처럼 계산하고, 알파는 그대로 둔다.
+public abstract class ConvolutionFilter {
+    public static final double BLUR_SIGMA = 2.0;
+    public static final double SHARPEN_SIGMA = 1.0;
+    public static final int BOX_BLUR_RADIUS = 3;
+
+    // 상태가 없으므로 필터 종류마다 하나씩 만들어 두고 같이 쓴다
+    private static final ConvolutionFilter BLUR = new GaussianBlurFilter(SeparableKernel.gaussian(BLUR_SIGMA));
+    private static final ConvolutionFilter BOX_BLUR = new BoxBlurFilter(BOX_BLUR_RADIUS);
+    private static final ConvolutionFilter SHARPEN = new UnsharpMaskFilter(SeparableKernel.gaussian(SHARPEN_SIGMA));
+    private static final ConvolutionFilter EDGE_DETECT = new SobelEdgeFilter();
+
+    public static ConvolutionFilter of(FilterType type) {
+        switch (type) {
+            case Blur:
+                return BLUR;
+            case BoxBlur:
+                return BOX_BLUR;
+            case Sharpen:
+                return SHARPEN;
+            case EdgeDetect:
+                return EDGE_DETECT;
+
+            default:
+                throw new IllegalArgumentException("주변 픽셀을 보는 필터가 아닙니다: " + type);
+        }
+    }
+
+    // 결과 픽셀 하나가 읽는 이웃의 최대 거리 (픽셀)
+    public abstract int radius();
+
+    // 이미지 전체 줄을 몇 번 훑는지 (비동기 작업 진행률의 전체 줄 수 계산용)
+    public abstract int rowPasses();
+
+    // packedImage 는 RasterAccess.toPacked 로 맞춘 이미지. 원본은 바꾸지 않는다
+    public abstract BufferedImage apply(BufferedImage packedImage, ParallelRasterExecutor executor);
+}
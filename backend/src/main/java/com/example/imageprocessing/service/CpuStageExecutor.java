@@ -0,0 +1,143 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 디코딩, 필터처럼 CPU 만 쓰는 단계를 코어 수만큼의 플랫폼 스레드에서 실행
+// 요청 스레드(가상 스레드)는 업로드/외부 호출 같은 I/O 를 기다리는 데만 쓰고, 동시에 도는 픽셀 작업 수는 여기서 제한한다.
+// 대기열까지 가득 차면 잠시 기다리고, 그래도 자리가 없으면 503 으로 거절
+@Component
+public class CpuStageExecutor {
+    private static final CpuStageExecutor CALLER_RUNS = new CpuStageExecutor();
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final long maxWaitMillis;
+    private final Timer queueWait;
+    private final Counter rejections;
+
+    public CpuStageExecutor(MeterRegistry meterRegistry,
+                            @Value("${image.cpu.threads:0}") int threads,
+                            @Value("${image.cpu.queue-capacity:64}") int queueCapacity,
+                            @Value("${image.cpu.max-wait-ms:10000}") long maxWaitMillis) {
+        // 0 이하이면 코어 수만큼 사용
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "image-cpu-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slots = new Semaphore(poolSize + Math.max(0, queueCapacity), true);
+        this.maxWaitMillis = maxWaitMillis;
+
+        this.queueWait = Timer.builder("image.cpu.queue.wait").register(meterRegistry);
+        this.rejections = meterRegistry.counter("image.cpu.rejections");
+        Gauge.builder("image.cpu.queue.depth", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("image.cpu.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("image.cpu.threads", executor, ThreadPoolExecutor::getMaximumPoolSize)
+                .register(meterRegistry);
+    }
+
+    private CpuStageExecutor() {
+        this.executor = null;
+        this.slots = null;
+        this.maxWaitMillis = 0;
+        this.queueWait = null;
+        this.rejections = null;
+    }
+
+    // 호출한 스레드에서 바로 실행 (테스트, 벤치마크용)
+    public static CpuStageExecutor callerRuns() {
+        return CALLER_RUNS;
+    }
+
+    public <T> T call(Callable<T> task) throws IOException {
+        if (executor == null) {
+            return unwrap(task);
+        }
+
+        acquireSlot();
+        try {
+            long submittedAt = System.nanoTime();
+            Future<T> future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+            return await(future);
+        } finally {
+            slots.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void acquireSlot() throws IOException {
+        try {
+            if (!slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                rejections.increment();
+                throw new ImageOverloadException("이미지 처리 요청이 많습니다. 잠시 후 다시 시도해 주세요.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("이미지 처리 대기 중 중단되었습니다.");
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // 요청이 취소되면 처리 중인 작업도 멈춘다
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("이미지 처리 중 중단되었습니다.");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static <T> T unwrap(Callable<T> task) throws IOException {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) {
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+}
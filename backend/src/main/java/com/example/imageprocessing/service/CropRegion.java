@@ -0,0 +1,35 @@
+package com.example.imageprocessing.service;
+
+// 크롭할 영역. (x1, y1) 포함, (x2, y2) 미포함
+public record CropRegion(int x1, int y1, int x2, int y2) {
+
+    public int width() {
+        return x2 - x1;
+    }
+
+    public int height() {
+        return y2 - y1;
+    }
+
+    public long pixelCount() {
+        return (long) width() * height();
+    }
+
+    // 비어 있지 않고 imageWidth x imageHeight 이미지 안에 들어오는 영역인지 검사
+    public void requireWithin(int imageWidth, int imageHeight) {
+        if (x1 < 0 || y1 < 0 || x2 > imageWidth || y2 > imageHeight || x1 >= x2 || y1 >= y2) {
+            throw new IllegalArgumentException("크롭 영역이 이미지 범위를 벗어났습니다.");
+        }
+    }
+
+    // 사방으로 margin 만큼 넓힌 영역. 이미지 밖으로는 넓히지 않는다
+    public CropRegion expand(int margin, int imageWidth, int imageHeight) {
+        return new CropRegion(Math.max(0, x1 - margin), Math.max(0, y1 - margin),
+                Math.min(imageWidth, x2 + margin), Math.min(imageHeight, y2 + margin));
+    }
+
+    // 이 영역을 포함하는 outer 영역의 왼쪽 위를 원점으로 한 좌표
+    public CropRegion relativeTo(CropRegion outer) {
+        return new CropRegion(x1 - outer.x1, y1 - outer.y1, x2 - outer.x1, y2 - outer.y1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.imageprocessing.service;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+@Component
+public class EdgeDetectProcessor implements ImageProcessor {
+    private static final FilterPipeline PIPELINE = FilterPipeline.compile(List.of(FilterType.EdgeDetect), 0);
+
+    private final ParallelRasterExecutor executor;
+
+    public EdgeDetectProcessor(ParallelRasterExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public BufferedImage process(BufferedImage image) {
+        return PIPELINE.apply(image, executor);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.imageprocessing.service;
+
+// 편집 세션에 추가하는 작업 하나. Brightness 는 adjustment, Crop 은 현재 보이는 이미지 기준 좌표를 사용
+public record EditOperation(FilterType type, Integer adjustment, Integer x1, Integer y1, Integer x2, Integer y2) {
+
+    public FilterProgram applyTo(FilterProgram program, int currentWidth, int currentHeight) {
+        if (type == null) {
+            throw new IllegalArgumentException("편집 종류가 없습니다.");
+        }
+
+        switch (type) {
+            case GrayScale:
+            case Inversion:
+            case Blur:
+            case BoxBlur:
+            case Sharpen:
+            case EdgeDetect:
+                return program.thenFilter(type);
+            case Brightness:
+                return program.withBrightness(adjustment != null ? adjustment : 0);
+            case Crop:
+                return program.thenCrop(cropRegion(currentWidth, currentHeight));
+
+            default:
+                throw new IllegalArgumentException("지원하지 않는 편집입니다.");
+        }
+    }
+
+    private CropRegion cropRegion(int currentWidth, int currentHeight) {
+        if (x1 == null || y1 == null || x2 == null || y2 == null) {
+            throw new IllegalArgumentException("크롭 좌표가 없습니다.");
+        }
+        CropRegion region = new CropRegion(x1, y1, x2, y2);
+        region.requireWithin(currentWidth, currentHeight);
+        return region;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// 한 번 업로드한 원본을 서버에 들고 있으면서 편집 상태를 FilterProgram 으로 관리
+//
+// 필터는 한 번에 합성되고 크롭은 원본 기준 좌표 하나로 합쳐지므로,
+// 어떤 편집 순서든 "원본 + 프로그램 하나"로 표현되고 결과는 항상 한 번의 순회로 만들 수 있다.
+// 그래서 되돌리기용 체크포인트는 이미지 대신 이전 프로그램만 저장한다.
+public class EditSession {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final String id;
+    private final BufferedImage original;
+    private final String formatName;
+    private final Deque<FilterProgram> undoStack = new ArrayDeque<>();
+
+    private FilterProgram program = FilterProgram.empty();
+    private BufferedImage current;
+    private long version;
+    private volatile long lastAccessMillis;
+
+    EditSession(String id, BufferedImage original, String formatName) {
+        this.id = id;
+        this.original = original;
+        this.formatName = formatName;
+        this.current = original;
+        touch();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFormatName() {
+        return formatName;
+    }
+
+    public int getWidth() {
+        return original.getWidth();
+    }
+
+    public int getHeight() {
+        return original.getHeight();
+    }
+
+    // 원본과 현재 결과 두 장
+    public long estimatedBytes() {
+        return (long) original.getWidth() * original.getHeight() * BYTES_PER_PIXEL * 2;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    synchronized void apply(EditOperation operation, ImageService imageService, MemoryBudget memoryBudget) {
+        FilterProgram previousProgram = program;
+        FilterProgram nextProgram = operation.applyTo(program, current.getWidth(), current.getHeight());
+
+        changeProgram(nextProgram, imageService, memoryBudget);
+        undoStack.push(previousProgram);
+    }
+
+    synchronized boolean undo(ImageService imageService, MemoryBudget memoryBudget) {
+        if (undoStack.isEmpty()) {
+            return false;
+        }
+
+        changeProgram(undoStack.peek(), imageService, memoryBudget);
+        undoStack.pop();
+        return true;
+    }
+
+    synchronized BufferedImage getCurrent() {
+        touch();
+        return current;
+    }
+
+    // ETag 용 버전. 편집할 때마다 증가
+    synchronized String getETagValue() {
+        return id + "-" + version;
+    }
+
+    // 새 결과를 다 만든 뒤에만 프로그램과 결과를 바꾼다 (적용 중에 실패하면 세션은 그대로)
+    // 원본과 지금 결과는 EditSessionStore 가 예약해 두었으므로, 새 결과와 중간 버퍼만큼만 더 예약한다
+    private void changeProgram(FilterProgram nextProgram, ImageService imageService, MemoryBudget memoryBudget) {
+        long pixels = (long) original.getWidth() * original.getHeight();
+        BufferedImage rendered;
+        try (MemoryBudget.Reservation reservation = memoryBudget.reserve(
+                MemoryBudget.estimate(pixels, FilterPipeline.workingFrames(nextProgram.filters()) - 1))) {
+            rendered = imageService.applyProgram(original, nextProgram);
+        }
+        program = nextProgram;
+        current = rendered;
+        version++;
+        touch();
+    }
+
+    private void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+}
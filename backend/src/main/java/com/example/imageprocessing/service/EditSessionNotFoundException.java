@@ -0,0 +1,9 @@
+package com.example.imageprocessing.service;
+
+// 없는 세션이거나 오래 사용하지 않아 정리된 세션 (404)
+public class EditSessionNotFoundException extends RuntimeException {
+
+    public EditSessionNotFoundException(String sessionId) {
+        super("편집 세션을 찾을 수 없습니다: " + sessionId);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageHeader;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.UUID;
+
+// 원본을 한 번만 업로드/디코딩하고, 이후 편집은 서버에 있는 원본에 필터 프로그램만 바꿔 적용
+@Service
+public class EditSessionService {
+    // 세션 업로드/조회와 되돌리기는 특정 필터가 아니므로 따로 구분해서 기록
+    private static final String SESSION_TAG = "session";
+    private static final String UNDO_TAG = "undo";
+
+    private final ImageDecoder imageDecoder;
+    private final ImageService imageService;
+    private final ImageEncoder imageEncoder;
+    private final EditSessionStore sessionStore;
+    private final ImageMetrics metrics;
+    private final CpuStageExecutor cpuExecutor;
+    private final MemoryBudget memoryBudget;
+
+    public EditSessionService(ImageDecoder imageDecoder,
+                              ImageService imageService,
+                              ImageEncoder imageEncoder,
+                              EditSessionStore sessionStore,
+                              ImageMetrics metrics,
+                              CpuStageExecutor cpuExecutor,
+                              MemoryBudget memoryBudget) {
+        this.imageDecoder = imageDecoder;
+        this.imageService = imageService;
+        this.imageEncoder = imageEncoder;
+        this.sessionStore = sessionStore;
+        this.metrics = metrics;
+        this.cpuExecutor = cpuExecutor;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public EditSession create(MultipartFile file) throws IOException {
+        BufferedImage original;
+        ImageMetrics.Stage validateStage = metrics.start(ImageMetrics.VALIDATE);
+        try (ImageSource source = imageDecoder.open(file)) {
+            ImageHeader header = source.getHeader();
+            validateStage.stop(SESSION_TAG, header.formatName(), header.pixelCount());
+
+            // 디코딩 결과와 int 배열로 맞춘 사본 두 장. 세션으로 보관한 뒤의 메모리는 EditSessionStore 가 따로 예약한다
+            try (MemoryBudget.Reservation reservation = memoryBudget.reserve(MemoryBudget.estimate(header.pixelCount(), 2))) {
+                // 세션 동안 계속 쓰므로 int 배열 형식으로 한 번만 맞춰 둔다
+                original = cpuExecutor.call(() -> {
+                    ImageMetrics.Stage decodeStage = metrics.start(ImageMetrics.DECODE);
+                    BufferedImage packed = RasterAccess.toPacked(source.read());
+                    decodeStage.stop(SESSION_TAG, header.formatName(), header.pixelCount());
+                    return packed;
+                });
+            }
+        }
+
+        EditSession session = new EditSession(UUID.randomUUID().toString(), original, getFileExtension(file.getOriginalFilename()));
+        sessionStore.add(session);
+        return session;
+    }
+
+    public ProcessedImage apply(String sessionId, EditOperation operation) throws IOException {
+        EditSession session = sessionStore.get(sessionId);
+        cpuExecutor.call(() -> {
+            ImageMetrics.Stage filterStage = metrics.start(ImageMetrics.FILTER);
+            session.apply(operation, imageService, memoryBudget);
+            filterStage.stop(operation.type().name(), session.getFormatName(), pixelCount(session.getCurrent()));
+            return null;
+        });
+        return current(session);
+    }
+
+    public ProcessedImage undo(String sessionId) throws IOException {
+        EditSession session = sessionStore.get(sessionId);
+        cpuExecutor.call(() -> {
+            ImageMetrics.Stage filterStage = metrics.start(ImageMetrics.FILTER);
+            if (!session.undo(imageService, memoryBudget)) {
+                throw new IllegalArgumentException("되돌릴 편집이 없습니다.");
+            }
+            filterStage.stop(UNDO_TAG, session.getFormatName(), pixelCount(session.getCurrent()));
+            return null;
+        });
+        return current(session);
+    }
+
+    public ProcessedImage current(String sessionId) {
+        return current(sessionStore.get(sessionId));
+    }
+
+    public void close(String sessionId) {
+        sessionStore.remove(sessionId);
+    }
+
+    private ProcessedImage current(EditSession session) {
+        String eTagValue = session.getETagValue();
+        BufferedImage image = session.getCurrent();
+        String formatName = session.getFormatName();
+
+        return new ProcessedImage(eTagValue, imageEncoder.contentType(formatName),
+                output -> {
+                    ImageMetrics.Stage encodeStage = metrics.start(ImageMetrics.ENCODE);
+                    imageEncoder.write(image, formatName, output);
+                    encodeStage.stop(SESSION_TAG, formatName, pixelCount(image));
+                }, () -> {});
+    }
+
+    private static long pixelCount(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight();
+    }
+
+    private String getFileExtension(String filename) {
+        int dotIndex = filename == null ? -1 : filename.lastIndexOf('.');
+        if (dotIndex > 0 && dotIndex < filename.length() - 1) {
+            return filename.substring(dotIndex + 1);
+        }
+        return "png";
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 편집 세션 보관소. 오래 쓰지 않은 세션은 주기적으로 정리하고, 전체 메모리 한도를 넘으면 가장 오래 쓰지 않은 세션부터 내보낸다
+// 세션이 들고 있는 원본과 현재 결과는 요청이 끝나도 힙에 남으므로, 세션이 보관되는 동안 MemoryBudget 예약도 함께 들고 있는다
+@Component
+public class EditSessionStore {
+    private final Map<String, EditSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, MemoryBudget.Reservation> reservations = new ConcurrentHashMap<>();
+    private final MemoryBudget memoryBudget;
+    private final long idleTimeoutMillis;
+    private final long maxBytes;
+    private final MeterRegistry meterRegistry;
+
+    public EditSessionStore(MeterRegistry meterRegistry,
+                            MemoryBudget memoryBudget,
+                            @Value("${image.session.idle-timeout-ms:1800000}") long idleTimeoutMillis,
+                            @Value("${image.session.max-bytes:536870912}") long maxBytes) {
+        this.meterRegistry = meterRegistry;
+        this.memoryBudget = memoryBudget;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxBytes = maxBytes;
+
+        Gauge.builder("image.session.count", sessions, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("image.session.bytes", this, EditSessionStore::getTotalBytes)
+                .register(meterRegistry);
+    }
+
+    public void add(EditSession session) {
+        if (session.estimatedBytes() > maxBytes) {
+            throw new IllegalArgumentException("편집 세션으로 열기에는 이미지가 너무 큽니다.");
+        }
+
+        // 내보낸 세션의 예약이 먼저 돌아오도록 자리를 만든 뒤 예약한다 (예산을 기다릴 수 있으므로 잠금 밖에서)
+        makeRoom(session.estimatedBytes());
+        MemoryBudget.Reservation reservation = memoryBudget.reserve(session.estimatedBytes());
+        synchronized (this) {
+            makeRoom(session.estimatedBytes());
+            reservations.put(session.getId(), reservation);
+            sessions.put(session.getId(), session);
+        }
+    }
+
+    private synchronized void makeRoom(long bytes) {
+        while (getTotalBytes() + bytes > maxBytes) {
+            Optional<EditSession> leastRecentlyUsed = sessions.values().stream()
+                    .min(Comparator.comparingLong(EditSession::getLastAccessMillis));
+            if (leastRecentlyUsed.isEmpty()) {
+                break;
+            }
+            evict(leastRecentlyUsed.get(), "capacity");
+        }
+    }
+
+    public EditSession get(String sessionId) {
+        EditSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new EditSessionNotFoundException(sessionId);
+        }
+        return session;
+    }
+
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+        release(sessionId);
+    }
+
+    public long getTotalBytes() {
+        return sessions.values().stream()
+                .mapToLong(EditSession::estimatedBytes)
+                .sum();
+    }
+
+    @Scheduled(fixedDelayString = "${image.session.cleanup-interval-ms:60000}")
+    public synchronized void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().stream()
+                .filter(session -> now - session.getLastAccessMillis() > idleTimeoutMillis)
+                .toList()
+                .forEach(session -> evict(session, "idle"));
+    }
+
+    private void evict(EditSession session, String reason) {
+        sessions.remove(session.getId());
+        release(session.getId());
+        meterRegistry.counter("image.session.evictions", "reason", reason).increment();
+    }
+
+    private void release(String sessionId) {
+        MemoryBudget.Reservation reservation = reservations.remove(sessionId);
+        if (reservation != null) {
+            reservation.close();
+        }
+    }
+}
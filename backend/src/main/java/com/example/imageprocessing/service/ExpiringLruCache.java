@@ -0,0 +1,57 @@
+package com.example.imageprocessing.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 외부 API 응답처럼 작은 값을 위한 캐시. 항목 수 기준 LRU 이고, 저장한 뒤 ttl 이 지난 항목은 없는 것으로 본다
+class ExpiringLruCache<K, V> {
+    private final int maxEntries;
+    private final long ttlMillis;
+    // accessOrder = true 라서 순회 순서가 오래 안 쓴 순
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    ExpiringLruCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    synchronized void put(K key, V value) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+
+        // 만료된 항목을 먼저 비우고, 그래도 넘치면 가장 오래 안 쓴 항목부터 내보낸다
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> isExpired(entry, now));
+        Iterator<Map.Entry<K, Entry<V>>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && leastRecentlyUsed.hasNext()) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.storedAtMillis() > ttlMillis;
+    }
+
+    private record Entry<V>(V value, long storedAtMillis) {
+    }
+}
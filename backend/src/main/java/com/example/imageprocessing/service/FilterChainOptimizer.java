@@ -0,0 +1,74 @@
+package com.example.imageprocessing.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 필터 히스토리를 결과가 같은 최소 필터 목록으로 정규화
+//
+// - 반전 두 번은 원본과 같다.
+// - 흑백 변환 후의 픽셀은 R = G = B 이고, 가중치 합이 1이라 다시 흑백 변환해도 값이 그대로다.
+//   흑백 픽셀을 반전해도 여전히 흑백이므로 첫 흑백 변환 이후의 흑백 변환은 모두 생략할 수 있다.
+// - 흑백 변환과 반전은 반올림 때문에 순서를 바꾸면 결과가 달라질 수 있어 순서를 바꾸지 않는다.
+//
+// 따라서 픽셀 단위 필터만 있는 히스토리는 [반전?, 흑백?, 반전?] 형태로 줄어든다.
+//
+// 블러처럼 주변 픽셀을 보는 필터는 앞뒤 필터와 순서를 바꿀 수 없고, 두 번 적용하면 한 번과 다르므로 그대로 둔다.
+// 그 필터를 경계로 나뉜 구간마다 위 규칙으로 따로 줄인다.
+public class FilterChainOptimizer {
+    private FilterChainOptimizer() {}
+
+    public static List<FilterType> optimize(List<FilterType> history) {
+        List<FilterType> optimized = new ArrayList<>();
+        PointSegment segment = new PointSegment();
+
+        for (FilterType type : history) {
+            if (type.isConvolution()) {
+                segment.appendTo(optimized);
+                segment = new PointSegment();
+                optimized.add(type);
+            } else {
+                segment.add(type);
+            }
+        }
+        segment.appendTo(optimized);
+        return optimized;
+    }
+
+    // 주변 픽셀 필터 사이의 픽셀 단위 필터 구간
+    private static class PointSegment {
+        private boolean invertBeforeGrayscale;
+        private boolean grayscale;
+        private boolean invertAfterGrayscale;
+
+        void add(FilterType type) {
+            switch (type) {
+                case GrayScale:
+                    grayscale = true;
+                    break;
+                case Inversion:
+                    if (grayscale) {
+                        invertAfterGrayscale = !invertAfterGrayscale;
+                    } else {
+                        invertBeforeGrayscale = !invertBeforeGrayscale;
+                    }
+                    break;
+
+                // 밝기와 크롭은 히스토리로 재생하지 않음
+                default:
+                    break;
+            }
+        }
+
+        void appendTo(List<FilterType> optimized) {
+            if (invertBeforeGrayscale) {
+                optimized.add(FilterType.Inversion);
+            }
+            if (grayscale) {
+                optimized.add(FilterType.GrayScale);
+            }
+            if (invertAfterGrayscale) {
+                optimized.add(FilterType.Inversion);
+            }
+        }
+    }
+}
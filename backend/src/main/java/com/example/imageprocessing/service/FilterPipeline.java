@@ -0,0 +1,187 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+// 필터 히스토리 + 밝기 조절을 하나의 연산으로 합성해서 한 번의 순회로 적용 (합성 방법은 PointOperation)
+//
+// 블러처럼 주변 픽셀을 보는 필터는 테이블로 합칠 수 없으므로 히스토리를 그 필터 기준으로 나눠서
+// [픽셀 단위 단계, 주변 픽셀 단계, 픽셀 단위 단계, ...] 순서대로 적용한다.
+public class FilterPipeline {
+    private final List<Stage> stages;
+    private final int radius;
+
+    private FilterPipeline(List<Stage> stages, int radius) {
+        this.stages = stages;
+        this.radius = radius;
+    }
+
+    public static FilterPipeline compile(List<FilterType> history, int brightnessAdjustment) {
+        List<Stage> stages = new ArrayList<>();
+        PointStage pointStage = new PointStage();
+
+        for (FilterType type : history) {
+            if (type.isConvolution()) {
+                if (!pointStage.operation.isIdentity()) {
+                    stages.add(pointStage);
+                    pointStage = new PointStage();
+                }
+                stages.add(new ConvolutionStage(ConvolutionFilter.of(type)));
+            } else {
+                pointStage.operation.add(type);
+            }
+        }
+
+        // 밝기는 히스토리와 상관없이 항상 마지막에 적용
+        pointStage.operation.addBrightness(brightnessAdjustment);
+        if (!pointStage.operation.isIdentity()) {
+            stages.add(pointStage);
+        }
+
+        return new FilterPipeline(List.copyOf(stages), radiusOf(history));
+    }
+
+    // 결과 픽셀 하나가 원본에서 읽는 이웃의 최대 거리. 픽셀 단위 필터만 있으면 0
+    public static int radiusOf(List<FilterType> history) {
+        int radius = 0;
+        for (FilterType type : history) {
+            if (type.isConvolution()) {
+                radius += ConvolutionFilter.of(type).radius();
+            }
+        }
+        return radius;
+    }
+
+    // 처리 중 동시에 메모리에 있는 이미지 수 (원본 + 결과, 주변 픽셀 단계가 있으면 중간 버퍼 한 장 더)
+    public static int workingFrames(List<FilterType> history) {
+        return history.stream().anyMatch(FilterType::isConvolution) ? 3 : 2;
+    }
+
+    public boolean isIdentity() {
+        return stages.isEmpty();
+    }
+
+    public int radius() {
+        return radius;
+    }
+
+    // 필터 단계가 이미지 전체 줄을 훑는 횟수 (픽셀 단위 단계는 한 번, 주변 픽셀 단계는 필터마다 다르다)
+    public int rowPasses() {
+        int passes = 0;
+        for (Stage stage : stages) {
+            passes += stage.rowPasses();
+        }
+        return passes;
+    }
+
+    public BufferedImage apply(BufferedImage image) {
+        return apply(image, ParallelRasterExecutor.sequential());
+    }
+
+    public BufferedImage apply(BufferedImage image, ParallelRasterExecutor executor) {
+        return apply(image, executor, null);
+    }
+
+    // statistics 가 있으면 결과 픽셀의 히스토그램도 같이 센다
+    // 마지막 단계가 픽셀 단위 단계면 결과를 쓰는 루프 안에서 세고, 아니면 (필터가 없거나 마지막이 주변 픽셀 단계) 결과를 한 번 더 훑는다
+    BufferedImage apply(BufferedImage image, ParallelRasterExecutor executor, ImageStatistics.Collector statistics) {
+        // 적용할 필터가 없으면 복사 없이 원본 그대로 반환
+        if (stages.isEmpty()) {
+            if (statistics != null) {
+                statistics.accumulate(image, executor);
+            }
+            return image;
+        }
+
+        BufferedImage current = RasterAccess.toPacked(image);
+        // 정규화하면서 이미 새로 복사했거나 앞 단계가 만든 이미지라면 그 배열에 바로 덮어써도 된다
+        boolean owned = current != image;
+        for (Stage stage : stages) {
+            current = stage.apply(current, owned, executor, stage == stages.getLast() ? statistics : null);
+            owned = true;
+        }
+        if (statistics != null && !(stages.getLast() instanceof PointStage)) {
+            statistics.accumulate(current, executor);
+        }
+        return current;
+    }
+
+    // 호출한 쪽이 가진 packed 이미지에 바로 덮어쓴다 (결과 이미지를 새로 만들지 않음)
+    // 주변 픽셀 단계는 원본을 읽으면서 결과를 써야 하므로 픽셀 단위 필터만 있을 때만 쓸 수 있다
+    public void applyInPlace(BufferedImage packedImage, ParallelRasterExecutor executor) {
+        applyInPlace(packedImage, executor, null);
+    }
+
+    void applyInPlace(BufferedImage packedImage, ParallelRasterExecutor executor, ImageStatistics.Collector statistics) {
+        if (radius > 0) {
+            throw new IllegalStateException("주변 픽셀을 보는 필터는 제자리에서 적용할 수 없습니다.");
+        }
+        if (!RasterAccess.isPacked(packedImage)) {
+            throw new IllegalArgumentException("int 배열로 바로 접근할 수 있는 이미지만 제자리에서 처리할 수 있습니다.");
+        }
+        for (Stage stage : stages) {
+            stage.apply(packedImage, true, executor, stage == stages.getLast() ? statistics : null);
+        }
+        if (statistics != null && stages.isEmpty()) {
+            statistics.accumulate(packedImage, executor);
+        }
+    }
+
+    private interface Stage {
+        // statistics 는 마지막 단계에만 넘어온다. 픽셀 단위 단계만 결과를 쓰면서 같이 센다
+        BufferedImage apply(BufferedImage packedImage, boolean owned, ParallelRasterExecutor executor, ImageStatistics.Collector statistics);
+
+        int rowPasses();
+    }
+
+    private static class ConvolutionStage implements Stage {
+        private final ConvolutionFilter filter;
+
+        ConvolutionStage(ConvolutionFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public BufferedImage apply(BufferedImage packedImage, boolean owned, ParallelRasterExecutor executor, ImageStatistics.Collector statistics) {
+            return filter.apply(packedImage, executor);
+        }
+
+        @Override
+        public int rowPasses() {
+            return filter.rowPasses();
+        }
+    }
+
+    // 연속된 픽셀 단위 필터. 설정과 Vector API 모듈이 있으면 벡터 구현으로, 아니면 룩업 테이블로 처리
+    private static class PointStage implements Stage {
+        private final PointOperation operation = new PointOperation();
+
+        @Override
+        public BufferedImage apply(BufferedImage packedImage, boolean owned, ParallelRasterExecutor executor, ImageStatistics.Collector statistics) {
+            // 이미 새로 만든 이미지라면 그 배열에 바로 덮어써서 한 장을 아낀다
+            BufferedImage processedImage = owned ? packedImage : RasterAccess.createCompatible(packedImage);
+
+            int width = packedImage.getWidth();
+            int[] source = RasterAccess.pixels(packedImage);
+            int[] target = RasterAccess.pixels(processedImage);
+            PointKernel kernel = PointKernel.of(executor);
+
+            // 픽셀마다 결과가 독립적이라 줄 묶음 단위로 나눠 처리해도 순차 처리와 결과가 같다
+            executor.forEachRowBand(width, packedImage.getHeight(), (startRow, endRow) -> {
+                kernel.apply(operation, source, target, startRow * width, endRow * width);
+                // 결과를 쓴 스레드가 같은 줄 묶음을 이어서 센다 (이미지를 다시 훑지 않음)
+                if (statistics != null) {
+                    statistics.accumulate(target, startRow * width, endRow * width);
+                }
+            });
+
+            return processedImage;
+        }
+
+        @Override
+        public int rowPasses() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.imageprocessing.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 한 요청에서 적용할 필터 전체. 같은 결과를 내는 히스토리는 같은 프로그램이 되도록 정규화해 둔다
+// autoBrightness 면 brightnessAdjustment 대신 필터를 적용한 결과의 휘도 히스토그램으로 밝기 조절 값을 정한다
+public record FilterProgram(List<FilterType> filters, int brightnessAdjustment, CropRegion crop, boolean autoBrightness) {
+
+    public FilterProgram {
+        filters = List.copyOf(filters);
+    }
+
+    public FilterProgram(List<FilterType> filters, int brightnessAdjustment, CropRegion crop) {
+        this(filters, brightnessAdjustment, crop, false);
+    }
+
+    public static FilterProgram of(List<FilterType> history, int brightnessAdjustment) {
+        return new FilterProgram(FilterChainOptimizer.optimize(history), brightnessAdjustment, null);
+    }
+
+    public static FilterProgram crop(CropRegion crop) {
+        return new FilterProgram(List.of(), 0, crop);
+    }
+
+    public static FilterProgram empty() {
+        return new FilterProgram(List.of(), 0, null);
+    }
+
+    // 필터 하나를 더한 프로그램. 밝기는 기존처럼 항상 마지막에 적용된다
+    public FilterProgram thenFilter(FilterType filter) {
+        List<FilterType> nextFilters = new ArrayList<>(filters);
+        nextFilters.add(filter);
+        return new FilterProgram(FilterChainOptimizer.optimize(nextFilters), brightnessAdjustment, crop, autoBrightness);
+    }
+
+    public FilterProgram withBrightness(int adjustment) {
+        return new FilterProgram(filters, adjustment, crop);
+    }
+
+    public FilterProgram withAutoBrightness() {
+        return new FilterProgram(filters, 0, crop, true);
+    }
+
+    // 현재 보이는(이미 크롭된) 영역 기준 좌표를 원본 기준으로 바꿔서 하나의 크롭으로 합친다
+    public FilterProgram thenCrop(CropRegion relativeCrop) {
+        if (!hasCrop()) {
+            return new FilterProgram(filters, brightnessAdjustment, relativeCrop, autoBrightness);
+        }
+
+        CropRegion absoluteCrop = new CropRegion(
+                crop.x1() + relativeCrop.x1(),
+                crop.y1() + relativeCrop.y1(),
+                crop.x1() + relativeCrop.x2(),
+                crop.y1() + relativeCrop.y2());
+        return new FilterProgram(filters, brightnessAdjustment, absoluteCrop, autoBrightness);
+    }
+
+    // 크롭을 디코더에서 이미 처리한 뒤 남은 필터만 적용할 때
+    public FilterProgram withoutCrop() {
+        return new FilterProgram(filters, brightnessAdjustment, null, autoBrightness);
+    }
+
+    public boolean hasCrop() {
+        return crop != null;
+    }
+
+    // 캐시 키 등에 쓰는 정규화된 문자열 표현
+    public String canonical() {
+        String filterNames = filters.stream()
+                .map(FilterType::name)
+                .collect(Collectors.joining(","));
+        String cropValue = hasCrop() ? crop.x1() + "," + crop.y1() + "," + crop.x2() + "," + crop.y2() : "none";
+
+        String brightnessValue = autoBrightness ? "auto" : String.valueOf(brightnessAdjustment);
+
+        return "filters=" + filterNames + ";brightness=" + brightnessValue + ";crop=" + cropValue;
+    }
+}
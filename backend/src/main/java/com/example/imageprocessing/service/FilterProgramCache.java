@@ -0,0 +1,111 @@
+package com.example.imageprocessing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 요청마다 filterHistory 를 Jackson 으로 다시 읽고 파이프라인을 다시 합성하지 않도록 결과를 재사용
+// 받은 문자열 그대로 → 필터 목록, (정규화한 필터 목록, 밝기) → 합성한 FilterPipeline (룩업 테이블과 단계 분할까지 끝난 것)
+// 둘 다 항목 수 기준 LRU 이고, 같은 입력이면 결과가 항상 같으므로 시간으로는 만료하지 않는다.
+//
+// filterHistory 는 JSON 배열 외에 쉼표로 구분한 이름이나 한 글자 코드로도 받는다 ("GrayScale,Blur" 또는 "g,b", FilterType.getCode)
+@Component
+public class FilterProgramCache {
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+    private final ExpiringLruCache<String, List<FilterType>> histories;
+    private final ExpiringLruCache<PipelineKey, FilterPipeline> pipelines;
+
+    public FilterProgramCache(MeterRegistry meterRegistry,
+                              @Value("${image.program-cache.max-entries:1000}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.histories = new ExpiringLruCache<>(maxEntries, NO_EXPIRY);
+        this.pipelines = new ExpiringLruCache<>(maxEntries, NO_EXPIRY);
+        Gauge.builder("image.program.cache.size", histories, ExpiringLruCache::size)
+                .tag("cache", "history")
+                .register(meterRegistry);
+        Gauge.builder("image.program.cache.size", pipelines, ExpiringLruCache::size)
+                .tag("cache", "pipeline")
+                .register(meterRegistry);
+    }
+
+    // 정규화하기 전의 필터 목록 (바꿀 수 없는 목록이라 캐시에 든 것을 그대로 돌려준다)
+    public List<FilterType> history(String filterHistory) throws IOException {
+        if (filterHistory == null || filterHistory.isBlank() || filterHistory.equals("[]")) {
+            return List.of();
+        }
+
+        List<FilterType> cached = histories.get(filterHistory);
+        if (cached != null) {
+            record("history", "hit");
+            return cached;
+        }
+        record("history", "miss");
+
+        List<FilterType> history = List.copyOf(parse(filterHistory));
+        histories.put(filterHistory, history);
+        return history;
+    }
+
+    // 픽셀 단위 단계의 룩업 테이블을 합성하는 비용을 같은 프로그램끼리 나눠 쓴다 (FilterPipeline 은 적용할 때 상태를 바꾸지 않는다)
+    public FilterPipeline pipeline(List<FilterType> filters, int brightnessAdjustment) {
+        PipelineKey key = new PipelineKey(List.copyOf(filters), brightnessAdjustment);
+        FilterPipeline cached = pipelines.get(key);
+        if (cached != null) {
+            record("pipeline", "hit");
+            return cached;
+        }
+        record("pipeline", "miss");
+
+        FilterPipeline pipeline = FilterPipeline.compile(key.filters(), brightnessAdjustment);
+        pipelines.put(key, pipeline);
+        return pipeline;
+    }
+
+    // 한 글자 코드로 줄인 표현 ("g,i,b")
+    public static String encode(List<FilterType> filters) {
+        return filters.stream()
+                .map(type -> String.valueOf(type.getCode()))
+                .collect(Collectors.joining(","));
+    }
+
+    private List<FilterType> parse(String filterHistory) throws IOException {
+        String trimmed = filterHistory.strip();
+        if (trimmed.startsWith("[")) {
+            // TypeReference 대신 배열로 읽는다 (익명 클래스의 제네릭 정보가 없어도 되므로 네이티브 이미지에서도 그대로 동작)
+            return Arrays.asList(objectMapper.readValue(trimmed, FilterType[].class));
+        }
+
+        List<FilterType> history = new ArrayList<>();
+        for (String token : trimmed.split(",")) {
+            history.add(filterOf(token.strip()));
+        }
+        return history;
+    }
+
+    private static FilterType filterOf(String token) {
+        for (FilterType type : FilterType.values()) {
+            if (token.length() == 1 ? token.charAt(0) == type.getCode() : token.equalsIgnoreCase(type.name())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 필터입니다: " + token);
+    }
+
+    private void record(String cache, String result) {
+        meterRegistry.counter("image.program.cache", "cache", cache, "result", result).increment();
+    }
+
+    private record PipelineKey(List<FilterType> filters, int brightnessAdjustment) {
+    }
+}
@@ -1,8 +1,28 @@
 package com.example.imageprocessing.service;
 
 public enum FilterType {
-    GrayScale,
-    Inversion,
-    Brightness,
-    Crop
+    GrayScale('g'),
+    Inversion('i'),
+    Brightness('l'),
+    Crop('c'),
+    Blur('b'),
+    BoxBlur('x'),
+    Sharpen('s'),
+    EdgeDetect('e');
+
+    // filterHistory 를 짧게 보낼 때 쓰는 한 글자 코드 (FilterProgramCache 참고)
+    private final char code;
+
+    FilterType(char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    // 주변 픽셀을 함께 보는 필터. 픽셀 단위 필터처럼 룩업 테이블로 합칠 수 없고, 앞뒤 필터와 순서를 바꿀 수도 없다
+    public boolean isConvolution() {
+        return this == Blur || this == BoxBlur || this == Sharpen || this == EdgeDetect;
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+
+// 가우시안 블러. 2차원 커널을 가로 패스 + 세로 패스로 나눠서 픽셀당 (2r+1)^2 번 대신 2(2r+1) 번만 곱한다
+class GaussianBlurFilter extends ConvolutionFilter {
+    private final SeparableKernel kernel;
+
+    GaussianBlurFilter(SeparableKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public int radius() {
+        return kernel.radius();
+    }
+
+    @Override
+    public int rowPasses() {
+        return 2;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage packedImage, ParallelRasterExecutor executor) {
+        BufferedImage blurredImage = RasterAccess.createCompatible(packedImage);
+        blur(RasterAccess.pixels(packedImage), RasterAccess.pixels(blurredImage),
+                packedImage.getWidth(), packedImage.getHeight(), kernel, executor);
+        return blurredImage;
+    }
+
+    // 세로 패스는 위아래 줄 묶음의 가로 패스 결과를 읽으므로 가로 패스를 전부 끝낸 뒤 시작한다
+    static void blur(int[] source, int[] target, int width, int height, SeparableKernel kernel, ParallelRasterExecutor executor) {
+        SeparableConvolver convolver = SeparableConvolver.of(executor);
+        int[] horizontal = new int[source.length];
+
+        executor.forEachRowBand(width, height, (startRow, endRow) ->
+                convolver.horizontal(source, horizontal, width, startRow, endRow, kernel));
+        executor.forEachRowBand(width, height, (startRow, endRow) ->
+                convolver.vertical(horizontal, target, width, height, startRow, endRow, kernel));
+    }
+}
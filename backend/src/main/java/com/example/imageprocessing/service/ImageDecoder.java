@@ -0,0 +1,62 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageHeader;
+import com.example.imageprocessing.domain.ImageValidator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+// 업로드 파일의 앞부분 바이트로 형식을 판별하고, 헤더의 크기를 검증한 뒤에만 디코딩할 수 있게 연다
+@Component
+public class ImageDecoder {
+    private final ImageValidator imageValidator;
+
+    public ImageDecoder(ImageValidator imageValidator) {
+        this.imageValidator = imageValidator;
+    }
+
+    public ImageSource open(MultipartFile file) throws IOException {
+        return open(file, imageValidator.getMaxPixels());
+    }
+
+    // 디스크 처리로 넘길 수 있는 요청은 그 한도(maxPixels)까지 연다. 힙에서 처리하기로 하면 validate 로 기본 한도를 다시 확인한다
+    public ImageSource open(MultipartFile file, long maxPixels) throws IOException {
+        imageValidator.validate(file);
+
+        ImageInputStream input = ImageIO.createImageInputStream(file.getInputStream());
+        if (input == null) {
+            throw new IOException("이미지 스트림을 열 수 없습니다.");
+        }
+
+        ImageReader reader = null;
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("지원하지 않는 파일 형식 또는 유효하지 않은 이미지 파일입니다.");
+            }
+
+            reader = readers.next();
+            reader.setInput(input, true, true);
+
+            ImageHeader header = new ImageHeader(reader.getFormatName(), reader.getWidth(0), reader.getHeight(0));
+            imageValidator.validate(header, Math.max(maxPixels, imageValidator.getMaxPixels()));
+
+            return new ImageSource(input, reader, header);
+        } catch (IOException | RuntimeException e) {
+            if (reader != null) {
+                reader.dispose();
+            }
+            input.close();
+            throw e;
+        }
+    }
+
+    public void validate(ImageHeader header) {
+        imageValidator.validate(header);
+    }
+}
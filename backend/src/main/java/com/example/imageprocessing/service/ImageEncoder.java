@@ -0,0 +1,135 @@
+package com.example.imageprocessing.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+// 인코딩 결과를 바이트 배열에 모으지 않고 응답 스트림에 바로 쓴다
+@Component
+public class ImageEncoder {
+    private static final String DEFAULT_FORMAT = "png";
+    private static final int MAX_PNG_COMPRESSION_LEVEL = 9;
+
+    private final float jpegQuality;
+    private final boolean jpegProgressive;
+    private final int pngCompressionLevel;
+
+    public ImageEncoder(@Value("${image.encoding.jpeg-quality:0.9}") float jpegQuality,
+                        @Value("${image.encoding.jpeg-progressive:true}") boolean jpegProgressive,
+                        @Value("${image.encoding.png-compression-level:4}") int pngCompressionLevel) {
+        this.jpegQuality = jpegQuality;
+        this.jpegProgressive = jpegProgressive;
+        this.pngCompressionLevel = pngCompressionLevel;
+    }
+
+    public void write(BufferedImage image, String formatName, OutputStream output) throws IOException {
+        write(image, formatName, output, jpegProgressive);
+    }
+
+    // 디스크에 펼쳐 둔 큰 이미지처럼 줄 단위로 읽어 가며 써야 할 때. 프로그레시브 JPEG 은 인코더가 이미지 전체의 DCT 계수를
+    // (네이티브) 메모리에 모은 뒤에 쓰므로 설정과 상관없이 기본 방식으로 쓴다. 알파가 있는 이미지를 JPEG 으로 쓰면 전체를 복사하므로 넘기지 않는다
+    public void writeSequential(BufferedImage image, String formatName, OutputStream output) throws IOException {
+        write(image, formatName, output, false);
+    }
+
+    private void write(BufferedImage image, String formatName, OutputStream output, boolean progressive) throws IOException {
+        ImageWriter writer = findWriter(formatName);
+
+        // JPEG 은 알파 채널을 쓸 수 없어서 RGB 로 바꾼 뒤 저장
+        if (isJpeg(writer) && image.getColorModel().hasAlpha()) {
+            image = withoutAlpha(image);
+        }
+
+        // MemoryCacheImageOutputStream 은 writer 가 flushBefore 로 넘긴 앞부분만 응답으로 내보낸다
+        // PNG writer 는 청크마다 flushBefore 를 부르지만 JPEG writer 는 부르지 않아서, 끝날 때까지 결과 전체가 캐시에 쌓인다.
+        // JPEG writer 는 앞으로만 쓰므로 (되돌아가 고쳐 쓰지 않는다) 쓸 때마다 내보내는 스트림을 쓴다
+        try (ImageOutputStream imageOutput = isJpeg(writer) ? new FlushingImageOutputStream(output) : new MemoryCacheImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), writeParam(writer, progressive));
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // 실제로 쓰게 될 형식의 MIME 타입
+    public String contentType(String formatName) {
+        ImageWriter writer = findWriter(formatName);
+        try {
+            return writer.getOriginatingProvider().getMIMETypes()[0];
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private ImageWriter findWriter(String formatName) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+        if (!writers.hasNext()) {
+            // 확장자로 형식을 알 수 없으면 png 로 저장
+            writers = ImageIO.getImageWritersByFormatName(DEFAULT_FORMAT);
+        }
+        return writers.next();
+    }
+
+    private ImageWriteParam writeParam(ImageWriter writer, boolean progressive) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+
+        if (isJpeg(writer)) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            if (progressive) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+        } else if (isPng(writer) && param.canWriteCompressed()) {
+            // PNG writer 는 quality 1.0 을 deflate 레벨 0, 0.0 을 레벨 9 로 바꾼다
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(1.0f - (float) pngCompressionLevel / MAX_PNG_COMPRESSION_LEVEL);
+        }
+        return param;
+    }
+
+    private boolean isJpeg(ImageWriter writer) {
+        return writer.getOriginatingProvider().getFormatNames()[0].equalsIgnoreCase("jpeg");
+    }
+
+    private boolean isPng(ImageWriter writer) {
+        return writer.getOriginatingProvider().getFormatNames()[0].equalsIgnoreCase("png");
+    }
+
+    private BufferedImage withoutAlpha(BufferedImage image) {
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        return rgbImage;
+    }
+
+    // 쓴 바이트를 바로 아래 스트림으로 넘기는 ImageOutputStream (이미 내보낸 위치로 seek 하면 IndexOutOfBoundsException)
+    static class FlushingImageOutputStream extends MemoryCacheImageOutputStream {
+        FlushingImageOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            flushBefore(getStreamPosition());
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            flushBefore(getStreamPosition());
+        }
+    }
+}
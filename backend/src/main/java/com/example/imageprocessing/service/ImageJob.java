@@ -0,0 +1,185 @@
+package com.example.imageprocessing.service;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 비동기로 처리하는 이미지 한 장. 업로드 원본과 결과는 작업 디렉터리의 파일로 둔다
+// 진행률은 필터 단계가 처리한 줄 수 / 필터 단계가 훑을 전체 줄 수
+public class ImageJob {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private final String id;
+    private final String tenant;
+    private final Priority priority;
+    private final String filename;
+    private final Path input;
+    private final FilterProgram program;
+    private final long createdAtMillis;
+    private final AtomicLong rowsProcessed = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile long totalRows;
+    private volatile long finishedAtMillis;
+    private volatile String error;
+    private volatile Path result;
+    private volatile String contentType;
+    private volatile String eTag;
+    private volatile long resultBytes;
+    private volatile int retries;
+
+    ImageJob(String id, String tenant, Priority priority, String filename, Path input, FilterProgram program) {
+        this.id = id;
+        this.tenant = tenant;
+        this.priority = priority;
+        this.filename = filename;
+        this.input = input;
+        this.program = program;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public Path getResult() {
+        return result;
+    }
+
+    public long getResultBytes() {
+        return resultBytes;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getFinishedAtMillis() {
+        return finishedAtMillis;
+    }
+
+    String getFilename() {
+        return filename;
+    }
+
+    Path getInput() {
+        return input;
+    }
+
+    FilterProgram getProgram() {
+        return program;
+    }
+
+    // 대기 중에 취소된 작업이면 false
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        return true;
+    }
+
+    // 서버가 바빠서 처리하지 못한 작업을 다시 대기 상태로. 그 사이에 취소된 작업이면 false
+    synchronized boolean retry() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        state = State.QUEUED;
+        retries++;
+        return true;
+    }
+
+    void startFiltering(long totalRows) {
+        this.totalRows = totalRows;
+        rowsProcessed.set(0);
+    }
+
+    // 필터 루프의 줄 묶음이 끝날 때마다 호출된다. 취소된 작업이면 남은 줄은 처리하지 않도록 예외로 멈춘다
+    void rowsProcessed(int rows) {
+        if (state == State.CANCELLED) {
+            throw new CancellationException("작업이 취소되었습니다: " + id);
+        }
+        rowsProcessed.addAndGet(rows);
+    }
+
+    synchronized boolean succeed(Path result, String contentType, String eTag, long resultBytes) {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        this.result = result;
+        this.contentType = contentType;
+        this.eTag = eTag;
+        this.resultBytes = resultBytes;
+        finish(State.SUCCEEDED);
+        return true;
+    }
+
+    synchronized void fail(String error) {
+        if (state.isFinished()) {
+            return;
+        }
+        this.error = error;
+        finish(State.FAILED);
+    }
+
+    // 이미 끝난 작업이면 false
+    synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        finish(State.CANCELLED);
+        return true;
+    }
+
+    private void finish(State finalState) {
+        state = finalState;
+        finishedAtMillis = System.currentTimeMillis();
+    }
+}
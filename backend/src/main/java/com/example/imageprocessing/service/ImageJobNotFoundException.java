@@ -0,0 +1,9 @@
+package com.example.imageprocessing.service;
+
+// 없는 작업이거나 결과 보관 기간이 지나 정리된 작업 (404)
+public class ImageJobNotFoundException extends RuntimeException {
+
+    public ImageJobNotFoundException(String jobId) {
+        super("작업을 찾을 수 없습니다: " + jobId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.imageprocessing.service;
+
+// 아직 끝나지 않았거나 실패한 작업의 결과를 요청한 경우 (409)
+public class ImageJobNotReadyException extends RuntimeException {
+
+    public ImageJobNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.imageprocessing.service;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 비동기 작업 대기열. 우선순위가 높은 작업부터 꺼내고, 같은 우선순위 안에서는 테넌트를 돌아가며 하나씩 꺼낸다
+// 한 테넌트가 작업을 한꺼번에 많이 넣어도 다른 테넌트의 작업은 그 뒤에 줄 서지 않고 번갈아 처리된다.
+class ImageJobQueue {
+    // 우선순위별로 테넌트 → 그 테넌트의 대기 작업. 순회 순서가 다음에 꺼낼 테넌트 순서
+    private final Map<ImageJob.Priority, LinkedHashMap<String, ArrayDeque<ImageJob>>> queues = new EnumMap<>(ImageJob.Priority.class);
+    private final Map<String, Integer> tenantSizes = new HashMap<>();
+    private int size;
+
+    ImageJobQueue() {
+        for (ImageJob.Priority priority : ImageJob.Priority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    synchronized void add(ImageJob job) {
+        queues.get(job.getPriority())
+                .computeIfAbsent(job.getTenant(), tenant -> new ArrayDeque<>())
+                .addLast(job);
+        tenantSizes.merge(job.getTenant(), 1, Integer::sum);
+        size++;
+        notifyAll();
+    }
+
+    synchronized ImageJob take() throws InterruptedException {
+        while (size == 0) {
+            wait();
+        }
+        return poll();
+    }
+
+    // 아직 대기 중이던 작업이면 빼고 true
+    synchronized boolean remove(ImageJob job) {
+        Map<String, ArrayDeque<ImageJob>> tenants = queues.get(job.getPriority());
+        ArrayDeque<ImageJob> jobs = tenants.get(job.getTenant());
+        if (jobs == null || !jobs.remove(job)) {
+            return false;
+        }
+        if (jobs.isEmpty()) {
+            tenants.remove(job.getTenant());
+        }
+        removed(job);
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int size(String tenant) {
+        return tenantSizes.getOrDefault(tenant, 0);
+    }
+
+    private ImageJob poll() {
+        for (LinkedHashMap<String, ArrayDeque<ImageJob>> tenants : queues.values()) {
+            Iterator<Map.Entry<String, ArrayDeque<ImageJob>>> iterator = tenants.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                continue;
+            }
+
+            // 맨 앞 테넌트의 작업을 하나 꺼내고, 남은 작업이 있으면 그 테넌트를 맨 뒤로 보낸다
+            Map.Entry<String, ArrayDeque<ImageJob>> next = iterator.next();
+            iterator.remove();
+            ImageJob job = next.getValue().pollFirst();
+            if (!next.getValue().isEmpty()) {
+                tenants.put(next.getKey(), next.getValue());
+            }
+            removed(job);
+            return job;
+        }
+        return null;
+    }
+
+    private void removed(ImageJob job) {
+        tenantSizes.computeIfPresent(job.getTenant(), (tenant, count) -> count > 1 ? count - 1 : null);
+        size--;
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// 오래 걸리는 이미지 처리를 요청과 분리해서 전용 작업 스레드에서 처리
+// 요청은 업로드를 작업 디렉터리에 옮겨 두고 작업 id 만 받아 간다. 결과는 파일로 남겨 두었다가 보관 기간이 지나거나
+// 전체 결과 크기 한도를 넘으면 오래된 것부터 지운다.
+// 메모리 예산이나 CPU 단계 대기열이 차서 처리하지 못한 작업(ImageOverloadException)은 실패시키지 않고, 점점 길게 기다렸다가 다시 대기열에 넣는다.
+@Service
+public class ImageJobService {
+    private static final String PROCESSING_ERROR = "이미지 처리 중 오류가 발생했습니다.";
+    private static final String INPUT_SUFFIX = ".upload";
+    private static final String RESULT_SUFFIX = ".result";
+
+    private final ImageService imageService;
+    private final ImageJobQueue queue = new ImageJobQueue();
+    private final Map<String, ImageJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final Path directory;
+    private final int maxQueued;
+    private final int maxQueuedPerTenant;
+    private final long resultTtlMillis;
+    private final long maxResultBytes;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWait;
+
+    public ImageJobService(ImageService imageService,
+                           MeterRegistry meterRegistry,
+                           @Value("${image.job.workers:2}") int workerCount,
+                           @Value("${image.job.max-queued:100}") int maxQueued,
+                           @Value("${image.job.max-queued-per-tenant:20}") int maxQueuedPerTenant,
+                           @Value("${image.job.result-ttl-ms:600000}") long resultTtlMillis,
+                           @Value("${image.job.max-result-bytes:2147483648}") long maxResultBytes,
+                           @Value("${image.job.retry-backoff-ms:1000}") long retryBackoffMillis,
+                           @Value("${image.job.max-retry-backoff-ms:30000}") long maxRetryBackoffMillis,
+                           @Value("${image.job.directory:}") String directory) throws IOException {
+        this.imageService = imageService;
+        this.meterRegistry = meterRegistry;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.resultTtlMillis = resultTtlMillis;
+        this.maxResultBytes = maxResultBytes;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+        this.directory = directory.isBlank()
+                ? Files.createTempDirectory("image-jobs")
+                : Files.createDirectories(Path.of(directory));
+        // 작업 목록은 메모리에만 있으므로 이전 실행이 남긴 파일은 다시 찾을 수 없다
+        deleteLeftovers();
+
+        this.queueWait = Timer.builder("image.job.queue.wait").register(meterRegistry);
+        Gauge.builder("image.job.queued", queue, ImageJobQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("image.job.result.bytes", this, ImageJobService::getResultBytes)
+                .register(meterRegistry);
+
+        // 작업 스레드 수만큼만 동시에 처리하고, 실제 디코딩/필터는 ImageService 를 거쳐 CPU 단계 스레드에서 돈다
+        int threads = Math.max(1, workerCount);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "image-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::work);
+        }
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-job-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ImageJob submit(MultipartFile file, FilterProgram program, String tenant, ImageJob.Priority priority) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("처리할 파일이 없습니다.");
+        }
+        // 큰 업로드를 디스크로 옮기기 전에 먼저 한 번 거른다
+        requireCapacity(tenant);
+
+        String id = UUID.randomUUID().toString();
+        Path input = directory.resolve(id + INPUT_SUFFIX);
+        file.transferTo(input.toFile());
+
+        ImageJob job = new ImageJob(id, tenant, priority, file.getOriginalFilename(), input, program);
+        synchronized (queue) {
+            try {
+                requireCapacity(tenant);
+            } catch (ImageOverloadException e) {
+                deleteQuietly(input);
+                throw e;
+            }
+            jobs.put(id, job);
+            queue.add(job);
+        }
+        return job;
+    }
+
+    public ImageJob get(String jobId) {
+        ImageJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ImageJobNotFoundException(jobId);
+        }
+        // 정리 주기 사이에 보관 기간이 지난 작업도 없는 것으로 본다
+        if (isExpired(job, System.currentTimeMillis())) {
+            evict(job, "expired");
+            throw new ImageJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    public ImageJob result(String jobId) {
+        ImageJob job = get(jobId);
+        switch (job.getState()) {
+            case SUCCEEDED:
+                return job;
+            case FAILED:
+                throw new ImageJobNotReadyException("작업이 실패했습니다: " + job.getError());
+
+            default:
+                throw new ImageJobNotReadyException("작업이 아직 끝나지 않았습니다: " + job.getState());
+        }
+    }
+
+    // 대기 중이면 바로 빼고, 처리 중이면 다음 줄 묶음에서 멈춘다. 끝난 작업이면 결과를 지운다
+    public void cancel(String jobId) {
+        ImageJob job = get(jobId);
+        boolean wasQueued = queue.remove(job);
+        job.cancel();
+        jobs.remove(jobId, job);
+
+        if (wasQueued) {
+            deleteQuietly(job.getInput());
+        }
+        deleteQuietly(job.getResult());
+    }
+
+    public long getResultBytes() {
+        return jobs.values().stream()
+                .mapToLong(ImageJob::getResultBytes)
+                .sum();
+    }
+
+    @Scheduled(fixedDelayString = "${image.job.cleanup-interval-ms:60000}")
+    public void evictExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().stream()
+                .filter(job -> isExpired(job, now))
+                .toList()
+                .forEach(job -> evict(job, "expired"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        retryScheduler.shutdownNow();
+    }
+
+    private void requireCapacity(String tenant) {
+        if (queue.size() >= maxQueued || queue.size(tenant) >= maxQueuedPerTenant) {
+            meterRegistry.counter("image.job.rejections").increment();
+            throw new ImageOverloadException("대기 중인 작업이 많습니다. 잠시 후 다시 시도해 주세요.");
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ImageJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            run(job);
+        }
+    }
+
+    private void run(ImageJob job) {
+        if (!job.start()) {
+            deleteQuietly(job.getInput());
+            return;
+        }
+        queueWait.record(System.currentTimeMillis() - job.getCreatedAtMillis(), TimeUnit.MILLISECONDS);
+
+        Path result = directory.resolve(job.getId() + RESULT_SUFFIX);
+        boolean retrying = false;
+        try {
+            ProcessedImage processed;
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(result), 64 * 1024)) {
+                processed = imageService.processJob(new PathMultipartFile(job.getFilename(), job.getInput()), job.getProgram(), job);
+                processed.writeTo(output);
+            }
+
+            // 한 장만으로 한도를 넘으면 남겨 둘 수 없으므로 성공으로 알리지 않는다
+            long resultBytes = Files.size(result);
+            if (resultBytes > maxResultBytes) {
+                job.fail("결과가 보관할 수 있는 크기보다 큽니다.");
+                deleteQuietly(result);
+                return;
+            }
+            // 인코딩하는 동안 취소되었으면 결과를 남기지 않는다
+            if (!publish(job, result, processed, resultBytes)) {
+                deleteQuietly(result);
+            }
+        } catch (CancellationException e) {
+            deleteQuietly(result);
+        } catch (ImageOverloadException e) {
+            // 요청이 잘못된 것이 아니라 서버가 잠시 바쁜 것이므로 업로드 원본은 남겨 두고 나중에 다시 처리한다
+            deleteQuietly(result);
+            retrying = retryLater(job);
+        } catch (IllegalArgumentException e) {
+            job.fail(e.getMessage());
+            deleteQuietly(result);
+        } catch (IOException | RuntimeException e) {
+            job.fail(PROCESSING_ERROR);
+            deleteQuietly(result);
+        } finally {
+            if (!retrying) {
+                deleteQuietly(job.getInput());
+                meterRegistry.counter("image.job.completed", "state", job.getState().name().toLowerCase(Locale.ROOT)).increment();
+            }
+        }
+    }
+
+    // 다시 시도할 때마다 기다리는 시간을 두 배로 늘린다 (최대 maxRetryBackoffMillis). 그 사이에 취소된 작업이면 false
+    private boolean retryLater(ImageJob job) {
+        if (!job.retry()) {
+            return false;
+        }
+        long backoffMillis = Math.min(maxRetryBackoffMillis, retryBackoffMillis << Math.min(job.getRetries() - 1, 20));
+        meterRegistry.counter("image.job.retries").increment();
+        // 기다리는 동안 취소되면 다시 꺼냈을 때 start() 가 거절하고 업로드 원본을 지운다
+        retryScheduler.schedule(() -> queue.add(job), backoffMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private boolean isExpired(ImageJob job, long now) {
+        return job.getState().isFinished() && now - job.getFinishedAtMillis() > resultTtlMillis;
+    }
+
+    // 새 결과를 더해도 한도를 넘지 않을 때까지 가장 먼저 끝난 결과부터 지운 뒤에 성공을 알린다
+    // (성공으로 보인 결과가 곧바로 지워지지 않도록 자리를 먼저 비운다). 취소된 작업이면 false
+    private synchronized boolean publish(ImageJob job, Path result, ProcessedImage processed, long resultBytes) {
+        if (job.getState() != ImageJob.State.RUNNING) {
+            return false;
+        }
+        while (getResultBytes() + resultBytes > maxResultBytes) {
+            Optional<ImageJob> oldest = jobs.values().stream()
+                    .filter(finished -> finished.getState() == ImageJob.State.SUCCEEDED)
+                    .min(Comparator.comparingLong(ImageJob::getFinishedAtMillis));
+            if (oldest.isEmpty()) {
+                break;
+            }
+            evict(oldest.get(), "capacity");
+        }
+        return job.succeed(result, processed.getContentType(), processed.getETag(), resultBytes);
+    }
+
+    private void evict(ImageJob job, String reason) {
+        if (jobs.remove(job.getId(), job)) {
+            deleteQuietly(job.getResult());
+            meterRegistry.counter("image.job.evictions", "reason", reason).increment();
+        }
+    }
+
+    private void deleteLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.toString().endsWith(INPUT_SUFFIX) || path.toString().endsWith(RESULT_SUFFIX))
+                    .forEach(this::deleteQuietly);
+        }
+    }
+
+    // 응답으로 보내는 중인 결과 파일을 지워도 이미 연 스트림은 끝까지 읽힌다
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 다음 실행 때 deleteLeftovers 에서 지운다
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Set;
+
+// 요청 경로의 단계별 (검증, 디코딩, 필터, 인코딩) 소요 시간, 처리량(MP/s), 할당량과 외부 API 호출 시간 기록
+// 태그 값이 사용자 입력(파일 이름 등)에 따라 끝없이 늘어나지 않도록 형식과 크기는 정해진 값으로만 기록한다
+@Component
+public class ImageMetrics {
+    public static final String VALIDATE = "validate";
+    public static final String DECODE = "decode";
+    public static final String FILTER = "filter";
+    public static final String ENCODE = "encode";
+
+    private static final Set<String> KNOWN_FORMATS = Set.of("png", "jpg", "gif", "bmp", "wbmp", "tiff");
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final MeterRegistry meterRegistry;
+
+    public ImageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Stage start(String stage) {
+        return new Stage(stage, Timer.start(meterRegistry), allocatedBytes());
+    }
+
+    // OCR, Pixabay 같은 외부 호출
+    public Timer.Sample startCall() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopCall(Timer.Sample sample, String service, boolean success) {
+        sample.stop(Timer.builder("image.external.call")
+                .tags("service", service, "outcome", success ? "success" : "error")
+                .register(meterRegistry));
+    }
+
+    // 결과 이미지의 휘도 평균 분포. 너무 어둡거나 밝은 결과가 늘어나는지 본다
+    public void recordStatistics(String filter, ImageStatistics statistics) {
+        DistributionSummary.builder("image.output.luminance")
+                .tags("filter", filter)
+                .register(meterRegistry)
+                .record(statistics.getMeanLuminance());
+    }
+
+    static String sizeBucket(long pixels) {
+        if (pixels <= 0) {
+            return "unknown";
+        }
+        if (pixels < 1_000_000) {
+            return "0-1MP";
+        }
+        if (pixels < 4_000_000) {
+            return "1-4MP";
+        }
+        if (pixels < 16_000_000) {
+            return "4-16MP";
+        }
+        if (pixels < 64_000_000) {
+            return "16-64MP";
+        }
+        return "64MP+";
+    }
+
+    static String formatTag(String formatName) {
+        if (formatName == null) {
+            return "unknown";
+        }
+        String format = formatName.toLowerCase(Locale.ROOT);
+        if (format.equals("jpeg")) {
+            format = "jpg";
+        } else if (format.equals("tif")) {
+            format = "tiff";
+        }
+        return KNOWN_FORMATS.contains(format) ? format : "other";
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    // 할당량 측정을 지원하지 않는 JVM 이면 null (시간과 처리량만 기록)
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean allocation
+                && allocation.isThreadAllocatedMemorySupported()
+                && allocation.isThreadAllocatedMemoryEnabled()) {
+            return allocation;
+        }
+        return null;
+    }
+
+    public final class Stage {
+        private final String stage;
+        private final Timer.Sample sample;
+        private final long startAllocatedBytes;
+
+        private Stage(String stage, Timer.Sample sample, long startAllocatedBytes) {
+            this.stage = stage;
+            this.sample = sample;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+
+        // 할당량은 이 단계를 시작한 스레드 기준. 병렬 필터의 작업 스레드는 결과 배열에 쓰기만 하므로 거의 할당하지 않는다
+        public void stop(String filter, String formatName, long pixels) {
+            String[] tags = {"stage", stage, "filter", filter, "format", formatTag(formatName), "size", sizeBucket(pixels)};
+
+            long nanos = sample.stop(Timer.builder("image.pipeline.stage")
+                    .tags(tags)
+                    .register(meterRegistry));
+
+            if (pixels > 0 && nanos > 0) {
+                DistributionSummary.builder("image.pipeline.throughput")
+                        .baseUnit("megapixels.per.second")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(pixels / 1e6 / (nanos / 1e9));
+            }
+
+            long endAllocatedBytes = allocatedBytes();
+            if (startAllocatedBytes >= 0 && endAllocatedBytes >= startAllocatedBytes) {
+                meterRegistry.counter("image.pipeline.allocated.bytes", tags)
+                        .increment(endAllocatedBytes - startAllocatedBytes);
+            }
+        }
+    }
+}
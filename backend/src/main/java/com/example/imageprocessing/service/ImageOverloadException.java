@@ -0,0 +1,9 @@
+package com.example.imageprocessing.service;
+
+// 메모리 예산이 부족해 지금은 요청을 처리할 수 없을 때 (503)
+public class ImageOverloadException extends RuntimeException {
+
+    public ImageOverloadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// 업로드 원본의 해시 + 필터 프로그램으로 인코딩 결과를 캐시
+// 메모리는 바이트 크기 기준 LRU, 디렉터리를 설정하면 디스크에도 저장해서 메모리에서 밀려난 결과를 다시 쓸 수 있다.
+// 디스크 계층도 LRU 로, 파일 목록과 크기 합계를 메모리 색인으로 들고 있고 파일 읽기/쓰기/삭제는 잠금 밖에서 한다
+// 자동 밝기 결과는 정한 밝기 값을 항목에 같이 두어서 (디스크는 파일 이름에) 캐시에서 내보낼 때도 돌려줄 수 있게 한다
+@Component
+public class ImageResultCache {
+    private static final String FILE_SUFFIX = ".img";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final MeterRegistry meterRegistry;
+
+    // accessOrder = true 라서 순회 순서가 오래 안 쓴 순
+    private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    // 디스크 계층 색인 (키 → 파일 크기와 밝기 값, 오래 안 쓴 순). 아래 두 필드는 diskLock 으로 보호
+    // (가상 스레드가 파일 입출력을 기다리며 캐리어 스레드를 붙잡지 않도록 synchronized 대신 ReentrantLock)
+    private final ReentrantLock diskLock = new ReentrantLock();
+    private final LinkedHashMap<String, DiskEntry> diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+
+    public ImageResultCache(MeterRegistry meterRegistry,
+                            @Value("${image.cache.max-bytes:268435456}") long maxBytes,
+                            @Value("${image.cache.max-entry-bytes:16777216}") long maxEntryBytes,
+                            @Value("${image.cache.directory:}") String directory,
+                            @Value("${image.cache.disk-max-bytes:2147483648}") long maxDiskBytes) throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.directory = directory.isBlank() ? null : Files.createDirectories(Path.of(directory));
+        this.maxDiskBytes = maxDiskBytes;
+        if (this.directory != null) {
+            loadDiskIndex();
+        }
+
+        Gauge.builder("image.cache.size.bytes", this, ImageResultCache::getCurrentBytes)
+                .register(meterRegistry);
+    }
+
+    // 원본 바이트와 필터 프로그램이 같으면 같은 키 (ETag 로도 사용)
+    public String keyOf(MultipartFile file, String program) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream input = file.getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update(program.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public CachedResult get(String key) {
+        synchronized (this) {
+            CachedResult value = entries.get(key);
+            if (value != null) {
+                meterRegistry.counter("image.cache.hits", "tier", "memory").increment();
+                return value;
+            }
+        }
+
+        CachedResult value = readFromDisk(key);
+        if (value != null) {
+            meterRegistry.counter("image.cache.hits", "tier", "disk").increment();
+            putInMemory(key, value);
+            return value;
+        }
+
+        meterRegistry.counter("image.cache.misses").increment();
+        return null;
+    }
+
+    // 캐시된 결과의 자동 밝기 값. 파일을 읽지 않고 색인만 본다 (없거나 자동 밝기가 아니면 null)
+    public Integer brightnessAdjustment(String key) {
+        synchronized (this) {
+            CachedResult value = entries.get(key);
+            if (value != null) {
+                return value.brightnessAdjustment();
+            }
+        }
+        if (directory == null) {
+            return null;
+        }
+        diskLock.lock();
+        try {
+            DiskEntry entry = diskEntries.get(key);
+            return entry != null ? entry.brightnessAdjustment() : null;
+        } finally {
+            diskLock.unlock();
+        }
+    }
+
+    public void put(String key, byte[] bytes) {
+        put(key, bytes, null);
+    }
+
+    public void put(String key, byte[] bytes, Integer brightnessAdjustment) {
+        if (bytes.length > maxEntryBytes) {
+            return;
+        }
+        CachedResult value = new CachedResult(bytes, brightnessAdjustment);
+        putInMemory(key, value);
+        writeToDisk(key, value);
+    }
+
+    // 응답에 쓰는 바이트를 그대로 복사해 두었다가 끝까지 성공하면 캐시에 저장
+    public Recorder record(String key, OutputStream output) {
+        return record(key, output, null);
+    }
+
+    public Recorder record(String key, OutputStream output, Integer brightnessAdjustment) {
+        return new Recorder(key, output, brightnessAdjustment);
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    private synchronized void putInMemory(String key, CachedResult value) {
+        CachedResult previous = entries.put(key, value);
+        currentBytes += value.bytes().length - (previous == null ? 0 : previous.bytes().length);
+
+        Iterator<Map.Entry<String, CachedResult>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedResult> entry = eldest.next();
+            currentBytes -= entry.getValue().bytes().length;
+            eldest.remove();
+            meterRegistry.counter("image.cache.evictions", "tier", "memory").increment();
+        }
+    }
+
+    long getDiskBytes() {
+        diskLock.lock();
+        try {
+            return diskBytes;
+        } finally {
+            diskLock.unlock();
+        }
+    }
+
+    // 이전 실행이 남긴 파일은 수정 시간 순으로 색인에 넣고, 쓰다 만 임시 파일은 지운다
+    private void loadDiskIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.toList();
+        }
+        List<Path> results = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                results.add(file);
+            } else if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        results.sort(Comparator.comparing(ImageResultCache::lastModified));
+        for (Path file : results) {
+            // <키>.img 또는 자동 밝기 결과면 <키>.b<밝기 값>.img
+            String name = file.getFileName().toString();
+            String[] parts = name.substring(0, name.length() - FILE_SUFFIX.length()).split("\\.b", 2);
+            Integer brightnessAdjustment = parts.length == 2 ? Integer.valueOf(parts[1]) : null;
+            long size = Files.size(file);
+            diskEntries.put(parts[0], new DiskEntry(size, brightnessAdjustment));
+            diskBytes += size;
+        }
+        deleteFromDisk(evictFromDisk());
+    }
+
+    private CachedResult readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+
+        DiskEntry entry;
+        diskLock.lock();
+        try {
+            // 색인에서 꺼내는 것만으로 가장 최근에 쓴 항목이 된다
+            entry = diskEntries.get(key);
+            if (entry == null) {
+                return null;
+            }
+        } finally {
+            diskLock.unlock();
+        }
+
+        try {
+            return new CachedResult(Files.readAllBytes(pathOf(key, entry.brightnessAdjustment())), entry.brightnessAdjustment());
+        } catch (IOException e) {
+            // 그 사이에 밀려나 지워졌거나 읽을 수 없는 파일
+            removeFromIndex(key);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResult value) {
+        if (directory == null) {
+            return;
+        }
+
+        Path path = pathOf(key, value.brightnessAdjustment());
+        try {
+            // 다른 요청이 쓰다 만 파일을 읽지 않도록 임시 파일에 쓴 뒤 이동
+            Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+            Files.write(temp, value.bytes());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 디스크 캐시는 실패해도 응답에는 영향이 없다
+            return;
+        }
+
+        DiskEntry previous;
+        List<Path> evicted;
+        diskLock.lock();
+        try {
+            previous = diskEntries.put(key, new DiskEntry(value.bytes().length, value.brightnessAdjustment()));
+            diskBytes += value.bytes().length - (previous == null ? 0 : previous.size());
+            evicted = evictFromDisk();
+        } finally {
+            diskLock.unlock();
+        }
+        // 밝기 값이 달라 이름이 바뀌었으면 이전 파일은 덮어쓰이지 않고 남는다
+        if (previous != null && !path.equals(pathOf(key, previous.brightnessAdjustment()))) {
+            deleteQuietly(pathOf(key, previous.brightnessAdjustment()));
+        }
+        deleteFromDisk(evicted);
+    }
+
+    // 디스크 용량을 넘으면 오래 안 쓴 항목부터 색인에서 빼고 지울 파일을 돌려준다 (diskLock 안에서)
+    private List<Path> evictFromDisk() {
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, DiskEntry>> eldest = diskEntries.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, DiskEntry> entry = eldest.next();
+            diskBytes -= entry.getValue().size();
+            eldest.remove();
+            evicted.add(pathOf(entry.getKey(), entry.getValue().brightnessAdjustment()));
+        }
+        return evicted;
+    }
+
+    private void deleteFromDisk(List<Path> files) {
+        for (Path file : files) {
+            deleteQuietly(file);
+            meterRegistry.counter("image.cache.evictions", "tier", "disk").increment();
+        }
+    }
+
+    private void removeFromIndex(String key) {
+        diskLock.lock();
+        try {
+            DiskEntry entry = diskEntries.remove(key);
+            if (entry != null) {
+                diskBytes -= entry.size();
+            }
+        } finally {
+            diskLock.unlock();
+        }
+    }
+
+    private Path pathOf(String key, Integer brightnessAdjustment) {
+        return directory.resolve(key + (brightnessAdjustment != null ? ".b" + brightnessAdjustment : "") + FILE_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // 색인에서는 빠졌으므로 다시 읽히지 않는다
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 인코딩 결과와, 자동 밝기 결과면 그때 정한 밝기 값
+    public record CachedResult(byte[] bytes, Integer brightnessAdjustment) {
+    }
+
+    private record DiskEntry(long size, Integer brightnessAdjustment) {
+    }
+
+    public class Recorder extends FilterOutputStream {
+        private final String key;
+        private final Integer brightnessAdjustment;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private Recorder(String key, OutputStream output, Integer brightnessAdjustment) {
+            super(output);
+            this.key = key;
+            this.brightnessAdjustment = brightnessAdjustment;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkSize();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkSize();
+            }
+        }
+
+        // 응답 스트림은 서블릿이 닫으므로 여기서는 닫지 않는다
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        public void commit() {
+            if (copy != null) {
+                put(key, copy.toByteArray(), brightnessAdjustment);
+                copy = null;
+            }
+        }
+
+        // 캐시에 넣을 수 없는 크기가 되면 복사를 멈춘다
+        private void checkSize() {
+            if (copy.size() > maxEntryBytes) {
+                copy = null;
+            }
+        }
+    }
+}
@@ -1,102 +1,393 @@
 package com.example.imageprocessing.service;
 
-import com.example.imageprocessing.domain.ImageValidator;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.imageprocessing.domain.ImageHeader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
+import javax.imageio.ImageReadParam;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class ImageService {
-    private final ImageValidator imageValidator;
-    private final ImageProcessor grayscaleProcessor;
-    private final ImageProcessor invertProcessor;
-    private final BrightnessProcessor brightnessProcessor;
+    private static final String BATCH_TAG = "batch";
+    private static final String JOB_TAG = "job";
+    public static final int FULL_RESOLUTION = 0;
+
+    private final ImageDecoder imageDecoder;
     private final CropProcessor cropProcessor;
-    private final ObjectMapper objectMapper;
-
-    public ImageService(ImageValidator imageValidator,
-                        ImageProcessor grayscaleProcessor,
-                        ImageProcessor invertProcessor,
-                        BrightnessProcessor brightnessProcessor,
-                        CropProcessor cropProcessor) {
-        this.imageValidator = imageValidator;
-        this.grayscaleProcessor = grayscaleProcessor;
-        this.invertProcessor = invertProcessor;
-        this.brightnessProcessor = brightnessProcessor;
+    private final ParallelRasterExecutor rasterExecutor;
+    private final MemoryBudget memoryBudget;
+    private final ImageEncoder imageEncoder;
+    private final ImageResultCache resultCache;
+    private final ImageMetrics metrics;
+    private final CpuStageExecutor cpuExecutor;
+    private final OutOfCoreProcessor outOfCoreProcessor;
+    private final FilterProgramCache programCache;
+    private final boolean statisticsEnabled;
+    // 캐시된 결과를 그대로 내보낼 때도 통계를 돌려주고, ETag 로 히스토그램 전체를 조회할 수 있게 캐시 키별로 보관
+    // (통계를 끄면 쓰지 않는다. 자동 밝기 값은 통계와 상관없이 결과 캐시 항목에 같이 둔다)
+    private final ExpiringLruCache<String, ImageStatistics> statisticsStore;
+
+    public ImageService(ImageDecoder imageDecoder,
+                        CropProcessor cropProcessor,
+                        ParallelRasterExecutor rasterExecutor,
+                        MemoryBudget memoryBudget,
+                        ImageEncoder imageEncoder,
+                        ImageResultCache resultCache,
+                        ImageMetrics metrics,
+                        CpuStageExecutor cpuExecutor,
+                        OutOfCoreProcessor outOfCoreProcessor,
+                        FilterProgramCache programCache,
+                        @Value("${image.statistics.enabled:true}") boolean statisticsEnabled,
+                        @Value("${image.statistics.max-entries:1000}") int statisticsMaxEntries,
+                        @Value("${image.statistics.ttl-ms:600000}") long statisticsTtlMillis) {
+        this.imageDecoder = imageDecoder;
         this.cropProcessor = cropProcessor;
-        this.objectMapper = new ObjectMapper();
+        this.rasterExecutor = rasterExecutor;
+        this.memoryBudget = memoryBudget;
+        this.imageEncoder = imageEncoder;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
+        this.cpuExecutor = cpuExecutor;
+        this.outOfCoreProcessor = outOfCoreProcessor;
+        this.programCache = programCache;
+        this.statisticsEnabled = statisticsEnabled;
+        this.statisticsStore = new ExpiringLruCache<>(statisticsMaxEntries, statisticsTtlMillis);
+    }
+
+    public ProcessedImage processGrayscale(MultipartFile file, String filterHistoryJson, int brightnessAdjustment, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        FilterProgram program = buildProgram(FilterType.GrayScale, filterHistoryJson, brightnessAdjustment);
+
+        return process(file, FilterType.GrayScale.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
     }
 
-    public byte[] processGrayscale(MultipartFile file, String filterHistoryJson, int brightnessAdjustment) throws IOException {
-        imageValidator.validate(file);
+    public ProcessedImage processInvert(MultipartFile file, String filterHistoryJson, int brightnessAdjustment, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        FilterProgram program = buildProgram(FilterType.Inversion, filterHistoryJson, brightnessAdjustment);
 
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
+        return process(file, FilterType.Inversion.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
+    }
 
-        BufferedImage finalImage = applyAllFilters(
-                originalImage,
-                FilterType.GrayScale,
-                filterHistoryJson,
-                brightnessAdjustment
-        );
+    public ProcessedImage processBrightness(MultipartFile file, String filterHistoryJson, int adjustment, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        FilterProgram program = buildProgram(FilterType.Brightness, filterHistoryJson, adjustment);
 
-        return convertToByteArray(finalImage, getFileExtension(file.getOriginalFilename()));
+        return process(file, FilterType.Brightness.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
     }
 
-    public byte[] processInvert(MultipartFile file, String filterHistoryJson, int brightnessAdjustment) throws IOException {
-        imageValidator.validate(file);
+    // 필터를 적용한 결과의 휘도 히스토그램으로 밝기 조절 값을 정한다 (정한 값은 ProcessedImage 로 돌려준다)
+    public ProcessedImage processAutoBrightness(MultipartFile file, String filterHistoryJson, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        FilterProgram program = buildProgram(FilterType.Brightness, filterHistoryJson, 0).withAutoBrightness();
 
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
+        return process(file, FilterType.Brightness.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
+    }
 
-        BufferedImage finalImage = applyAllFilters(
-                originalImage,
-                FilterType.Inversion,
-                filterHistoryJson,
-                brightnessAdjustment
-        );
+    public ProcessedImage processCrop(MultipartFile file, int x1, int y1, int x2, int y2, String filterHistoryJson, int brightnessAdjustment, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        // 크롭한 영역에 기존 필터 히스토리와 밝기를 그대로 적용 (결과는 전체에 필터를 적용한 뒤 잘라낸 것과 같다)
+        FilterProgram program = buildProgram(filterHistoryJson, brightnessAdjustment, new CropRegion(x1, y1, x2, y2));
 
-        return convertToByteArray(finalImage, getFileExtension(file.getOriginalFilename()));
+        return process(file, FilterType.Crop.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
     }
 
-    public byte[] processBrightness(MultipartFile file, String filterHistoryJson, int adjustment) throws IOException {
-        imageValidator.validate(file);
+    // 블러, 샤픈, 윤곽선 검출처럼 주변 픽셀을 보는 필터. 히스토리의 다른 필터와 순서대로 적용된다
+    public ProcessedImage processConvolution(MultipartFile file, FilterType type, String filterHistoryJson, int brightnessAdjustment, int previewMaxDimension, String ifNoneMatch) throws IOException {
+        if (!type.isConvolution()) {
+            throw new IllegalArgumentException("주변 픽셀을 보는 필터가 아닙니다: " + type);
+        }
+        FilterProgram program = buildProgram(type, filterHistoryJson, brightnessAdjustment);
 
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
+        return process(file, type.name(), program, previewMaxDimension, statisticsEnabled, null, ifNoneMatch);
+    }
 
-        BufferedImage finalImage = applyAllFilters(
-                originalImage,
-                FilterType.Brightness,
-                filterHistoryJson,
-                adjustment
-        );
+    // 배치 항목. 단건 요청과 같은 캐시, 메모리 예산, 지표를 그대로 쓴다
+    public ProcessedImage processBatchItem(MultipartFile file, FilterProgram program) throws IOException {
+        return process(file, BATCH_TAG, program, FULL_RESOLUTION, false, null, null);
+    }
 
-        return  convertToByteArray(finalImage, getFileExtension(file.getOriginalFilename()));
+    // 비동기 작업. 필터 단계에서 처리한 줄 수를 작업 진행률에 기록한다
+    public ProcessedImage processJob(MultipartFile file, FilterProgram program, ImageJob job) throws IOException {
+        return process(file, JOB_TAG, program, FULL_RESOLUTION, false, job, null);
     }
 
-    public byte[] processCrop(MultipartFile file, int x1, int y1, int x2, int y2, String filterHistoryJson, int brightnessAdjustment) throws IOException {
-        imageValidator.validate(file);
+    // 응답 ETag (따옴표 포함 여부 상관없음) 로 처리 결과의 통계를 조회. 보관 기간이 지났거나 통계를 모으지 않은 결과면 빈 값
+    public Optional<ImageStatistics> statistics(String eTag) {
+        String cacheKey = eTag.replace("\"", "");
+        return Optional.ofNullable(statisticsStore.get(cacheKey));
+    }
 
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
+    // 같은 원본 + 같은 필터 프로그램이면 캐시된 결과를 그대로 내보내고, 아니면 처리 후 응답하면서 캐시에 저장
+    // previewMaxDimension 이 0 보다 크면 긴 변이 그 이하가 되도록 줄여서 디코딩한 미리보기 (0 이면 원본 해상도)
+    // statistics 면 결과 픽셀의 히스토그램을 필터 루프에서 같이 세서 돌려주고, job 이 있으면 (비동기 작업) 필터 단계의 진행률을 기록
+    // ifNoneMatch (요청의 If-None-Match) 가 결과의 ETag 와 같으면 캐시에 없더라도 디코딩, 필터 없이 본문 없는 결과를 돌려준다
+    private ProcessedImage process(MultipartFile file, String filterTag, FilterProgram program, int previewMaxDimension, boolean statistics, ImageJob job, String ifNoneMatch) throws IOException {
+        String formatName = getFileExtension(file.getOriginalFilename());
+        String contentType = imageEncoder.contentType(formatName);
+        String renderKey = program.canonical() + ";format=" + formatName
+                + (previewMaxDimension > FULL_RESOLUTION ? ";preview=" + previewMaxDimension : "");
+        String cacheKey = resultCache.keyOf(file, renderKey);
+
+        if (matchesETag(ifNoneMatch, cacheKey)) {
+            // 결과 ETag 는 업로드 해시와 필터 프로그램만으로 정해지므로 처리하지 않고도 알 수 있다
+            return ProcessedImage.notModified(cacheKey, contentType,
+                    statistics ? statisticsStore.get(cacheKey) : null,
+                    program.autoBrightness() ? resultCache.brightnessAdjustment(cacheKey) : null);
+        }
 
-        BufferedImage cropImage = cropProcessor.process(originalImage, x1, y1, x2, y2);
+        ImageResultCache.CachedResult cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            // 통계 보관 기간이 지났으면 통계 없이 내보낸다
+            return new ProcessedImage(cacheKey, contentType, output -> output.write(cached.bytes()), () -> {},
+                    statistics ? statisticsStore.get(cacheKey) : null,
+                    program.autoBrightness() ? cached.brightnessAdjustment() : null);
+        }
 
-        return convertToByteArray(cropImage, getFileExtension(file.getOriginalFilename()));
+        return render(file, filterTag, program, previewMaxDimension, formatName, contentType, cacheKey, statistics, job);
     }
 
-    // Byte Array 변환 헬퍼
-    private byte[] convertToByteArray(BufferedImage image, String formatName) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, formatName, baos);
-        return baos.toByteArray();
+    // 헤더 크기만큼 메모리를 예약한 뒤 한 번만 디코딩. 예약은 응답 인코딩이 끝날 때 반납
+    // 단계마다 (검증, 디코딩, 필터, 인코딩) 시간을 요청한 필터, 형식, 크기 구간별로 기록
+    private ProcessedImage render(MultipartFile file, String filterTag, FilterProgram program, int previewMaxDimension, String formatName, String contentType, String cacheKey, boolean statistics, ImageJob job) throws IOException {
+        MemoryBudget.Reservation reservation = null;
+        ImageMetrics.Stage validateStage = metrics.start(ImageMetrics.VALIDATE);
+        // image.max-pixels 보다 큰 이미지도 디스크 처리 한도까지는 열어 두고, 힙에서 처리하기로 하면 기본 한도로 다시 거른다
+        try (ImageSource source = imageDecoder.open(file, outOfCoreProcessor.getMaxPixels())) {
+            ImageHeader header = source.getHeader();
+            validateStage.stop(filterTag, header.formatName(), header.pixelCount());
+
+            // 크롭이 있으면 디코더가 그 영역만 읽고, 미리보기면 건너뛰며 읽으므로 실제로 디코딩될 크기만큼만 예약
+            if (program.hasCrop()) {
+                program.crop().requireWithin(header.width(), header.height());
+            }
+            int regionWidth = program.hasCrop() ? program.crop().width() : header.width();
+            int regionHeight = program.hasCrop() ? program.crop().height() : header.height();
+            int subsampling = subsampling(regionWidth, regionHeight, previewMaxDimension);
+
+            // 주변 픽셀을 보는 필터가 있으면 크롭 가장자리도 원본 전체에 적용한 결과와 같도록 반경만큼 더 읽고 나중에 잘라낸다
+            // (미리보기는 줄인 해상도에 커널을 적용하는 근사라서 넓히지 않는다)
+            CropRegion decodeRegion = program.hasCrop() && subsampling == 1
+                    ? program.crop().expand(FilterPipeline.radiusOf(program.filters()), header.width(), header.height())
+                    : program.crop();
+            FilterProgram remainingProgram = decodeRegion == null || decodeRegion.equals(program.crop())
+                    ? program.withoutCrop()
+                    : program.withoutCrop().thenCrop(program.crop().relativeTo(decodeRegion));
+
+            int decodeWidth = decodeRegion != null ? decodeRegion.width() : header.width();
+            int decodeHeight = decodeRegion != null ? decodeRegion.height() : header.height();
+            long decodedPixels = (long) Math.ceilDiv(decodeWidth, subsampling) * Math.ceilDiv(decodeHeight, subsampling);
+            if (outOfCoreProcessor.supports(header.formatName(), remainingProgram, decodedPixels)) {
+                return renderOutOfCore(source, filterTag, decodeRegion, subsampling, remainingProgram, formatName, contentType, cacheKey, statistics, job);
+            }
+            imageDecoder.validate(header);
+            reservation = memoryBudget.reserve(MemoryBudget.estimate(decodedPixels, FilterPipeline.workingFrames(program.filters())));
+
+            // 디코딩과 필터는 CPU 단계 전용 스레드에서 (요청 스레드는 결과를 기다리기만 한다)
+            FilteredImage filtered = cpuExecutor.call(() -> {
+                ImageMetrics.Stage decodeStage = metrics.start(ImageMetrics.DECODE);
+                BufferedImage croppedImage = readRegion(source, decodeRegion, subsampling);
+                decodeStage.stop(filterTag, header.formatName(), decodedPixels);
+
+                ImageMetrics.Stage filterStage = metrics.start(ImageMetrics.FILTER);
+                ParallelRasterExecutor executor = rasterExecutor;
+                if (job != null) {
+                    // 크롭 가장자리까지 포함해 디코딩한 줄 전체를 필터 단계마다 한 번씩 훑는다
+                    FilterPipeline pipeline = programCache.pipeline(remainingProgram.filters(), remainingProgram.brightnessAdjustment());
+                    job.startFiltering((long) croppedImage.getHeight() * pipeline.rowPasses());
+                    executor = rasterExecutor.withProgress(job::rowsProcessed);
+                }
+                FilteredImage filteredImage = applyProgram(croppedImage, remainingProgram, executor, statistics);
+                filterStage.stop(filterTag, header.formatName(), (long) filteredImage.image().getWidth() * filteredImage.image().getHeight());
+                return filteredImage;
+            });
+            BufferedImage finalImage = filtered.image();
+            Integer autoBrightnessAdjustment = program.autoBrightness() ? filtered.brightnessAdjustment() : null;
+            // 자동 밝기 때문에 센 통계는 통계를 켠 요청에만 기록하고 돌려준다
+            ImageStatistics resultStatistics = statistics ? filtered.statistics() : null;
+            if (resultStatistics != null) {
+                metrics.recordStatistics(filterTag, resultStatistics);
+                statisticsStore.put(cacheKey, resultStatistics);
+            }
+            long outputPixels = (long) finalImage.getWidth() * finalImage.getHeight();
+
+            return new ProcessedImage(cacheKey, contentType, output -> {
+                ImageMetrics.Stage encodeStage = metrics.start(ImageMetrics.ENCODE);
+                ImageResultCache.Recorder recorder = resultCache.record(cacheKey, output, autoBrightnessAdjustment);
+                imageEncoder.write(finalImage, formatName, recorder);
+                recorder.commit();
+                encodeStage.stop(filterTag, formatName, outputPixels);
+            }, reservation::close, resultStatistics, autoBrightnessAdjustment);
+        } catch (IOException | RuntimeException e) {
+            if (reservation != null) {
+                reservation.close();
+            }
+            throw e;
+        }
+    }
+
+    // 큰 이미지는 메모리 매핑한 임시 파일에 디코딩하고 줄 묶음 단위로 필터를 적용한 뒤, 매핑된 결과에서 줄 단위로 읽어 인코딩
+    // 힙에는 줄 묶음 하나만 올라오므로 그만큼만 예약하고, 임시 파일은 응답 인코딩이 끝날 때 지운다
+    private ProcessedImage renderOutOfCore(ImageSource source, String filterTag, CropRegion decodeRegion, int subsampling, FilterProgram program, String formatName, String contentType, String cacheKey, boolean statistics, ImageJob job) throws IOException {
+        ImageHeader header = source.getHeader();
+        int decodeWidth = Math.ceilDiv(decodeRegion != null ? decodeRegion.width() : header.width(), subsampling);
+        int decodeHeight = Math.ceilDiv(decodeRegion != null ? decodeRegion.height() : header.height(), subsampling);
+        long decodedPixels = (long) decodeWidth * decodeHeight;
+        MemoryBudget.Reservation reservation = memoryBudget.reserve(MemoryBudget.estimate(outOfCoreProcessor.workingPixels(decodeWidth), 1));
+        try {
+            OutOfCoreProcessor.Result result = cpuExecutor.call(() -> {
+                ImageMetrics.Stage decodeStage = metrics.start(ImageMetrics.DECODE);
+                ScratchImage decoded = outOfCoreProcessor.decode(source, decodeRegion, subsampling);
+                decodeStage.stop(filterTag, header.formatName(), decodedPixels);
+
+                ImageMetrics.Stage filterStage = metrics.start(ImageMetrics.FILTER);
+                FilterPipeline pipeline = programCache.pipeline(program.filters(), program.autoBrightness() ? 0 : program.brightnessAdjustment());
+                ParallelRasterExecutor executor = rasterExecutor;
+                if (job != null) {
+                    job.startFiltering((long) decodeHeight * pipeline.rowPasses());
+                    executor = rasterExecutor.withProgress(job::rowsProcessed);
+                }
+                OutOfCoreProcessor.Result filtered = outOfCoreProcessor.apply(decoded, pipeline, program.autoBrightness(),
+                        contentType.equals(MediaType.IMAGE_JPEG_VALUE), executor, statistics);
+                filterStage.stop(filterTag, header.formatName(), decodedPixels);
+                return filtered;
+            });
+            Integer autoBrightnessAdjustment = program.autoBrightness() ? result.brightnessAdjustment() : null;
+            ImageStatistics resultStatistics = statistics ? result.statistics() : null;
+            if (resultStatistics != null) {
+                metrics.recordStatistics(filterTag, resultStatistics);
+                statisticsStore.put(cacheKey, resultStatistics);
+            }
+
+            return new ProcessedImage(cacheKey, contentType, output -> {
+                ImageMetrics.Stage encodeStage = metrics.start(ImageMetrics.ENCODE);
+                ImageResultCache.Recorder recorder = resultCache.record(cacheKey, output, autoBrightnessAdjustment);
+                imageEncoder.writeSequential(result.image().getImage(), formatName, recorder);
+                recorder.commit();
+                encodeStage.stop(filterTag, formatName, decodedPixels);
+            }, () -> {
+                try {
+                    result.image().close();
+                } catch (IOException e) {
+                    // 지우지 못한 임시 파일은 응답과 상관없다
+                } finally {
+                    reservation.close();
+                }
+            }, resultStatistics, autoBrightnessAdjustment);
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e;
+        }
+    }
+
+    // If-None-Match 는 쉼표로 구분한 ETag 목록이고, 약한 비교(W/)로 본다
+    // * 는 맞는 것으로 보지 않는다. 캐시에 없는 결과까지 본문 없이 돌려주면 처음 올린 이미지의 결과를 받을 수 없다
+    static boolean matchesETag(String ifNoneMatch, String cacheKey) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.strip();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("\"" + cacheKey + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 긴 변이 previewMaxDimension 이하가 되는 가장 작은 건너뛰기 간격 (미리보기가 아니면 1)
+    static int subsampling(int width, int height, int previewMaxDimension) {
+        if (previewMaxDimension <= FULL_RESOLUTION) {
+            return 1;
+        }
+        return Math.max(1, Math.ceilDiv(Math.max(width, height), previewMaxDimension));
+    }
+
+    // 크롭 영역(null 이면 전체)과 건너뛰기 간격을 디코더에 넘겨서 필요한 픽셀만 디코딩
+    // 영역 지정을 무시하는 플러그인이면 전체가 디코딩되므로 그때만 메모리에서 잘라낸다
+    private BufferedImage readRegion(ImageSource source, CropRegion region, int subsampling) throws IOException {
+        if (region == null && subsampling == 1) {
+            return source.read();
+        }
+
+        ImageReadParam param = source.defaultReadParam();
+        if (region != null) {
+            param.setSourceRegion(new Rectangle(region.x1(), region.y1(), region.width(), region.height()));
+        }
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        BufferedImage image = source.read(param);
+
+        if (region == null || subsampling > 1) {
+            return image;
+        }
+        if (image.getWidth() == region.width() && image.getHeight() == region.height()) {
+            return image;
+        }
+        return crop(image, region);
+    }
+
+    // 크롭은 복사 없이 영역만 잘라 두고, 필터는 잘린 영역에만 한 번에 적용
+    // 주변 픽셀을 보는 필터가 있으면 반경만큼 넓게 잘라서 적용한 뒤 다시 잘라내므로, 결과는 전체에 필터를 적용하고 자른 것과 같다
+    public BufferedImage applyProgram(BufferedImage originalImage, FilterProgram program) {
+        return applyProgram(originalImage, program, rasterExecutor, false).image();
+    }
+
+    // collectStatistics 면 결과 픽셀의 히스토그램도 같이 센다. 자동 밝기는 히스토그램이 있어야 정할 수 있으므로 항상 센다
+    private FilteredImage applyProgram(BufferedImage originalImage, FilterProgram program, ParallelRasterExecutor executor, boolean collectStatistics) {
+        // 필터마다 이미지를 새로 만들지 않고, 전체 히스토리를 하나의 연산으로 합성해 한 번만 순회
+        // 자동 밝기면 밝기 없이 먼저 적용하고, 그 결과의 히스토그램으로 밝기를 정해서 한 번 더 적용한다 (다시 디코딩하지 않음)
+        boolean autoBrightness = program.autoBrightness();
+        FilterPipeline pipeline = programCache.pipeline(program.filters(), autoBrightness ? 0 : program.brightnessAdjustment());
+        ImageStatistics.Collector statistics = collectStatistics || autoBrightness ? new ImageStatistics.Collector() : null;
+
+        BufferedImage filteredImage;
+        if (!program.hasCrop()) {
+            filteredImage = pipeline.apply(originalImage, executor, statistics);
+        } else {
+            CropRegion crop = program.crop();
+            crop.requireWithin(originalImage.getWidth(), originalImage.getHeight());
+            CropRegion workingRegion = crop.expand(pipeline.radius(), originalImage.getWidth(), originalImage.getHeight());
+
+            if (workingRegion.equals(crop)) {
+                filteredImage = pipeline.apply(crop(originalImage, crop), executor, statistics);
+            } else {
+                // 반경만큼 넓힌 영역은 결과에 들어가지 않으므로 잘라낸 뒤에 센다
+                filteredImage = crop(pipeline.apply(crop(originalImage, workingRegion), executor), crop.relativeTo(workingRegion));
+                if (statistics != null) {
+                    statistics.accumulate(filteredImage, executor);
+                }
+            }
+        }
+
+        if (!autoBrightness) {
+            return new FilteredImage(filteredImage, statistics != null ? statistics.finish() : null, program.brightnessAdjustment());
+        }
+        ImageStatistics filteredStatistics = statistics.finish();
+        int adjustment = filteredStatistics.autoBrightnessAdjustment();
+        if (adjustment == 0) {
+            return new FilteredImage(filteredImage, filteredStatistics, 0);
+        }
+
+        // 앞 단계가 새로 만든 packed 이미지면 그 배열에 바로 덮어쓴다 (원본이나 잘라낸 영역은 건드리지 않음)
+        FilterPipeline brightness = programCache.pipeline(List.of(), adjustment);
+        ImageStatistics.Collector adjustedStatistics = new ImageStatistics.Collector();
+        if (filteredImage != originalImage && RasterAccess.isPacked(filteredImage)) {
+            brightness.applyInPlace(filteredImage, executor, adjustedStatistics);
+        } else {
+            filteredImage = brightness.apply(filteredImage, executor, adjustedStatistics);
+        }
+        return new FilteredImage(filteredImage, adjustedStatistics.finish(), adjustment);
+    }
+
+    private BufferedImage crop(BufferedImage image, CropRegion region) {
+        return cropProcessor.process(image, region.x1(), region.y1(), region.x2(), region.y2());
     }
 
     // 파일 확장자 추출 헬퍼
@@ -117,46 +408,29 @@ public class ImageService {
         return MediaType.parseMediaType(contentType);
     }
 
-    private BufferedImage applyAllFilters(
-            BufferedImage originalImage,
+    private FilterProgram buildProgram(
             FilterType currentFilterType,
             String filterHistoryJson,
             int brightnessAdjustment )  throws IOException {
 
-        BufferedImage currentImage = originalImage;
-
-        List<FilterType> history = parseFilterHistory(filterHistoryJson);
+        List<FilterType> history = new ArrayList<>(programCache.history(filterHistoryJson));
 
         if(currentFilterType != FilterType.Brightness && currentFilterType != FilterType.Crop) {
             history.add(currentFilterType);
         }
 
-        for (FilterType type : history) {
-            switch (type) {
-                case GrayScale:
-                    currentImage = grayscaleProcessor.process(currentImage);
-                    break;
-                case Inversion:
-                    currentImage = invertProcessor.process(currentImage);
-                    break;
+        // 서로 상쇄되거나 중복되는 필터를 먼저 제거
+        return FilterProgram.of(history, brightnessAdjustment);
+    }
 
-                default:
-                    break;
-            }
-        }
+    // 배치처럼 히스토리 전체와 크롭 영역을 한 번에 받는 경우
+    public FilterProgram buildProgram(String filterHistoryJson, int brightnessAdjustment, CropRegion crop) throws IOException {
+        FilterProgram program = FilterProgram.of(programCache.history(filterHistoryJson), brightnessAdjustment);
 
-        if (brightnessAdjustment != 0 || currentFilterType == FilterType.Brightness) {
-            currentImage = brightnessProcessor.process(currentImage, brightnessAdjustment);
-        }
-
-        return currentImage;
+        return crop != null ? program.thenCrop(crop) : program;
     }
 
-    private List<FilterType> parseFilterHistory(String json) throws IOException {
-        if (json == null || json.isEmpty() || json.equals("[]")) {
-            return new ArrayList<>();
-        }
-
-        return objectMapper.readValue(json, new TypeReference<List<FilterType>>() {});
+    // statistics 는 모으지 않았으면 null, brightnessAdjustment 는 실제로 적용한 밝기 조절 값
+    private record FilteredImage(BufferedImage image, ImageStatistics statistics, int brightnessAdjustment) {
     }
-}
\ No newline at end of file
+}
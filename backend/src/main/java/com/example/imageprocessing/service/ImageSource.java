@@ -0,0 +1,51 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageHeader;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+// 헤더까지만 읽어 둔 업로드 이미지. 픽셀은 read 를 호출할 때 한 번만 디코딩한다
+public class ImageSource implements AutoCloseable {
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final ImageHeader header;
+
+    ImageSource(ImageInputStream input, ImageReader reader, ImageHeader header) {
+        this.input = input;
+        this.reader = reader;
+        this.header = header;
+    }
+
+    public ImageHeader getHeader() {
+        return header;
+    }
+
+    public ImageReadParam defaultReadParam() {
+        return reader.getDefaultReadParam();
+    }
+
+    // 디코더가 결과 이미지를 만들 때 쓰는 형식 (플러그인이 알려 주지 않으면 지원하는 첫 형식)
+    public ImageTypeSpecifier rawImageType() throws IOException {
+        ImageTypeSpecifier rawType = reader.getRawImageType(0);
+        return rawType != null ? rawType : reader.getImageTypes(0).next();
+    }
+
+    public BufferedImage read() throws IOException {
+        return read(defaultReadParam());
+    }
+
+    public BufferedImage read(ImageReadParam param) throws IOException {
+        return reader.read(0, param);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        input.close();
+    }
+}
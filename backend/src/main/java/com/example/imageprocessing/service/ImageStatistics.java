@@ -0,0 +1,210 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.GrayscaleWeights;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 처리 결과 이미지의 채널별/휘도 히스토그램과 휘도 평균, 최소/최대, 백분위
+// 필터 루프가 결과 픽셀을 쓰는 줄 묶음마다 Collector 에 넘기면 묶음별 부분 히스토그램을 만들어 끝에 합친다.
+public class ImageStatistics {
+    private static final int LEVELS = 256;
+    private static final int[] REPORTED_PERCENTILES = {1, 5, 50, 95, 99};
+    // 자동 밝기: 휘도 중앙값을 이 값에 맞추되 밝게 할 때는 상위 1%, 어둡게 할 때는 하위 1% 가 잘리지 않는 만큼만
+    private static final int AUTO_BRIGHTNESS_TARGET = 128;
+    private static final int AUTO_BRIGHTNESS_CLIP_PERCENTILE = 1;
+
+    private final long[] red;
+    private final long[] green;
+    private final long[] blue;
+    private final long[] luminance;
+    private final long pixelCount;
+
+    private ImageStatistics(long[] red, long[] green, long[] blue, long[] luminance, long pixelCount) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.luminance = luminance;
+        this.pixelCount = pixelCount;
+    }
+
+    // 필터 단계를 거치지 않는 경우 (적용할 필터가 없거나 마지막이 주변 픽셀 단계, 크롭으로 잘라낸 결과) 따로 한 번 훑는다
+    public static ImageStatistics of(BufferedImage image, ParallelRasterExecutor executor) {
+        Collector collector = new Collector();
+        collector.accumulate(image, executor);
+        return collector.finish();
+    }
+
+    public long getPixelCount() {
+        return pixelCount;
+    }
+
+    public long[] getRedHistogram() {
+        return red.clone();
+    }
+
+    public long[] getGreenHistogram() {
+        return green.clone();
+    }
+
+    public long[] getBlueHistogram() {
+        return blue.clone();
+    }
+
+    public long[] getLuminanceHistogram() {
+        return luminance.clone();
+    }
+
+    public double getMeanLuminance() {
+        if (pixelCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            sum += (double) level * luminance[level];
+        }
+        return sum / pixelCount;
+    }
+
+    public int getMinLuminance() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (luminance[level] > 0) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    public int getMaxLuminance() {
+        for (int level = LEVELS - 1; level >= 0; level--) {
+            if (luminance[level] > 0) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    // "p1", "p5", "p50", "p95", "p99" → 휘도
+    public Map<String, Integer> getLuminancePercentiles() {
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        for (int percent : REPORTED_PERCENTILES) {
+            percentiles.put("p" + percent, luminancePercentile(percent));
+        }
+        return percentiles;
+    }
+
+    // 누적 픽셀 수가 전체의 percent% 이상이 되는 가장 작은 휘도
+    public int luminancePercentile(int percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("백분위는 0~100 사이여야 합니다: " + percent);
+        }
+        if (pixelCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(pixelCount * (percent / 100.0)));
+        long cumulative = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            cumulative += luminance[level];
+            if (cumulative >= rank) {
+                return level;
+            }
+        }
+        return LEVELS - 1;
+    }
+
+    // 밝기 조절은 세 채널에 같은 값을 더하므로 (잘리기 전) 휘도도 그만큼 움직인다
+    public int autoBrightnessAdjustment() {
+        if (pixelCount == 0) {
+            return 0;
+        }
+        int adjustment = AUTO_BRIGHTNESS_TARGET - luminancePercentile(50);
+        if (adjustment > 0) {
+            return Math.min(adjustment, Math.max(0, LEVELS - 1 - luminancePercentile(100 - AUTO_BRIGHTNESS_CLIP_PERCENTILE)));
+        }
+        return Math.max(adjustment, -luminancePercentile(AUTO_BRIGHTNESS_CLIP_PERCENTILE));
+    }
+
+    // 휘도는 GrayscaleWeights 의 고정소수점 가중치로 반올림한다
+    // (흑백 필터가 double 로 다시 계산하는 x.5 경계의 색은 1 단계 차이가 날 수 있지만 통계에는 영향이 없다)
+    static int luminanceOf(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return (r * GrayscaleWeights.RED_FIXED_POINT
+                + g * GrayscaleWeights.GREEN_FIXED_POINT
+                + b * GrayscaleWeights.BLUE_FIXED_POINT
+                + (1 << (GrayscaleWeights.FIXED_POINT_SHIFT - 1))) >> GrayscaleWeights.FIXED_POINT_SHIFT;
+    }
+
+    // 여러 스레드가 줄 묶음 단위로 넘기는 픽셀을 모은다. 묶음마다 부분 히스토그램을 따로 세고 끝날 때 한 번만 잠가서 합친다
+    static class Collector {
+        private final long[] red = new long[LEVELS];
+        private final long[] green = new long[LEVELS];
+        private final long[] blue = new long[LEVELS];
+        private final long[] luminance = new long[LEVELS];
+        private long pixelCount;
+
+        // 0xAARRGGBB 배열의 [from, to) 구간
+        void accumulate(int[] pixels, int from, int to) {
+            Partial partial = new Partial();
+            partial.add(pixels, from, to);
+            merge(partial);
+        }
+
+        // packed 이미지면 배열을 바로, 아니면 (getSubimage 로 자른 결과 등) 한 줄씩 받아서 센다
+        void accumulate(BufferedImage image, ParallelRasterExecutor executor) {
+            int width = image.getWidth();
+            if (RasterAccess.isPacked(image)) {
+                int[] pixels = RasterAccess.pixels(image);
+                executor.forEachRowBand(width, image.getHeight(), (startRow, endRow) ->
+                        accumulate(pixels, startRow * width, endRow * width));
+                return;
+            }
+
+            executor.forEachRowBand(width, image.getHeight(), (startRow, endRow) -> {
+                Partial partial = new Partial();
+                int[] row = new int[width];
+                for (int y = startRow; y < endRow; y++) {
+                    image.getRGB(0, y, width, 1, row, 0, width);
+                    partial.add(row, 0, width);
+                }
+                merge(partial);
+            });
+        }
+
+        synchronized ImageStatistics finish() {
+            return new ImageStatistics(red.clone(), green.clone(), blue.clone(), luminance.clone(), pixelCount);
+        }
+
+        private synchronized void merge(Partial partial) {
+            for (int level = 0; level < LEVELS; level++) {
+                red[level] += partial.red[level];
+                green[level] += partial.green[level];
+                blue[level] += partial.blue[level];
+                luminance[level] += partial.luminance[level];
+            }
+            pixelCount += partial.pixelCount;
+        }
+    }
+
+    // 한 줄 묶음의 히스토그램. 한 스레드만 쓰므로 동기화하지 않는다 (순차 실행이면 묶음이 이미지 전체라서 long 으로 센다)
+    private static class Partial {
+        private final long[] red = new long[LEVELS];
+        private final long[] green = new long[LEVELS];
+        private final long[] blue = new long[LEVELS];
+        private final long[] luminance = new long[LEVELS];
+        private long pixelCount;
+
+        void add(int[] pixels, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int rgb = pixels[i];
+                red[(rgb >> 16) & 0xFF]++;
+                green[(rgb >> 8) & 0xFF]++;
+                blue[rgb & 0xFF]++;
+                luminance[luminanceOf(rgb)]++;
+            }
+            pixelCount += to - from;
+        }
+    }
+}
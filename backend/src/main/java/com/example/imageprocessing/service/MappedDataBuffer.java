@@ -0,0 +1,112 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+// 파일을 메모리 매핑한 DataBuffer. 픽셀은 힙이 아니라 페이지 캐시에 있고, 운영체제가 필요한 부분만 올렸다 내린다
+// 매핑 하나는 2GB 를 넘을 수 없어서 1GB 씩 나눠 매핑한다 (요소 크기가 1GB 를 나누므로 요소가 경계에 걸치지 않는다)
+class MappedDataBuffer extends DataBuffer {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+    // TYPE_INT 일 때 줄 묶음을 한 번에 옮기기 위한 int 뷰
+    private final IntBuffer[] intChunks;
+    private final int shift;
+
+    MappedDataBuffer(FileChannel channel, int dataType, int size) throws IOException {
+        super(dataType, size);
+        this.shift = shiftOf(dataType);
+
+        long bytes = (long) size << shift;
+        int chunkCount = (int) Math.max(1, (bytes + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new ByteBuffer[chunkCount];
+        this.intChunks = new IntBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long position = (long) i << CHUNK_SHIFT;
+            long length = Math.min(1L << CHUNK_SHIFT, bytes - position);
+            // 파일보다 긴 영역을 매핑하면 파일이 늘어난다 (희소 파일이라 아직 쓰지 않은 부분은 디스크를 차지하지 않음)
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, length).order(ByteOrder.nativeOrder());
+            intChunks[i] = dataType == TYPE_INT ? chunks[i].asIntBuffer() : null;
+        }
+    }
+
+    static boolean supports(int dataType) {
+        return dataType == TYPE_BYTE || dataType == TYPE_USHORT || dataType == TYPE_INT;
+    }
+
+    @Override
+    public int getElem(int bank, int i) {
+        long offset = (long) i << shift;
+        ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & CHUNK_MASK);
+        switch (dataType) {
+            case TYPE_BYTE:
+                return chunk.get(position) & 0xFF;
+            case TYPE_USHORT:
+                return chunk.getShort(position) & 0xFFFF;
+            default:
+                return chunk.getInt(position);
+        }
+    }
+
+    @Override
+    public void setElem(int bank, int i, int value) {
+        long offset = (long) i << shift;
+        ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & CHUNK_MASK);
+        switch (dataType) {
+            case TYPE_BYTE:
+                chunk.put(position, (byte) value);
+                break;
+            case TYPE_USHORT:
+                chunk.putShort(position, (short) value);
+                break;
+            default:
+                chunk.putInt(position, value);
+        }
+    }
+
+    // TYPE_INT 전용. [index, index + length) 를 target 에 복사
+    void getInts(int index, int[] target, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long element = (long) index + copied;
+            IntBuffer chunk = intChunks[(int) (element >>> (CHUNK_SHIFT - 2))];
+            int position = (int) (element & (CHUNK_MASK >>> 2));
+            int count = Math.min(length - copied, chunk.limit() - position);
+            chunk.get(position, target, copied, count);
+            copied += count;
+        }
+    }
+
+    // TYPE_INT 전용. source 의 앞 length 개를 index 부터 덮어쓴다
+    void putInts(int index, int[] source, int length) {
+        int copied = 0;
+        while (copied < length) {
+            long element = (long) index + copied;
+            IntBuffer chunk = intChunks[(int) (element >>> (CHUNK_SHIFT - 2))];
+            int position = (int) (element & (CHUNK_MASK >>> 2));
+            int count = Math.min(length - copied, chunk.limit() - position);
+            chunk.put(position, source, copied, count);
+            copied += count;
+        }
+    }
+
+    private static int shiftOf(int dataType) {
+        switch (dataType) {
+            case TYPE_BYTE:
+                return 0;
+            case TYPE_USHORT:
+                return 1;
+            case TYPE_INT:
+                return 2;
+            default:
+                throw new IllegalArgumentException("디스크에 펼쳐 둘 수 없는 픽셀 형식입니다: " + dataType);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageHeader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 요청마다 필요한 힙을 헤더 크기로 추정해서 전역 예산에서 미리 예약
+// 예산이 모자라면 잠시 기다리고, 그래도 안 되면 503 으로 거절해서 큰 업로드 몇 개가 서버 전체를 OOM 으로 만들지 않게 한다.
+@Component
+public class MemoryBudget {
+    private static final int BYTES_PER_PIXEL = 4;
+    // 디코딩 결과와 필터 결과. 필터는 한 번에 합성해서 적용하므로 필터 수와 상관없이 결과는 한 장이고,
+    // 인코딩은 응답 스트림에 바로 쓰므로 별도 버퍼가 없다 (주변 픽셀을 보는 필터는 FilterPipeline.workingFrames 참고)
+    private static final int FRAMES_PER_REQUEST = 2;
+    private static final long BYTES_PER_PERMIT = 1024;
+
+    private final Semaphore permits;
+    private final int totalPermits;
+    private final long maxWaitMillis;
+    private final Counter reservations;
+    private final Counter waits;
+    private final Counter rejections;
+
+    public MemoryBudget(MeterRegistry meterRegistry,
+                        @Value("${image.memory.budget-mb:0}") long budgetMb,
+                        @Value("${image.memory.max-wait-ms:10000}") long maxWaitMillis) {
+        // 0 이하이면 최대 힙의 절반
+        long budgetBytes = budgetMb > 0 ? budgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 2;
+        this.totalPermits = (int) Math.min(Integer.MAX_VALUE, budgetBytes / BYTES_PER_PERMIT);
+        this.permits = new Semaphore(totalPermits, true);
+        this.maxWaitMillis = maxWaitMillis;
+
+        this.reservations = meterRegistry.counter("image.memory.reservations");
+        this.waits = meterRegistry.counter("image.memory.waits");
+        this.rejections = meterRegistry.counter("image.memory.rejections");
+        Gauge.builder("image.memory.reserved.bytes", this, MemoryBudget::getReservedBytes)
+                .register(meterRegistry);
+        Gauge.builder("image.memory.budget.bytes", this, budget -> (double) budget.totalPermits * BYTES_PER_PERMIT)
+                .register(meterRegistry);
+    }
+
+    public static long estimate(ImageHeader header) {
+        return estimate(header.pixelCount());
+    }
+
+    // 영역만 디코딩하는 경우처럼 실제로 메모리에 올라올 픽셀 수를 알 때
+    public static long estimate(long pixels) {
+        return estimate(pixels, FRAMES_PER_REQUEST);
+    }
+
+    // 처리 중 동시에 메모리에 있는 이미지 수까지 알 때
+    public static long estimate(long pixels, int frames) {
+        return pixels * BYTES_PER_PIXEL * frames;
+    }
+
+    public Reservation reserve(ImageHeader header) {
+        return reserve(estimate(header));
+    }
+
+    public Reservation reserve(long bytes) {
+        int required = (int) Math.min(Integer.MAX_VALUE, (bytes + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT);
+
+        // 예산 전체보다 크면 기다려도 처리할 수 없다
+        if (required > totalPermits) {
+            rejections.increment();
+            throw new IllegalArgumentException("서버에서 처리할 수 있는 이미지 크기를 넘었습니다.");
+        }
+
+        try {
+            // 공정 모드 세마포어라 먼저 기다리던 요청이 있으면 새치기하지 않는다
+            if (!permits.tryAcquire(required, 0, TimeUnit.MILLISECONDS)) {
+                waits.increment();
+                if (!permits.tryAcquire(required, maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                    rejections.increment();
+                    throw new ImageOverloadException("처리 중인 이미지가 많습니다. 잠시 후 다시 시도해 주세요.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejections.increment();
+            throw new ImageOverloadException("이미지 처리 대기 중 요청이 중단되었습니다.");
+        }
+
+        reservations.increment();
+        return new Reservation(required);
+    }
+
+    public long getReservedBytes() {
+        return (long) (totalPermits - permits.availablePermits()) * BYTES_PER_PERMIT;
+    }
+
+    // try-with-resources 로 처리가 끝나면 예약을 반납
+    public class Reservation implements AutoCloseable {
+        private final int reservedPermits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int reservedPermits) {
+            this.reservedPermits = reservedPermits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release(reservedPermits);
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageHeader;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.Feature;
+import com.google.cloud.vision.v1.Image;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageReadParam;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Vision API 앞단. 동시에 들어온 OCR 요청을 모아 batchAnnotateImages 한 번으로 보낸다
+// 묶음은 최대 장수나 최대 바이트가 차거나 첫 요청 후 최대 대기 시간이 지나면 보낸다 (Vision API 의 요청 크기 한도).
+// 혼자서 바이트 한도를 넘는 이미지는 모아 둔 묶음을 먼저 보낸 뒤 따로 보내고, 이미지 한 장 한도를 넘으면 보내지 않는다. 같은 이미지(내용 해시)는 처리 중인 호출 결과를
+// 같이 기다리고, 성공한 결과는 일정 시간 캐시한다. 설정하면 보내기 전에 줄여서(건너뛰며 디코딩) 흑백으로 바꿔 전송량을 줄인다.
+@Component
+public class OcrGateway {
+    private static final String SERVICE = "ocr";
+    private static final Feature TEXT_DETECTION = Feature.newBuilder()
+            .setType(Feature.Type.TEXT_DETECTION)
+            .build();
+
+    // 인증 정보가 없어도 서버는 뜨도록 클라이언트는 처음 OCR 을 보낼 때 만든다 (VisionConfig 의 빈은 @Lazy)
+    private final ObjectFactory<ImageAnnotatorClient> clientFactory;
+    private volatile ImageAnnotatorClient client;
+    private final ImageDecoder imageDecoder;
+    private final GrayscaleProcessor grayscaleProcessor;
+    private final ImageEncoder imageEncoder;
+    private final CpuStageExecutor cpuExecutor;
+    private final MemoryBudget memoryBudget;
+    private final ImageMetrics metrics;
+    private final MeterRegistry meterRegistry;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long maxImageBytes;
+    private final long maxWaitMillis;
+    private final int maxDimension;
+    private final boolean grayscale;
+    private final ExpiringLruCache<String, OcrResult> cache;
+    private final DistributionSummary batchSizes;
+
+    // 내용 해시 → 처리 중인 요청의 결과
+    private final Map<String, CompletableFuture<OcrResult>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushTimer;
+    // API 호출은 응답을 기다리기만 하므로 가상 스레드에서
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    // 아래 세 필드는 this 로 동기화
+    private List<PendingImage> pending = new ArrayList<>();
+    private long pendingBytes;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public OcrGateway(ObjectFactory<ImageAnnotatorClient> clientFactory,
+                      ImageDecoder imageDecoder,
+                      GrayscaleProcessor grayscaleProcessor,
+                      ImageEncoder imageEncoder,
+                      CpuStageExecutor cpuExecutor,
+                      MemoryBudget memoryBudget,
+                      ImageMetrics metrics,
+                      MeterRegistry meterRegistry,
+                      @Value("${image.ocr.max-batch-size:16}") int maxBatchSize,
+                      @Value("${image.ocr.max-batch-bytes:8388608}") long maxBatchBytes,
+                      @Value("${image.ocr.max-image-bytes:20971520}") long maxImageBytes,
+                      @Value("${image.ocr.max-wait-ms:20}") long maxWaitMillis,
+                      @Value("${image.ocr.cache.max-entries:1000}") int cacheMaxEntries,
+                      @Value("${image.ocr.cache.ttl-ms:3600000}") long cacheTtlMillis,
+                      @Value("${image.ocr.max-dimension:0}") int maxDimension,
+                      @Value("${image.ocr.grayscale:false}") boolean grayscale) {
+        this.clientFactory = clientFactory;
+        this.imageDecoder = imageDecoder;
+        this.grayscaleProcessor = grayscaleProcessor;
+        this.imageEncoder = imageEncoder;
+        this.cpuExecutor = cpuExecutor;
+        this.memoryBudget = memoryBudget;
+        this.metrics = metrics;
+        this.meterRegistry = meterRegistry;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxImageBytes = maxImageBytes;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxDimension = maxDimension;
+        this.grayscale = grayscale;
+        this.cache = new ExpiringLruCache<>(cacheMaxEntries, cacheTtlMillis);
+        this.batchSizes = DistributionSummary.builder("image.ocr.batch.size").register(meterRegistry);
+        Gauge.builder("image.ocr.pending.bytes", this, OcrGateway::getPendingBytes)
+                .register(meterRegistry);
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-ocr-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public OcrResult extractText(MultipartFile file) throws IOException {
+        byte[] bytes = file.getBytes();
+        String key = keyOf(bytes);
+
+        OcrResult cached = cache.get(key);
+        if (cached != null) {
+            meterRegistry.counter("image.ocr.cache", "result", "hit").increment();
+            return cached;
+        }
+        meterRegistry.counter("image.ocr.cache", "result", "miss").increment();
+
+        CompletableFuture<OcrResult> result = new CompletableFuture<>();
+        CompletableFuture<OcrResult> existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            meterRegistry.counter("image.ocr.deduplicated").increment();
+            return await(existing);
+        }
+
+        try {
+            byte[] content = prepare(file, bytes);
+            if (content.length > maxImageBytes) {
+                throw new IllegalArgumentException("OCR 로 보낼 수 있는 이미지 크기를 넘었습니다.");
+            }
+            enqueue(new PendingImage(key, ByteString.copyFrom(content), result));
+        } catch (IOException | RuntimeException e) {
+            // 같은 이미지를 기다리던 요청도 같은 오류로 끝낸다
+            inFlight.remove(key, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+        return await(result);
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushTimer.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    // 줄이거나 흑백으로 바꾸지 않으면 원본 바이트를 그대로 보낸다. 바꾼 결과가 원본보다 크면 원본을 보낸다
+    private byte[] prepare(MultipartFile file, byte[] original) throws IOException {
+        if (maxDimension <= 0 && !grayscale) {
+            return original;
+        }
+
+        try (ImageSource source = imageDecoder.open(file)) {
+            ImageHeader header = source.getHeader();
+            int subsampling = ImageService.subsampling(header.width(), header.height(), maxDimension);
+            if (subsampling == 1 && !grayscale) {
+                return original;
+            }
+
+            // 줄여서 디코딩한 결과와 흑백 결과. 큰 원본을 그대로 디코딩해도 다른 요청과 같은 예산 안에서만 한다
+            long decodedPixels = (long) Math.ceilDiv(header.width(), subsampling) * Math.ceilDiv(header.height(), subsampling);
+            try (MemoryBudget.Reservation reservation = memoryBudget.reserve(MemoryBudget.estimate(decodedPixels, grayscale ? 2 : 1))) {
+                BufferedImage image = cpuExecutor.call(() -> {
+                    BufferedImage decoded = source.read(subsampled(source, subsampling));
+                    return grayscale ? grayscaleProcessor.process(decoded) : decoded;
+                });
+
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                imageEncoder.write(image, header.formatName(), encoded);
+                return encoded.size() < original.length ? encoded.toByteArray() : original;
+            }
+        }
+    }
+
+    private static ImageReadParam subsampled(ImageSource source, int subsampling) {
+        ImageReadParam param = source.defaultReadParam();
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return param;
+    }
+
+    private synchronized void enqueue(PendingImage image) {
+        // 더하면 바이트 한도를 넘으면 모아 둔 묶음부터 보낸다 (한도보다 큰 이미지는 아래에서 혼자 보내진다)
+        if (!pending.isEmpty() && pendingBytes + image.content().size() > maxBatchBytes) {
+            send();
+        }
+        pending.add(image);
+        pendingBytes += image.content().size();
+        if (pending.size() >= maxBatchSize || pendingBytes >= maxBatchBytes || maxWaitMillis <= 0) {
+            send();
+        } else if (pending.size() == 1) {
+            scheduledFlush = flushTimer.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void flush() {
+        if (!pending.isEmpty()) {
+            send();
+        }
+    }
+
+    private void send() {
+        List<PendingImage> batch = pending;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        callers.execute(() -> call(batch));
+    }
+
+    private void call(List<PendingImage> batch) {
+        BatchAnnotateImagesRequest.Builder request = BatchAnnotateImagesRequest.newBuilder();
+        for (PendingImage image : batch) {
+            request.addRequests(AnnotateImageRequest.newBuilder()
+                    .addFeatures(TEXT_DETECTION)
+                    .setImage(Image.newBuilder().setContent(image.content()).build())
+                    .build());
+        }
+        batchSizes.record(batch.size());
+
+        Timer.Sample sample = metrics.startCall();
+        BatchAnnotateImagesResponse response;
+        try {
+            response = client().batchAnnotateImages(request.build());
+        } catch (RuntimeException e) {
+            metrics.stopCall(sample, SERVICE, false);
+            batch.forEach(image -> complete(image, null, e));
+            return;
+        }
+        metrics.stopCall(sample, SERVICE, true);
+
+        // 응답은 요청한 순서대로 온다
+        for (int i = 0; i < batch.size(); i++) {
+            if (i >= response.getResponsesCount()) {
+                complete(batch.get(i), null, new IllegalStateException("OCR 응답 수가 요청 수보다 적습니다."));
+                continue;
+            }
+            AnnotateImageResponse annotation = response.getResponses(i);
+            OcrResult result = annotation.hasError()
+                    ? OcrResult.error(annotation.getError().getMessage())
+                    : OcrResult.text(annotation.getFullTextAnnotation().getText());
+            complete(batch.get(i), result, null);
+        }
+    }
+
+    // 만들다 실패하면 (인증 정보 없음 등) 이번 묶음만 그 오류로 끝내고 다음 묶음에서 다시 만든다
+    private ImageAnnotatorClient client() {
+        ImageAnnotatorClient current = client;
+        if (current == null) {
+            synchronized (clientFactory) {
+                current = client;
+                if (current == null) {
+                    current = clientFactory.getObject();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // 성공한 결과만 캐시하고, 캐시에 넣은 뒤 처리 중 목록에서 빼서 그 사이에 온 요청도 둘 중 하나는 보게 한다
+    private void complete(PendingImage image, OcrResult result, RuntimeException failure) {
+        if (result != null && !result.hasError()) {
+            cache.put(image.key(), result);
+        }
+        inFlight.remove(image.key(), image.result());
+
+        if (failure != null) {
+            image.result().completeExceptionally(failure);
+        } else {
+            image.result().complete(result);
+        }
+    }
+
+    private static OcrResult await(CompletableFuture<OcrResult> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("OCR 응답 대기 중 중단되었습니다.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static String keyOf(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record PendingImage(String key, ByteString content, CompletableFuture<OcrResult> result) {
+    }
+}
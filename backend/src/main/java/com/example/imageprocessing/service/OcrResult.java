@@ -0,0 +1,17 @@
+package com.example.imageprocessing.service;
+
+// 이미지 한 장의 OCR 결과. Vision API 가 이미지 단위로 오류를 돌려주면 error 에 메시지가 담긴다
+public record OcrResult(String text, String error) {
+
+    static OcrResult text(String text) {
+        return new OcrResult(text, null);
+    }
+
+    static OcrResult error(String error) {
+        return new OcrResult(null, error);
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+}
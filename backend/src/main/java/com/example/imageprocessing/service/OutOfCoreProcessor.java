@@ -0,0 +1,176 @@
+package com.example.imageprocessing.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageReadParam;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// 힙에 다 올리기 어려운 큰 이미지를 디스크에 펼쳐 두고 줄 묶음 단위로 처리
+// 디코더는 메모리 매핑한 임시 파일(ScratchImage)에 한 번에 디코딩하고, 필터는 줄 묶음 하나만 힙으로 읽어 적용한 뒤 다시 쓴다.
+// 인코더도 매핑된 이미지에서 줄 단위로 읽어 가므로 힙 사용량은 이미지 크기와 상관없이 줄 묶음 크기로 정해진다.
+@Component
+public class OutOfCoreProcessor {
+    // 디코딩 결과 이미지를 바꿔 끼울 수 있는 것을 확인한 디코더
+    private static final Set<String> FORMATS = Set.of("png", "jpeg");
+
+    private final long thresholdPixels;
+    private final long maxPixels;
+    private final int stripPixels;
+    private final Path directory;
+
+    public OutOfCoreProcessor(@Value("${image.out-of-core.threshold-pixels:50000000}") long thresholdPixels,
+                              @Value("${image.out-of-core.max-pixels:2000000000}") long maxPixels,
+                              @Value("${image.out-of-core.strip-pixels:1048576}") int stripPixels,
+                              @Value("${image.out-of-core.directory:}") String directory) throws IOException {
+        this.thresholdPixels = thresholdPixels;
+        this.maxPixels = maxPixels;
+        this.stripPixels = Math.max(1, stripPixels);
+        // 비워 두면 시스템 임시 디렉터리 아래에 만든다
+        this.directory = directory.isBlank()
+                ? Files.createTempDirectory("image-scratch")
+                : Files.createDirectories(Path.of(directory));
+    }
+
+    // 디코딩 전 헤더 검증에 쓰는 한도. image.max-pixels 보다 큰 이미지는 이 경로로만 처리한다 (쓰지 않으면 0)
+    public long getMaxPixels() {
+        return thresholdPixels > 0 ? maxPixels : 0;
+    }
+
+    // 디코딩할 픽셀 수가 기준 이상 한도 이하이고, 픽셀 단위 필터만 있을 때 (주변 픽셀 필터는 줄 묶음 경계 너머를 읽어야 한다)
+    // 크롭은 디코더가 영역만 읽으므로 남은 프로그램에 크롭이 없어야 한다. 0 이하면 쓰지 않는다
+    public boolean supports(String formatName, FilterProgram program, long decodedPixels) {
+        return thresholdPixels > 0
+                && decodedPixels >= thresholdPixels
+                && decodedPixels <= maxPixels
+                && !program.hasCrop()
+                && FilterPipeline.radiusOf(program.filters()) == 0
+                && FORMATS.contains(formatName.toLowerCase(Locale.ROOT));
+    }
+
+    // 한 번에 힙에 올리는 줄 수 (적어도 한 줄)
+    public int stripRows(int width) {
+        return Math.max(1, stripPixels / Math.max(1, width));
+    }
+
+    // 처리 중 힙에 있는 픽셀 수 (줄 묶음 이미지 한 장)
+    public long workingPixels(int width) {
+        return (long) stripRows(width) * width;
+    }
+
+    // region(null 이면 전체)을 subsampling 간격으로 건너뛰며 매핑된 임시 파일에 디코딩
+    ScratchImage decode(ImageSource source, CropRegion region, int subsampling) throws IOException {
+        int width = region != null ? region.width() : source.getHeader().width();
+        int height = region != null ? region.height() : source.getHeader().height();
+        ScratchImage decoded = ScratchImage.forDecoding(directory, source.rawImageType(),
+                Math.ceilDiv(width, subsampling), Math.ceilDiv(height, subsampling));
+        try {
+            ImageReadParam param = source.defaultReadParam();
+            if (region != null) {
+                param.setSourceRegion(new Rectangle(region.x1(), region.y1(), region.width(), region.height()));
+            }
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            }
+            // 디코더는 넘겨받은 이미지에 줄을 순서대로 써 넣으므로 원본 스트림을 한 번만 읽는다
+            // (줄 묶음마다 setSourceRegion 으로 다시 읽으면 PNG, JPEG 은 매번 처음부터 압축을 풀어야 한다)
+            param.setDestination(decoded.getImage());
+            source.read(param);
+            return decoded;
+        } catch (IOException | RuntimeException e) {
+            decoded.close();
+            throw e;
+        }
+    }
+
+    // 합성한 파이프라인을 줄 묶음 단위로 적용한 결과. decoded 가 packed 면 그 파일에 바로 덮어쓰고, 아니면 packed 결과 파일을 새로 만든다
+    // opaque 면 (JPEG 으로 저장) 알파를 흰 배경에 합성해 알파 없는 결과를 만든다. 인코더가 이미지 전체를 복사하지 않게 하려는 것
+    // autoBrightness 면 (pipeline 에는 밝기가 빠져 있다) 첫 번째 훑기에서 센 히스토그램으로 밝기를 정해서 결과 파일을 한 번 더 훑는다
+    Result apply(ScratchImage decoded, FilterPipeline pipeline, boolean autoBrightness, boolean opaque, ParallelRasterExecutor executor, boolean collectStatistics) throws IOException {
+        boolean alpha = decoded.hasAlpha() && !opaque;
+        ScratchImage output = decoded.isPacked() && decoded.hasAlpha() == alpha
+                ? decoded
+                : ScratchImage.packed(directory, decoded.getWidth(), decoded.getHeight(), alpha);
+        try {
+            ImageStatistics.Collector statistics = collectStatistics || autoBrightness ? new ImageStatistics.Collector() : null;
+            applyInStrips(decoded, output, pipeline, executor, statistics, decoded.hasAlpha() && !alpha);
+            if (output != decoded) {
+                decoded.close();
+            }
+
+            if (!autoBrightness) {
+                return new Result(output, statistics != null ? statistics.finish() : null, 0);
+            }
+            ImageStatistics filteredStatistics = statistics.finish();
+            int adjustment = filteredStatistics.autoBrightnessAdjustment();
+            if (adjustment == 0) {
+                return new Result(output, filteredStatistics, 0);
+            }
+            ImageStatistics.Collector adjustedStatistics = new ImageStatistics.Collector();
+            applyInStrips(output, output, FilterPipeline.compile(List.of(), adjustment), executor, adjustedStatistics, false);
+            return new Result(output, adjustedStatistics.finish(), adjustment);
+        } catch (IOException | RuntimeException e) {
+            if (output != decoded) {
+                output.close();
+            }
+            decoded.close();
+            throw e;
+        }
+    }
+
+    // 줄 묶음마다 source 에서 packed 배열로 읽어 필터를 제자리에서 적용하고 output 에 쓴다
+    // 할 일이 없으면 (같은 파일이고 필터, 통계, 알파 합성이 모두 없음) 훑지 않는다
+    private void applyInStrips(ScratchImage source, ScratchImage output, FilterPipeline pipeline, ParallelRasterExecutor executor,
+                               ImageStatistics.Collector statistics, boolean flattenAlpha) {
+        if (source == output && pipeline.isIdentity() && statistics == null && !flattenAlpha) {
+            return;
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int stripRows = Math.min(stripRows(width), height);
+        int type = source.hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage strip = new BufferedImage(width, stripRows, type);
+        for (int startRow = 0; startRow < height; startRow += stripRows) {
+            int rows = Math.min(stripRows, height - startRow);
+            if (rows < strip.getHeight()) {
+                // 마지막 묶음은 남은 줄 수에 맞춘 이미지로 (필터와 통계가 이미지 높이만큼 훑는다)
+                strip = new BufferedImage(width, rows, type);
+            }
+            int[] pixels = RasterAccess.pixels(strip);
+            source.readRgb(startRow, rows, pixels);
+            pipeline.applyInPlace(strip, executor, statistics);
+            if (flattenAlpha) {
+                flattenOnWhite(pixels);
+            }
+            output.writeRgb(startRow, rows, pixels);
+        }
+    }
+
+    // 알파를 흰 배경에 합성 (ImageEncoder 가 JPEG 으로 저장할 때 흰 배경에 그리는 것과 같은 결과)
+    private static void flattenOnWhite(int[] pixels) {
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i];
+            int alpha = argb >>> 24;
+            if (alpha == 0xFF) {
+                continue;
+            }
+            int background = 0xFF - alpha;
+            int r = (((argb >> 16) & 0xFF) * alpha + 0xFF * background + 127) / 0xFF;
+            int g = (((argb >> 8) & 0xFF) * alpha + 0xFF * background + 127) / 0xFF;
+            int b = ((argb & 0xFF) * alpha + 0xFF * background + 127) / 0xFF;
+            pixels[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    // statistics 는 모으지 않았으면 null, brightnessAdjustment 는 자동 밝기로 정한 값 (자동 밝기가 아니면 0)
+    record Result(ScratchImage image, ImageStatistics statistics, int brightnessAdjustment) {
+    }
+}
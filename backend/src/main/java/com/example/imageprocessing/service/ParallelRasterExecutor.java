@@ -0,0 +1,123 @@
+package com.example.imageprocessing.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 이미지를 가로 줄 묶음(row band)으로 나눠 ForkJoinPool 에서 병렬로 처리
+// 픽셀 수가 기준보다 작으면 스레드 분배 비용이 더 크므로 호출한 스레드에서 그대로 처리한다.
+// 줄 안의 연산에 Vector API 를 쓸지도 여기서 정한다 (모듈이 없으면 설정과 상관없이 스칼라 구현).
+@Component
+public class ParallelRasterExecutor {
+    private static final int BANDS_PER_THREAD = 4;
+    private static final ParallelRasterExecutor SEQUENTIAL = new ParallelRasterExecutor(1, Long.MAX_VALUE, true);
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long parallelThreshold;
+    private final boolean vectorized;
+    private final RowProgress progress;
+
+    public ParallelRasterExecutor(@Value("${image.processing.parallelism:0}") int parallelism,
+                                  @Value("${image.processing.parallel-threshold:1000000}") long parallelThreshold,
+                                  @Value("${image.processing.vectorized:true}") boolean vectorized) {
+        // 0 이하이면 코어 수만큼 사용
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = parallelThreshold;
+        this.vectorized = vectorized && VectorSupport.isAvailable();
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+        this.progress = null;
+    }
+
+    private ParallelRasterExecutor(ParallelRasterExecutor base, RowProgress progress) {
+        this.parallelism = base.parallelism;
+        this.parallelThreshold = base.parallelThreshold;
+        this.vectorized = base.vectorized;
+        this.pool = base.pool;
+        this.progress = progress;
+    }
+
+    public static ParallelRasterExecutor sequential() {
+        return SEQUENTIAL;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    // 같은 스레드 풀을 쓰면서 줄 묶음이 끝날 때마다 처리한 줄 수를 알려 주는 실행기 (비동기 작업 진행률)
+    public ParallelRasterExecutor withProgress(RowProgress progress) {
+        return new ParallelRasterExecutor(this, progress);
+    }
+
+    public void forEachRowBand(int width, int height, RowBandTask task) {
+        if (progress != null) {
+            RowBandTask reported = task;
+            task = (startRow, endRow) -> {
+                reported.process(startRow, endRow);
+                progress.rowsProcessed(endRow - startRow);
+            };
+        }
+
+        if (pool == null || (long) width * height < parallelThreshold) {
+            task.process(0, height);
+            return;
+        }
+
+        int minBandRows = Math.max(1, height / (parallelism * BANDS_PER_THREAD));
+        pool.invoke(new RowBandAction(task, 0, height, minBandRows));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 진행률만 덧붙인 실행기는 원래 실행기의 풀을 같이 쓰므로 닫지 않는다
+        if (pool != null && progress == null) {
+            pool.shutdown();
+        }
+    }
+
+    // [startRow, endRow) 범위의 줄을 처리하는 작업. 서로 다른 범위는 동시에 호출될 수 있다.
+    @FunctionalInterface
+    public interface RowBandTask {
+        void process(int startRow, int endRow);
+    }
+
+    // 서로 다른 줄 묶음에서 동시에 호출될 수 있다. 예외를 던지면 남은 줄 묶음은 처리하지 않는다 (작업 취소)
+    @FunctionalInterface
+    public interface RowProgress {
+        void rowsProcessed(int rows);
+    }
+
+    private static class RowBandAction extends RecursiveAction {
+        private final RowBandTask task;
+        private final int startRow;
+        private final int endRow;
+        private final int minBandRows;
+
+        RowBandAction(RowBandTask task, int startRow, int endRow, int minBandRows) {
+            this.task = task;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.minBandRows = minBandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRow - startRow <= minBandRows) {
+                task.process(startRow, endRow);
+                return;
+            }
+
+            int middleRow = (startRow + endRow) >>> 1;
+            invokeAll(new RowBandAction(task, startRow, middleRow, minBandRows),
+                    new RowBandAction(task, middleRow, endRow, minBandRows));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.imageprocessing.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// 비동기 작업용으로 디스크에 옮겨 둔 업로드를 단건 요청과 같은 경로(디코더, 캐시 키)로 처리하기 위한 어댑터
+// 업로드 파트는 요청이 끝나면 지워지므로 큰 원본을 메모리에 올리지 않고 파일로 넘긴다
+class PathMultipartFile implements MultipartFile {
+    private final String filename;
+    private final Path path;
+
+    PathMultipartFile(String filename, Path path) {
+        this.filename = filename;
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return filename;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getContentType() {
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.imageprocessing.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+// Pixabay 검색 앞단. 연결을 재사용하는 HttpClient 하나로 호출하고, 검색어를 정규화해서 hits 를 일정 시간 캐시한다
+// 같은 검색어가 동시에 들어오면 처음 요청만 호출하고 나머지는 그 결과를 같이 기다린다.
+// 썸네일 미리 받기를 켜면 검색 결과의 미리보기 이미지를 받아 두고 hits 의 thumbnailURL 로 이 서버에서 내려준다.
+@Component
+public class PixabayGateway {
+    public static final String THUMBNAIL_PATH = "/api/pixabay/thumbnails/";
+
+    private static final String SERVICE = "pixabay";
+    private static final String THUMBNAIL_SERVICE = "pixabay-thumbnail";
+    // Pixabay 가 받는 검색어 최대 길이
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int MAX_THUMBNAIL_BYTES = 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ImageMetrics metrics;
+    private final MeterRegistry meterRegistry;
+    private final String apiKey;
+    private final URI apiUri;
+    private final Duration requestTimeout;
+    private final boolean prefetchThumbnails;
+    private final HttpClient client;
+
+    // 정규화한 검색어 → hits
+    private final ExpiringLruCache<String, JsonNode> cache;
+    private final Map<String, CompletableFuture<JsonNode>> inFlight = new ConcurrentHashMap<>();
+
+    // 이미지 id → 원래 미리보기 주소, 이미지 id → 받아 둔 썸네일
+    private final ExpiringLruCache<String, URI> previewUris;
+    private final ExpiringLruCache<String, Thumbnail> thumbnails;
+    private final Map<String, CompletableFuture<Thumbnail>> thumbnailsInFlight = new ConcurrentHashMap<>();
+
+    public PixabayGateway(ObjectMapper objectMapper,
+                          ImageMetrics metrics,
+                          MeterRegistry meterRegistry,
+                          @Value("${PIXABAY_API_KEY}") String apiKey,
+                          @Value("${image.pixabay.api-url:https://pixabay.com/api/}") String apiUrl,
+                          @Value("${image.pixabay.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                          @Value("${image.pixabay.request-timeout-ms:5000}") long requestTimeoutMillis,
+                          @Value("${image.pixabay.cache.max-entries:500}") int cacheMaxEntries,
+                          @Value("${image.pixabay.cache.ttl-ms:86400000}") long cacheTtlMillis,
+                          @Value("${image.pixabay.thumbnail.prefetch:false}") boolean prefetchThumbnails,
+                          @Value("${image.pixabay.thumbnail.max-entries:2000}") int thumbnailMaxEntries) {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.meterRegistry = meterRegistry;
+        this.apiKey = apiKey;
+        this.apiUri = URI.create(apiUrl);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.prefetchThumbnails = prefetchThumbnails;
+        this.cache = new ExpiringLruCache<>(cacheMaxEntries, cacheTtlMillis);
+        this.previewUris = new ExpiringLruCache<>(thumbnailMaxEntries, cacheTtlMillis);
+        this.thumbnails = new ExpiringLruCache<>(thumbnailMaxEntries, cacheTtlMillis);
+        // HttpClient 는 호스트별로 연결을 모아 두고 keep-alive 로 재사용한다
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public JsonNode search(String query) throws IOException {
+        String normalized = normalize(query);
+
+        JsonNode cached = cache.get(normalized);
+        if (cached != null) {
+            meterRegistry.counter("image.pixabay.cache", "result", "hit").increment();
+            return cached;
+        }
+
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        CompletableFuture<JsonNode> existing = inFlight.putIfAbsent(normalized, result);
+        if (existing != null) {
+            meterRegistry.counter("image.pixabay.cache", "result", "coalesced").increment();
+            return await(existing);
+        }
+        meterRegistry.counter("image.pixabay.cache", "result", "miss").increment();
+
+        try {
+            JsonNode hits = fetch(normalized);
+            // 캐시에 넣은 뒤 처리 중 목록에서 빼서 그 사이에 온 요청도 둘 중 하나는 보게 한다. 실패한 응답은 캐시하지 않는다
+            cache.put(normalized, hits);
+            inFlight.remove(normalized, result);
+            result.complete(hits);
+            return hits;
+        } catch (IOException | RuntimeException e) {
+            inFlight.remove(normalized, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 검색 결과로 내려준 적 없는 id 면 빈 값
+    public Optional<Thumbnail> thumbnail(String id) throws IOException {
+        Thumbnail cached = thumbnails.get(id);
+        if (cached != null) {
+            meterRegistry.counter("image.pixabay.thumbnail.cache", "result", "hit").increment();
+            return Optional.of(cached);
+        }
+        URI previewUri = previewUris.get(id);
+        if (previewUri == null) {
+            return Optional.empty();
+        }
+        meterRegistry.counter("image.pixabay.thumbnail.cache", "result", "miss").increment();
+        return Optional.of(await(loadThumbnail(id, previewUri)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.shutdownNow();
+    }
+
+    // 앞뒤 공백을 없애고 연속된 공백은 하나로, 대소문자는 구분하지 않는다 (Pixabay 검색도 구분하지 않음)
+    static String normalize(String query) {
+        String normalized = query == null ? "" : query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("검색어는 " + MAX_QUERY_LENGTH + "자 이하여야 합니다.");
+        }
+        return normalized;
+    }
+
+    private JsonNode fetch(String query) throws IOException {
+        URI uri = URI.create(apiUri + "?key=" + encode(apiKey) + "&q=" + encode(query));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        Timer.Sample sample = metrics.startCall();
+        boolean success = false;
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            JsonNode hits;
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("Pixabay 응답 코드: " + response.statusCode());
+                }
+                hits = objectMapper.readTree(body).path("hits");
+            }
+            if (!hits.isArray()) {
+                throw new IOException("Pixabay 응답에 hits 가 없습니다.");
+            }
+            if (prefetchThumbnails) {
+                prefetchThumbnails(hits);
+            }
+            success = true;
+            return hits;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pixabay 응답 대기 중 중단되었습니다.");
+        } finally {
+            metrics.stopCall(sample, SERVICE, success);
+        }
+    }
+
+    // 캐시에 넣기 전에 hits 에 thumbnailURL 을 붙여 두므로 캐시된 응답에도 들어 있다
+    private void prefetchThumbnails(JsonNode hits) {
+        for (JsonNode hit : hits) {
+            String id = hit.path("id").asText();
+            URI previewUri = previewUri(hit.path("previewURL").asText());
+            if (id.isEmpty() || previewUri == null || !(hit instanceof ObjectNode object)) {
+                continue;
+            }
+            previewUris.put(id, previewUri);
+            object.put("thumbnailURL", THUMBNAIL_PATH + encode(id));
+            if (thumbnails.get(id) == null) {
+                loadThumbnail(id, previewUri);
+            }
+        }
+    }
+
+    // 응답에 들어 있는 주소로 요청을 보내므로 Pixabay 호스트(또는 설정한 API 호스트)만 허용한다
+    private URI previewUri(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            String host = uri.getHost();
+            if (host == null || !("https".equalsIgnoreCase(scheme) || "http".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            return host.equals(apiUri.getHost()) || host.equals("pixabay.com") || host.endsWith(".pixabay.com") ? uri : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // 같은 썸네일을 받는 중이면 그 결과를 같이 기다린다
+    private CompletableFuture<Thumbnail> loadThumbnail(String id, URI previewUri) {
+        CompletableFuture<Thumbnail> result = new CompletableFuture<>();
+        CompletableFuture<Thumbnail> existing = thumbnailsInFlight.putIfAbsent(id, result);
+        if (existing != null) {
+            return existing;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(previewUri)
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        Timer.Sample sample = metrics.startCall();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    Thumbnail thumbnail = null;
+                    if (failure == null) {
+                        if (response.statusCode() != 200) {
+                            failure = new IOException("썸네일 응답 코드: " + response.statusCode());
+                        } else if (response.body().length > MAX_THUMBNAIL_BYTES) {
+                            failure = new IOException("썸네일이 너무 큽니다.");
+                        } else {
+                            String contentType = response.headers().firstValue("Content-Type").orElse("image/jpeg");
+                            thumbnail = new Thumbnail(contentType, response.body());
+                            thumbnails.put(id, thumbnail);
+                        }
+                    }
+                    metrics.stopCall(sample, THUMBNAIL_SERVICE, failure == null);
+                    thumbnailsInFlight.remove(id, result);
+
+                    if (failure != null) {
+                        result.completeExceptionally(failure);
+                    } else {
+                        result.complete(thumbnail);
+                    }
+                });
+        return result;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T await(CompletableFuture<T> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pixabay 응답 대기 중 중단되었습니다.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public record Thumbnail(String contentType, byte[] bytes) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.imageprocessing.service;
+
+// 픽셀 단위 연산을 배열의 [from, to) 구간에 적용. source 와 target 은 같은 배열이어도 된다
+interface PointKernel {
+    PointKernel SCALAR = new ScalarPointKernel();
+    PointKernel VECTOR = VectorSupport.load(
+            "com.example.imageprocessing.service.VectorPointKernel", PointKernel.class, SCALAR);
+
+    static PointKernel of(ParallelRasterExecutor executor) {
+        return executor.isVectorized() ? VECTOR : SCALAR;
+    }
+
+    void apply(PointOperation operation, int[] source, int[] target, int from, int to);
+}
@@ -0,0 +1,98 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ChannelLookupTables;
+
+// 연속된 픽셀 단위 필터(흑백, 반전, 밝기)를 합성한 연산
+//
+// 흑백 변환 전의 연산은 채널별 테이블(preTable) 하나로,
+// 흑백 변환 후의 연산은 흑백 값에 대한 테이블(postTable) 하나로 합쳐진다.
+// 같은 연산을 ChannelMap(덧셈/최대/최소) 으로도 들고 있어서 벡터 구현은 테이블 대신 산술 연산으로 계산한다.
+final class PointOperation {
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    private int[] preTable = ChannelLookupTables.identity();
+    private boolean grayscale;
+    private int[] postTable = ChannelLookupTables.identity();
+    private ChannelMap preMap = ChannelMap.IDENTITY;
+    private ChannelMap postMap = ChannelMap.IDENTITY;
+    private boolean identity = true;
+    private Boolean vectorizable;
+
+    void add(FilterType type) {
+        switch (type) {
+            case GrayScale:
+                // 흑백 픽셀은 다시 흑백 변환해도 값이 같으므로 ChannelMap 은 그대로
+                if (grayscale) {
+                    postTable = ChannelLookupTables.compose(postTable, ChannelLookupTables.grayscaleOfGray());
+                }
+                grayscale = true;
+                identity = false;
+                break;
+            case Inversion:
+                compose(ChannelLookupTables.invert(), ChannelMap.INVERT);
+                identity = false;
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    void addBrightness(int brightnessAdjustment) {
+        if (brightnessAdjustment == 0) {
+            return;
+        }
+        compose(ChannelLookupTables.brightness(brightnessAdjustment), ChannelMap.brightness(brightnessAdjustment));
+        identity = false;
+    }
+
+    private void compose(int[] table, ChannelMap map) {
+        if (grayscale) {
+            postTable = ChannelLookupTables.compose(postTable, table);
+            postMap = postMap.then(map);
+        } else {
+            preTable = ChannelLookupTables.compose(preTable, table);
+            preMap = preMap.then(map);
+        }
+    }
+
+    boolean isIdentity() {
+        return identity;
+    }
+
+    boolean isGrayscale() {
+        return grayscale;
+    }
+
+    ChannelMap preMap() {
+        return preMap;
+    }
+
+    ChannelMap postMap() {
+        return postMap;
+    }
+
+    // 산술 연산이 테이블과 모든 값에서 같을 때만 벡터 구현을 쓴다 (아니면 테이블로 처리)
+    // 컴파일이 끝난 뒤 처음 물어볼 때 한 번만 확인한다
+    boolean isVectorizable() {
+        Boolean checked = vectorizable;
+        if (checked == null) {
+            checked = preMap.matches(preTable) && postMap.matches(postTable);
+            vectorizable = checked;
+        }
+        return checked;
+    }
+
+    // 알파는 그대로 두고 RGB 만 변환
+    int applyRgb(int rgb) {
+        int red = preTable[(rgb >> 16) & 0xFF];
+        int green = preTable[(rgb >> 8) & 0xFF];
+        int blue = preTable[rgb & 0xFF];
+
+        if (grayscale) {
+            int gray = postTable[ChannelLookupTables.luminance(red, green, blue)];
+            return (rgb & ALPHA_MASK) | (gray << 16) | (gray << 8) | gray;
+        }
+        return (rgb & ALPHA_MASK) | (red << 16) | (green << 8) | blue;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.imageprocessing.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// 응답으로 내보낼 처리 결과. 캐시에서 꺼낸 바이트이거나, 응답 스트림에 바로 인코딩할 이미지다
+// 필터 루프에서 결과 통계를 같이 셌으면 그 통계와, 자동 밝기면 정한 밝기 조절 값도 들고 있다
+public class ProcessedImage {
+    private final String cacheKey;
+    private final String contentType;
+    private final Body body;
+    private final Runnable release;
+    private final ImageStatistics statistics;
+    private final Integer autoBrightnessAdjustment;
+    private final boolean notModified;
+
+    // 아래 두 필드는 this 로 동기화
+    private boolean writing;
+    private boolean released;
+
+    ProcessedImage(String cacheKey, String contentType, Body body, Runnable release) {
+        this(cacheKey, contentType, body, release, null, null);
+    }
+
+    ProcessedImage(String cacheKey, String contentType, Body body, Runnable release, ImageStatistics statistics, Integer autoBrightnessAdjustment) {
+        this(cacheKey, contentType, body, release, statistics, autoBrightnessAdjustment, false);
+    }
+
+    private ProcessedImage(String cacheKey, String contentType, Body body, Runnable release, ImageStatistics statistics,
+                           Integer autoBrightnessAdjustment, boolean notModified) {
+        this.notModified = notModified;
+        this.cacheKey = cacheKey;
+        this.contentType = contentType;
+        this.body = body;
+        this.release = release;
+        this.statistics = statistics;
+        this.autoBrightnessAdjustment = autoBrightnessAdjustment;
+    }
+
+    // 클라이언트가 이미 가진 결과 (If-None-Match 가 ETag 와 같음). 본문이 없고 붙잡은 자원도 없다
+    static ProcessedImage notModified(String cacheKey, String contentType, ImageStatistics statistics, Integer autoBrightnessAdjustment) {
+        return new ProcessedImage(cacheKey, contentType, output -> {
+            throw new IllegalStateException("변경되지 않은 결과에는 본문이 없습니다.");
+        }, () -> {}, statistics, autoBrightnessAdjustment, true);
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    // 원본과 필터 프로그램의 해시라서 같은 요청이면 항상 같은 값
+    public String getETag() {
+        return "\"" + cacheKey + "\"";
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    // 통계를 모으지 않았으면 null
+    public ImageStatistics getStatistics() {
+        return statistics;
+    }
+
+    // 자동 밝기가 아니면 null
+    public Integer getAutoBrightnessAdjustment() {
+        return autoBrightnessAdjustment;
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        synchronized (this) {
+            if (released) {
+                throw new IllegalStateException("이미 정리한 처리 결과입니다.");
+            }
+            writing = true;
+        }
+        try {
+            body.writeTo(output);
+        } finally {
+            synchronized (this) {
+                writing = false;
+            }
+            release();
+        }
+    }
+
+    // 본문을 보내지 않을 때(304, 본문을 쓰기 전에 요청이 끝난 경우) 붙잡고 있던 메모리 예약과 임시 파일을 반납
+    // 여러 번 불러도 한 번만 반납하고, 본문을 쓰는 중이면 쓰기가 끝날 때 writeTo 가 반납한다
+    public void discard() {
+        release();
+    }
+
+    private void release() {
+        synchronized (this) {
+            if (released || writing) {
+                return;
+            }
+            released = true;
+        }
+        release.run();
+    }
+
+    @FunctionalInterface
+    interface Body {
+        void writeTo(OutputStream output) throws IOException;
+    }
+}
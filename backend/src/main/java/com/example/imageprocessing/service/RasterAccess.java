@@ -0,0 +1,54 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+
+// 이미지를 int[] 픽셀 배열(0xAARRGGBB)로 바로 읽고 쓰기 위한 헬퍼
+//
+// 디코딩 결과는 JPEG 이면 TYPE_3BYTE_BGR, 흑백이면 TYPE_BYTE_GRAY, 팔레트 PNG 면 TYPE_BYTE_INDEXED 처럼 제각각이라
+// 한 번만 TYPE_INT_RGB(알파 없음) / TYPE_INT_ARGB(알파 있음)로 맞춘 뒤 DataBufferInt 배열을 직접 다룬다.
+public class RasterAccess {
+    private RasterAccess() {}
+
+    // 이미 int 배열로 바로 접근할 수 있으면 그대로, 아니면 한 번 복사해서 반환
+    public static BufferedImage toPacked(BufferedImage image) {
+        if (isPacked(image)) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage packedImage = new BufferedImage(width, height, type);
+
+        // getRGB 는 한 줄씩 배열에 바로 받아서 ColorModel 변환은 이 한 번만 거친다
+        int[] pixels = pixels(packedImage);
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, pixels, y * width, width);
+        }
+        return packedImage;
+    }
+
+    // 같은 크기와 형식의 빈 이미지
+    public static BufferedImage createCompatible(BufferedImage packedImage) {
+        return new BufferedImage(packedImage.getWidth(), packedImage.getHeight(), packedImage.getType());
+    }
+
+    public static int[] pixels(BufferedImage packedImage) {
+        return ((DataBufferInt) packedImage.getRaster().getDataBuffer()).getData();
+    }
+
+    public static boolean isPacked(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB) {
+            return false;
+        }
+
+        // getSubimage 로 만든 이미지는 부모 배열을 공유해서 배열 인덱스가 (x, y)와 맞지 않는다
+        WritableRaster raster = image.getRaster();
+        return raster.getParent() == null
+                && raster.getDataBuffer().getOffset() == 0
+                && raster.getDataBuffer().getSize() == image.getWidth() * image.getHeight();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.imageprocessing.service;
+
+// PointKernel 의 기본 구현. 픽셀마다 룩업 테이블을 읽는다
+final class ScalarPointKernel implements PointKernel {
+
+    @Override
+    public void apply(PointOperation operation, int[] source, int[] target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            target[i] = operation.applyRgb(source[i]);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.imageprocessing.service;
+
+// SeparableConvolver 의 기본 구현. 픽셀 하나씩 커널 가중합을 구한다
+// 벡터 구현도 가장자리와 레인 수로 나누어떨어지지 않는 끝부분은 여기 있는 함수로 처리해서 결과를 맞춘다
+final class ScalarSeparableConvolver implements SeparableConvolver {
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    @Override
+    public void horizontal(int[] source, int[] target, int width, int startRow, int endRow, SeparableKernel kernel) {
+        int[] weights = kernel.rawWeights();
+        for (int y = startRow; y < endRow; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                target[row + x] = horizontalAt(source, row, width, x, weights);
+            }
+        }
+    }
+
+    @Override
+    public void vertical(int[] source, int[] target, int width, int height, int startRow, int endRow, SeparableKernel kernel) {
+        int[] weights = kernel.rawWeights();
+        int[] rowOffsets = new int[weights.length];
+        for (int y = startRow; y < endRow; y++) {
+            tapRows(rowOffsets, y, width, height);
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                target[row + x] = verticalAt(source, rowOffsets, row, x, weights);
+            }
+        }
+    }
+
+    // 가로 패스의 (x, 현재 줄) 결과. 반경 안쪽이면 경계 검사 없이, 가장자리 근처만 좌표를 clamp
+    static int horizontalAt(int[] source, int row, int width, int x, int[] weights) {
+        int radius = weights.length / 2;
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+
+        if (x >= radius && x < width - radius) {
+            int first = row + x - radius;
+            for (int k = 0; k < weights.length; k++) {
+                int pixel = source[first + k];
+                int weight = weights[k];
+                red += ((pixel >> 16) & 0xFF) * weight;
+                green += ((pixel >> 8) & 0xFF) * weight;
+                blue += (pixel & 0xFF) * weight;
+            }
+        } else {
+            for (int k = 0; k < weights.length; k++) {
+                int pixel = source[row + Math.min(width - 1, Math.max(0, x - radius + k))];
+                int weight = weights[k];
+                red += ((pixel >> 16) & 0xFF) * weight;
+                green += ((pixel >> 8) & 0xFF) * weight;
+                blue += (pixel & 0xFF) * weight;
+            }
+        }
+        return pack(source[row + x], red, green, blue);
+    }
+
+    // 세로 패스의 (x, 현재 줄) 결과. rowOffsets 는 tapRows 로 미리 clamp 해 둔 줄 시작 위치
+    static int verticalAt(int[] source, int[] rowOffsets, int row, int x, int[] weights) {
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        for (int k = 0; k < weights.length; k++) {
+            int pixel = source[rowOffsets[k] + x];
+            int weight = weights[k];
+            red += ((pixel >> 16) & 0xFF) * weight;
+            green += ((pixel >> 8) & 0xFF) * weight;
+            blue += (pixel & 0xFF) * weight;
+        }
+        return pack(source[row + x], red, green, blue);
+    }
+
+    // y 줄의 세로 패스가 읽을 줄들의 시작 위치. 위아래 가장자리 밖은 첫 줄/마지막 줄로
+    static void tapRows(int[] rowOffsets, int y, int width, int height) {
+        int radius = rowOffsets.length / 2;
+        for (int k = 0; k < rowOffsets.length; k++) {
+            rowOffsets[k] = Math.min(height - 1, Math.max(0, y - radius + k)) * width;
+        }
+    }
+
+    // 가중치 합이 1 << SHIFT 이므로 반올림해서 SHIFT 만큼 내리면 0~255
+    private static int pack(int center, int red, int green, int blue) {
+        return (center & ALPHA_MASK)
+                | ((red + SeparableKernel.HALF) >> SeparableKernel.SHIFT) << 16
+                | ((green + SeparableKernel.HALF) >> SeparableKernel.SHIFT) << 8
+                | (blue + SeparableKernel.HALF) >> SeparableKernel.SHIFT;
+    }
+}
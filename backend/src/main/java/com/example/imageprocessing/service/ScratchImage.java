@@ -0,0 +1,149 @@
+package com.example.imageprocessing.service;
+
+import javax.imageio.ImageTypeSpecifier;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 픽셀을 임시 파일에 메모리 매핑해 두는 이미지 (MappedDataBuffer). 디코더의 결과 이미지로 넘기거나 인코더에 그대로 넘길 수 있다
+// packed 면 픽셀 하나가 0xAARRGGBB int 하나라서 줄 묶음을 배열로 바로 읽고 쓰고, 아니면 디코더가 만드는 형식 그대로 둔다.
+class ScratchImage implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedDataBuffer buffer;
+    private final BufferedImage image;
+    private final boolean packed;
+
+    private ScratchImage(Path file, FileChannel channel, MappedDataBuffer buffer, BufferedImage image, boolean packed) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.image = image;
+        this.packed = packed;
+    }
+
+    // TYPE_INT_ARGB / TYPE_INT_RGB 와 같은 배치
+    static ScratchImage packed(Path directory, int width, int height, boolean alpha) throws IOException {
+        ColorModel colorModel = alpha ? ColorModel.getRGBdefault() : new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+        return create(directory, colorModel, colorModel.createCompatibleSampleModel(width, height), (long) width * height, true);
+    }
+
+    // 디코더에 결과 이미지로 넘길 빈 이미지. 채널이 3개 이상이면 (RGB, RGBA) packed 로 받고
+    // 흑백, 팔레트처럼 채널이 하나뿐인 형식은 packed 로 펼치면 4배가 되므로 디코더가 만드는 형식 그대로 받는다
+    static ScratchImage forDecoding(Path directory, ImageTypeSpecifier rawType, int width, int height) throws IOException {
+        ColorModel colorModel = rawType.getColorModel();
+        if (rawType.getSampleModel().getNumBands() >= 3) {
+            return packed(directory, width, height, colorModel.hasAlpha());
+        }
+        SampleModel sampleModel = rawType.getSampleModel(width, height);
+        return create(directory, colorModel, sampleModel, elementCount(sampleModel), false);
+    }
+
+    int getWidth() {
+        return image.getWidth();
+    }
+
+    int getHeight() {
+        return image.getHeight();
+    }
+
+    BufferedImage getImage() {
+        return image;
+    }
+
+    boolean isPacked() {
+        return packed;
+    }
+
+    boolean hasAlpha() {
+        return image.getColorModel().hasAlpha();
+    }
+
+    // [startRow, startRow + rows) 줄을 0xAARRGGBB 로 target 앞부분에 채운다
+    void readRgb(int startRow, int rows, int[] target) {
+        int width = image.getWidth();
+        if (packed) {
+            buffer.getInts(startRow * width, target, rows * width);
+        } else {
+            image.getRGB(0, startRow, width, rows, target, 0, width);
+        }
+    }
+
+    // packed 전용. source 앞부분을 [startRow, startRow + rows) 줄에 덮어쓴다
+    void writeRgb(int startRow, int rows, int[] source) {
+        if (!packed) {
+            throw new IllegalStateException("packed 이미지에만 바로 쓸 수 있습니다.");
+        }
+        int width = image.getWidth();
+        buffer.putInts(startRow * width, source, rows * width);
+    }
+
+    // 매핑은 버퍼가 GC 될 때 풀리지만, 파일은 지워 두면 매핑이 풀리는 대로 디스크에서 사라진다
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static ScratchImage create(Path directory, ColorModel colorModel, SampleModel sampleModel, long elements, boolean packed) throws IOException {
+        // DataBuffer 의 인덱스가 int 라서 요소 수가 int 범위를 넘으면 담을 수 없다
+        if (elements > Integer.MAX_VALUE || !MappedDataBuffer.supports(sampleModel.getDataType())) {
+            throw new IllegalArgumentException("서버에서 처리할 수 있는 이미지 크기를 넘었습니다.");
+        }
+
+        Path file = Files.createTempFile(directory, "scratch-", ".raw");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedDataBuffer buffer = new MappedDataBuffer(channel, sampleModel.getDataType(), (int) elements);
+            WritableRaster raster = Raster.createWritableRaster(sampleModel, buffer, null);
+            BufferedImage image = new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+            return new ScratchImage(file, channel, buffer, image, packed);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    // 샘플 모델이 마지막 픽셀까지 쓰는 배열 길이 (SampleModel.createDataBuffer 는 그 길이의 배열을 바로 할당하므로 쓰지 않는다)
+    private static long elementCount(SampleModel sampleModel) {
+        long width = sampleModel.getWidth();
+        long height = sampleModel.getHeight();
+        if (sampleModel instanceof ComponentSampleModel component) {
+            int maxOffset = 0;
+            for (int bank : component.getBankIndices()) {
+                if (bank != 0) {
+                    throw new IllegalArgumentException("채널을 따로 저장하는 형식은 디스크에 펼쳐 둘 수 없습니다.");
+                }
+            }
+            for (int offset : component.getBandOffsets()) {
+                maxOffset = Math.max(maxOffset, offset);
+            }
+            return component.getScanlineStride() * (height - 1) + component.getPixelStride() * (width - 1) + maxOffset + 1;
+        }
+        if (sampleModel instanceof SinglePixelPackedSampleModel singlePixel) {
+            return singlePixel.getScanlineStride() * (height - 1) + width;
+        }
+        if (sampleModel instanceof MultiPixelPackedSampleModel multiPixel) {
+            return multiPixel.getScanlineStride() * height + multiPixel.getDataBitOffset() / 8 + 1;
+        }
+        throw new IllegalArgumentException("디스크에 펼쳐 둘 수 없는 픽셀 형식입니다.");
+    }
+}
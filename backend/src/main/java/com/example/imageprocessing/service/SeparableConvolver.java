@@ -0,0 +1,19 @@
+package com.example.imageprocessing.service;
+
+// 분리 가능한 커널의 가로/세로 1차원 패스 (packed ARGB 배열 → packed ARGB 배열)
+//
+// [startRow, endRow) 줄만 채우므로 서로 다른 줄 묶음은 동시에 호출해도 된다.
+// 이미지 밖 좌표는 가장 가까운 가장자리 픽셀로 본다 (clamp). 알파는 가운데 픽셀 값을 그대로 둔다.
+interface SeparableConvolver {
+    SeparableConvolver SCALAR = new ScalarSeparableConvolver();
+    SeparableConvolver VECTOR = VectorSupport.load(
+            "com.example.imageprocessing.service.VectorSeparableConvolver", SeparableConvolver.class, SCALAR);
+
+    static SeparableConvolver of(ParallelRasterExecutor executor) {
+        return executor.isVectorized() ? VECTOR : SCALAR;
+    }
+
+    void horizontal(int[] source, int[] target, int width, int startRow, int endRow, SeparableKernel kernel);
+
+    void vertical(int[] source, int[] target, int width, int height, int startRow, int endRow, SeparableKernel kernel);
+}
@@ -0,0 +1,57 @@
+package com.example.imageprocessing.service;
+
+import java.util.Arrays;
+
+// 가로/세로 1차원 패스로 나눠 적용할 수 있는 대칭 커널
+//
+// 가중치는 합이 1 << SHIFT 인 정수라서 스칼라 연산과 벡터 연산이 같은 순서로 더하지 않아도 결과가 비트 단위로 같다.
+// 음수 가중치는 허용하지 않으므로 채널 값은 항상 0~255 안에 머문다.
+public final class SeparableKernel {
+    static final int SHIFT = 14;
+    static final int ONE = 1 << SHIFT;
+    static final int HALF = 1 << (SHIFT - 1);
+
+    private final int[] weights;
+
+    private SeparableKernel(int[] weights) {
+        this.weights = weights;
+    }
+
+    // 표준편차 sigma 인 가우시안. 반경은 3 sigma 까지 (그 밖의 가중치는 반올림하면 0)
+    public static SeparableKernel gaussian(double sigma) {
+        if (!(sigma > 0)) {
+            throw new IllegalArgumentException("sigma 는 0보다 커야 합니다.");
+        }
+
+        int radius = (int) Math.ceil(sigma * 3);
+        double[] exact = new double[radius * 2 + 1];
+        double sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            exact[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+            sum += exact[i + radius];
+        }
+
+        int[] weights = new int[exact.length];
+        int total = 0;
+        for (int i = 0; i < exact.length; i++) {
+            weights[i] = (int) Math.round(exact[i] / sum * ONE);
+            total += weights[i];
+        }
+        // 반올림 오차는 가운데 가중치에 몰아서 합을 정확히 맞춘다 (밝기가 변하지 않도록)
+        weights[radius] += ONE - total;
+        return new SeparableKernel(weights);
+    }
+
+    public int radius() {
+        return weights.length / 2;
+    }
+
+    public int[] weights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
+    // 복사 없이 내부 배열을 읽는 용도 (패스 구현 전용)
+    int[] rawWeights() {
+        return weights;
+    }
+}
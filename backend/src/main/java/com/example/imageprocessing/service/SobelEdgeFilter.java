@@ -0,0 +1,59 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ChannelLookupTables;
+
+import java.awt.image.BufferedImage;
+
+// 소벨 윤곽선 검출. 흑백 밝기에 3x3 가로/세로 기울기 커널을 적용하고 기울기 크기를 흑백 픽셀로 출력
+// 밝기는 흑백 필터와 같은 가중치로 한 번만 구해 두고 이웃 9개가 같이 읽는다
+class SobelEdgeFilter extends ConvolutionFilter {
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    @Override
+    public int radius() {
+        return 1;
+    }
+
+    @Override
+    public int rowPasses() {
+        return 2;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage packedImage, ParallelRasterExecutor executor) {
+        int width = packedImage.getWidth();
+        int height = packedImage.getHeight();
+        int[] source = RasterAccess.pixels(packedImage);
+        int[] luminance = new int[source.length];
+
+        BufferedImage edgeImage = RasterAccess.createCompatible(packedImage);
+        int[] target = RasterAccess.pixels(edgeImage);
+
+        executor.forEachRowBand(width, height, (startRow, endRow) -> {
+            for (int i = startRow * width; i < endRow * width; i++) {
+                int pixel = source[i];
+                luminance[i] = ChannelLookupTables.luminance((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+            }
+        });
+        executor.forEachRowBand(width, height, (startRow, endRow) -> {
+            for (int y = startRow; y < endRow; y++) {
+                int above = Math.max(0, y - 1) * width;
+                int row = y * width;
+                int below = Math.min(height - 1, y + 1) * width;
+                for (int x = 0; x < width; x++) {
+                    int left = Math.max(0, x - 1);
+                    int right = Math.min(width - 1, x + 1);
+
+                    int gradientX = luminance[above + right] + 2 * luminance[row + right] + luminance[below + right]
+                            - luminance[above + left] - 2 * luminance[row + left] - luminance[below + left];
+                    int gradientY = luminance[below + left] + 2 * luminance[below + x] + luminance[below + right]
+                            - luminance[above + left] - 2 * luminance[above + x] - luminance[above + right];
+                    int magnitude = Math.min(255, (int) Math.round(Math.sqrt(gradientX * gradientX + gradientY * gradientY)));
+
+                    target[row + x] = (source[row + x] & ALPHA_MASK) | magnitude << 16 | magnitude << 8 | magnitude;
+                }
+            }
+        });
+        return edgeImage;
+    }
+}
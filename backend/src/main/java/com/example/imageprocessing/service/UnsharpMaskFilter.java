@@ -0,0 +1,54 @@
+package com.example.imageprocessing.service;
+
+import java.awt.image.BufferedImage;
+
+// 언샤프 마스크. 원본에서 블러를 뺀 차이(윤곽)만큼 원본에 더한다: 원본 + (원본 - 블러)
+// 블러는 가우시안과 같은 분리 패스를 쓰고, 결과 배열에 블러를 받은 뒤 그 자리에서 합친다
+class UnsharpMaskFilter extends ConvolutionFilter {
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    private final SeparableKernel kernel;
+
+    UnsharpMaskFilter(SeparableKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public int radius() {
+        return kernel.radius();
+    }
+
+    @Override
+    public int rowPasses() {
+        return 3;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage packedImage, ParallelRasterExecutor executor) {
+        int width = packedImage.getWidth();
+        int height = packedImage.getHeight();
+        int[] source = RasterAccess.pixels(packedImage);
+
+        BufferedImage sharpenedImage = RasterAccess.createCompatible(packedImage);
+        int[] target = RasterAccess.pixels(sharpenedImage);
+        GaussianBlurFilter.blur(source, target, width, height, kernel, executor);
+
+        executor.forEachRowBand(width, height, (startRow, endRow) -> {
+            for (int i = startRow * width; i < endRow * width; i++) {
+                target[i] = sharpen(source[i], target[i]);
+            }
+        });
+        return sharpenedImage;
+    }
+
+    private static int sharpen(int original, int blurred) {
+        return (original & ALPHA_MASK)
+                | sharpenChannel((original >> 16) & 0xFF, (blurred >> 16) & 0xFF) << 16
+                | sharpenChannel((original >> 8) & 0xFF, (blurred >> 8) & 0xFF) << 8
+                | sharpenChannel(original & 0xFF, blurred & 0xFF);
+    }
+
+    private static int sharpenChannel(int original, int blurred) {
+        return Math.max(0, Math.min(255, original * 2 - blurred));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.imageprocessing.service;
+
+// Vector API(jdk.incubator.vector) 를 쓸 수 있는지 확인하고 벡터 구현을 읽어 들인다
+//
+// 인큐베이터 모듈이라 --add-modules jdk.incubator.vector 로 실행했을 때만 있다.
+// 모듈이 없는데 벡터 구현 클래스를 읽으면 링크 단계에서 실패하므로, 이름으로만 참조해 두고 모듈이 있을 때만 로딩한다.
+final class VectorSupport {
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private VectorSupport() {}
+
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    // 모듈이 없거나 로딩에 실패하면 fallback(스칼라 구현)을 그대로 쓴다
+    static <T> T load(String className, Class<T> type, T fallback) {
+        if (!AVAILABLE) {
+            return fallback;
+        }
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return fallback;
+        }
+    }
+}
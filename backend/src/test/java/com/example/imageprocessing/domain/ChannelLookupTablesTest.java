@@ -0,0 +1,47 @@
+package com.example.imageprocessing.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelLookupTablesTest {
+
+    @Test
+    void 밝기_테이블은_Pixel_밝기_조절과_같다() {
+        for (int adjustment = -300; adjustment <= 300; adjustment++) {
+            int[] table = ChannelLookupTables.brightness(adjustment);
+            for (int value = 0; value <= 255; value++) {
+                Color expected = new Pixel(value, value, value).adjustBrightness(adjustment).toAwtColor();
+
+                assertThat(table[value]).as("adjustment %d, value %d", adjustment, value).isEqualTo(expected.getRed());
+            }
+        }
+    }
+
+    @Test
+    void 반전_테이블은_Pixel_반전과_같다() {
+        int[] table = ChannelLookupTables.invert();
+        for (int value = 0; value <= 255; value++) {
+            assertThat(table[value]).isEqualTo(255 - value);
+        }
+    }
+
+    @Test
+    void 가중치_테이블_합은_모든_색에서_Pixel_흑백_변환과_같다() {
+        for (int red = 0; red <= 255; red++) {
+            for (int green = 0; green <= 255; green++) {
+                for (int blue = 0; blue <= 255; blue++) {
+                    int expected = new Pixel(red, green, blue).toGrayScale().toAwtColor().getRed();
+                    int actual = ChannelLookupTables.luminance(red, green, blue);
+
+                    // 1,600만 번 assertThat 을 만들지 않도록 다를 때만 검증
+                    if (actual != expected) {
+                        assertThat(actual).as("(%d, %d, %d)", red, green, blue).isEqualTo(expected);
+                    }
+                }
+            }
+        }
+    }
+}
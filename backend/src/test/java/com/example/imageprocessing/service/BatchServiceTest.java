@@ -0,0 +1,111 @@
+package com.example.imageprocessing.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchServiceTest {
+
+    @Test
+    void 실패한_항목은_결과_목록에만_남기고_나머지는_처리한다() throws IOException {
+        Path directory = Files.createTempDirectory("batch-test");
+        BatchService batchService = new BatchService(TestImageServiceBuilder.defaults(), 2, 100, 1024 * 1024, directory.toString());
+        MockMultipartFile broken = new MockMultipartFile("files", "broken.png", "image/png", new byte[]{1, 2, 3});
+
+        Map<String, byte[]> entries = run(batchService,
+                List.of(ImageDecoderTest.pngFile(4, 4), broken, ImageDecoderTest.pngFile(8, 8)), null);
+
+        assertThat(entries.keySet()).containsExactlyInAnyOrder("image.png", "image (1).png", BatchService.MANIFEST_NAME);
+        String manifest = new String(entries.get(BatchService.MANIFEST_NAME), StandardCharsets.UTF_8);
+        assertThat(manifest).contains("broken.png").contains("error");
+        assertThat(directory).isEmptyDirectory();
+        batchService.shutdown();
+    }
+
+    @Test
+    void ZIP_안의_이미지를_처리하고_폴더와_숨김_파일은_건너뛴다() throws IOException {
+        Path directory = Files.createTempDirectory("batch-test");
+        BatchService batchService = new BatchService(TestImageServiceBuilder.defaults(), 2, 100, 1024 * 1024, directory.toString());
+        ByteArrayOutputStream archiveBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream archive = new ZipOutputStream(archiveBytes)) {
+            archive.putNextEntry(new ZipEntry("photos/"));
+            archive.putNextEntry(new ZipEntry("photos/a.png"));
+            archive.write(ImageDecoderTest.pngFile(4, 4).getBytes());
+            archive.putNextEntry(new ZipEntry("__MACOSX/photos/._a.png"));
+            archive.write(new byte[]{0});
+            archive.putNextEntry(new ZipEntry("photos/b.png"));
+            archive.write(ImageDecoderTest.pngFile(6, 6).getBytes());
+        }
+
+        Map<String, byte[]> entries = run(batchService, null,
+                new MockMultipartFile("archive", "photos.zip", "application/zip", archiveBytes.toByteArray()));
+
+        assertThat(entries.keySet()).containsExactlyInAnyOrder("a.png", "b.png", BatchService.MANIFEST_NAME);
+        assertThat(directory).isEmptyDirectory();
+        batchService.shutdown();
+    }
+
+    @Test
+    void ZIP_항목이_최대_크기를_넘으면_그_항목만_실패하고_임시_파일을_남기지_않는다() throws IOException {
+        Path directory = Files.createTempDirectory("batch-test");
+        MultipartFile large = ImageDecoderTest.pngFile(64, 64);
+        MultipartFile small = ImageDecoderTest.pngFile(4, 4);
+        BatchService batchService = new BatchService(TestImageServiceBuilder.defaults(), 1, 100, small.getSize(), directory.toString());
+        ByteArrayOutputStream archiveBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream archive = new ZipOutputStream(archiveBytes)) {
+            archive.putNextEntry(new ZipEntry("large.png"));
+            archive.write(large.getBytes());
+            archive.putNextEntry(new ZipEntry("small.png"));
+            archive.write(small.getBytes());
+        }
+
+        Map<String, byte[]> entries = run(batchService, null,
+                new MockMultipartFile("archive", "photos.zip", "application/zip", archiveBytes.toByteArray()));
+
+        assertThat(entries.keySet()).containsExactlyInAnyOrder("small.png", BatchService.MANIFEST_NAME);
+        String manifest = new String(entries.get(BatchService.MANIFEST_NAME), StandardCharsets.UTF_8);
+        assertThat(manifest).contains("large.png").contains("error");
+        assertThat(directory).isEmptyDirectory();
+        batchService.shutdown();
+    }
+
+    @Test
+    void 처리할_파일이_없으면_거절한다() throws IOException {
+        BatchService batchService = new BatchService(TestImageServiceBuilder.defaults(), 1, 100, 1024,
+                Files.createTempDirectory("batch-test").toString());
+
+        assertThatThrownBy(() -> batchService.validate(List.of(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        batchService.shutdown();
+    }
+
+    private static Map<String, byte[]> run(BatchService batchService, List<MultipartFile> files, MultipartFile archive) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchService.process(files, archive, FilterProgram.of(List.of(FilterType.GrayScale), 10), output);
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
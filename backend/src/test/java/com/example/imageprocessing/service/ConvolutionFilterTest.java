@@ -0,0 +1,178 @@
+package com.example.imageprocessing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConvolutionFilterTest {
+    private static final List<FilterType> CONVOLUTIONS =
+            List.of(FilterType.Blur, FilterType.BoxBlur, FilterType.Sharpen, FilterType.EdgeDetect);
+
+    @Test
+    void 벡터_구현과_스칼라_구현의_결과가_같다() {
+        ParallelRasterExecutor scalar = new ParallelRasterExecutor(1, Long.MAX_VALUE, false);
+        ParallelRasterExecutor vectorized = new ParallelRasterExecutor(1, Long.MAX_VALUE, true);
+        assertThat(vectorized.isVectorized()).isTrue();
+
+        // 반경보다 좁은 이미지, 레인 수로 나누어떨어지지 않는 폭까지
+        int[][] sizes = {{1, 1}, {3, 5}, {13, 2}, {37, 23}, {301, 7}};
+        for (int[] size : sizes) {
+            BufferedImage image = FilterPipelineTest.randomImage(size[0], size[1], size[0] * 31L + size[1]);
+            for (FilterType type : CONVOLUTIONS) {
+                ConvolutionFilter filter = ConvolutionFilter.of(type);
+
+                assertThat(RasterAccess.pixels(filter.apply(image, vectorized)))
+                        .as("%s %dx%d", type, size[0], size[1])
+                        .isEqualTo(RasterAccess.pixels(filter.apply(image, scalar)));
+            }
+        }
+    }
+
+    @Test
+    void 분리_패스_블러는_2차원_직접_계산과_반올림_한_번_이내로_같다() {
+        BufferedImage image = FilterPipelineTest.randomImage(41, 29, 5L);
+        SeparableKernel kernel = SeparableKernel.gaussian(ConvolutionFilter.BLUR_SIGMA);
+
+        BufferedImage actual = ConvolutionFilter.of(FilterType.Blur).apply(image, ParallelRasterExecutor.sequential());
+
+        int[] weights = kernel.weights();
+        int radius = kernel.radius();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                double[] expected = new double[3];
+                for (int j = 0; j < weights.length; j++) {
+                    for (int i = 0; i < weights.length; i++) {
+                        int rgb = image.getRGB(clamp(x - radius + i, image.getWidth()), clamp(y - radius + j, image.getHeight()));
+                        double weight = (double) weights[i] * weights[j] / SeparableKernel.ONE / SeparableKernel.ONE;
+                        expected[0] += ((rgb >> 16) & 0xFF) * weight;
+                        expected[1] += ((rgb >> 8) & 0xFF) * weight;
+                        expected[2] += (rgb & 0xFF) * weight;
+                    }
+                }
+
+                int rgb = actual.getRGB(x, y);
+                assertThat(Math.abs(((rgb >> 16) & 0xFF) - expected[0])).as("(%d, %d)", x, y).isLessThanOrEqualTo(1.0);
+                assertThat(Math.abs(((rgb >> 8) & 0xFF) - expected[1])).as("(%d, %d)", x, y).isLessThanOrEqualTo(1.0);
+                assertThat(Math.abs((rgb & 0xFF) - expected[2])).as("(%d, %d)", x, y).isLessThanOrEqualTo(1.0);
+            }
+        }
+    }
+
+    @Test
+    void 단색_이미지는_가장자리까지_그대로이고_윤곽선은_없다() {
+        BufferedImage image = new BufferedImage(9, 6, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 9; x++) {
+                image.setRGB(x, y, 0x336699);
+            }
+        }
+
+        for (FilterType type : List.of(FilterType.Blur, FilterType.BoxBlur, FilterType.Sharpen)) {
+            FilterPipelineTest.assertSameRgb(ConvolutionFilter.of(type).apply(image, ParallelRasterExecutor.sequential()), image);
+        }
+        BufferedImage edges = ConvolutionFilter.of(FilterType.EdgeDetect).apply(image, ParallelRasterExecutor.sequential());
+        for (int pixel : RasterAccess.pixels(edges)) {
+            assertThat(pixel & 0xFFFFFF).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void 박스_블러는_가장자리를_늘린_가로_평균의_세로_평균이다() {
+        BufferedImage image = FilterPipelineTest.randomImage(17, 11, 9L);
+        int radius = ConvolutionFilter.BOX_BLUR_RADIUS;
+        int taps = radius * 2 + 1;
+
+        BufferedImage actual = ConvolutionFilter.of(FilterType.BoxBlur).apply(image, ParallelRasterExecutor.sequential());
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[][][] horizontal = new int[height][width][3];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < 3; c++) {
+                    int sum = 0;
+                    for (int i = -radius; i <= radius; i++) {
+                        sum += (image.getRGB(clamp(x + i, width), y) >> (16 - c * 8)) & 0xFF;
+                    }
+                    horizontal[y][x][c] = (sum + taps / 2) / taps;
+                }
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int expected = 0;
+                for (int c = 0; c < 3; c++) {
+                    int sum = 0;
+                    for (int i = -radius; i <= radius; i++) {
+                        sum += horizontal[clamp(y + i, height)][x][c];
+                    }
+                    expected |= ((sum + taps / 2) / taps) << (16 - c * 8);
+                }
+                assertThat(actual.getRGB(x, y) & 0xFFFFFF).as("(%d, %d)", x, y).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void 윤곽선_검출은_밝기가_바뀌는_곳에만_값이_생긴다() {
+        BufferedImage image = new BufferedImage(8, 4, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 4; x < 8; x++) {
+                image.setRGB(x, y, 0xFFFFFF);
+            }
+        }
+
+        BufferedImage edges = ConvolutionFilter.of(FilterType.EdgeDetect).apply(image, ParallelRasterExecutor.sequential());
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 8; x++) {
+                int expected = (x == 3 || x == 4) ? 0xFFFFFF : 0;
+                assertThat(edges.getRGB(x, y) & 0xFFFFFF).as("(%d, %d)", x, y).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void 알파_채널은_그대로_유지된다() {
+        BufferedImage image = new BufferedImage(5, 5, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < 5; x++) {
+                image.setRGB(x, y, (x * 50) << 24 | 0x808080);
+            }
+        }
+
+        for (FilterType type : CONVOLUTIONS) {
+            BufferedImage result = ConvolutionFilter.of(type).apply(image, ParallelRasterExecutor.sequential());
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < 5; x++) {
+                    assertThat(result.getRGB(x, y) >>> 24).as("%s (%d, %d)", type, x, y).isEqualTo(x * 50);
+                }
+            }
+        }
+    }
+
+    @Test
+    void 병렬로_처리해도_순차_처리와_결과가_같다() {
+        BufferedImage image = FilterPipelineTest.randomImage(203, 157, 13L);
+        ParallelRasterExecutor executor = new ParallelRasterExecutor(4, 1, true);
+
+        try {
+            for (FilterType type : CONVOLUTIONS) {
+                ConvolutionFilter filter = ConvolutionFilter.of(type);
+
+                assertThat(RasterAccess.pixels(filter.apply(image, executor)))
+                        .as("%s", type)
+                        .isEqualTo(RasterAccess.pixels(filter.apply(image, ParallelRasterExecutor.sequential())));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.min(size - 1, Math.max(0, value));
+    }
+}
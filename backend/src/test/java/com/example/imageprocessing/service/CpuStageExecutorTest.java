@@ -0,0 +1,54 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CpuStageExecutorTest {
+
+    @Test
+    void 작업의_예외를_그대로_다시_던진다() {
+        CpuStageExecutor executor = new CpuStageExecutor(new SimpleMeterRegistry(), 1, 0, 0);
+
+        assertThatThrownBy(() -> executor.call(() -> {
+            throw new IllegalArgumentException("잘못된 요청");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> executor.call(() -> {
+            throw new IOException("읽기 실패");
+        })).isInstanceOf(IOException.class);
+        executor.shutdown();
+    }
+
+    @Test
+    void 실행_중인_작업과_대기열이_가득_차면_거절한다() throws Exception {
+        CpuStageExecutor executor = new CpuStageExecutor(new SimpleMeterRegistry(), 1, 0, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread busy = new Thread(() -> {
+            try {
+                executor.call(() -> {
+                    started.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                });
+            } catch (IOException ignored) {
+            }
+        });
+        busy.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> executor.call(() -> 1))
+                .isInstanceOf(ImageOverloadException.class);
+
+        release.countDown();
+        busy.join();
+        assertThat(executor.call(() -> 1)).isEqualTo(1);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EditSessionTest {
+
+    @Test
+    void 편집을_쌓으면_원본에_합쳐진_프로그램을_한_번_적용한_것과_같다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 64, 0);
+        BufferedImage original = FilterPipelineTest.randomImage(40, 30, 9L);
+        EditSession session = new EditSession("id", original, "png");
+
+        session.apply(new EditOperation(FilterType.Inversion, null, null, null, null, null), imageService, memoryBudget);
+        session.apply(new EditOperation(FilterType.Crop, null, 5, 5, 25, 20), imageService, memoryBudget);
+        session.apply(new EditOperation(FilterType.GrayScale, null, null, null, null, null), imageService, memoryBudget);
+        session.apply(new EditOperation(FilterType.Crop, null, 2, 3, 12, 13), imageService, memoryBudget);
+        session.apply(new EditOperation(FilterType.Brightness, 30, null, null, null, null), imageService, memoryBudget);
+
+        FilterProgram expectedProgram = new FilterProgram(
+                List.of(FilterType.Inversion, FilterType.GrayScale), 30, new CropRegion(7, 8, 17, 18));
+        FilterPipelineTest.assertSameRgb(session.getCurrent(), imageService.applyProgram(original, expectedProgram));
+    }
+
+    @Test
+    void 되돌리면_이전_결과로_돌아간다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 64, 0);
+        BufferedImage original = FilterPipelineTest.randomImage(20, 20, 4L);
+        EditSession session = new EditSession("id", original, "png");
+
+        session.apply(new EditOperation(FilterType.GrayScale, null, null, null, null, null), imageService, memoryBudget);
+        BufferedImage grayscale = session.getCurrent();
+        session.apply(new EditOperation(FilterType.Crop, null, 0, 0, 10, 10), imageService, memoryBudget);
+
+        assertThat(session.undo(imageService, memoryBudget)).isTrue();
+        FilterPipelineTest.assertSameRgb(session.getCurrent(), grayscale);
+
+        assertThat(session.undo(imageService, memoryBudget)).isTrue();
+        FilterPipelineTest.assertSameRgb(session.getCurrent(), original);
+
+        assertThat(session.undo(imageService, memoryBudget)).isFalse();
+    }
+
+    @Test
+    void 현재_이미지_밖을_크롭하면_거절한다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 64, 0);
+        EditSession session = new EditSession("id", FilterPipelineTest.randomImage(10, 10, 1L), "png");
+
+        assertThatThrownBy(() -> session.apply(new EditOperation(FilterType.Crop, null, 0, 0, 11, 5), imageService, memoryBudget))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 다시_적용할_메모리가_모자라면_세션을_바꾸지_않고_예약도_남기지_않는다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        // 400x400 결과 한 장(640KB)은 되지만 블러의 결과와 중간 버퍼(1.28MB)는 넘는 예산
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1, 0);
+        BufferedImage original = FilterPipelineTest.randomImage(400, 400, 5L);
+        EditSession session = new EditSession("id", original, "png");
+        session.apply(new EditOperation(FilterType.Inversion, null, null, null, null, null), imageService, memoryBudget);
+        BufferedImage inverted = session.getCurrent();
+        String eTagValue = session.getETagValue();
+
+        assertThatThrownBy(() -> session.apply(new EditOperation(FilterType.Blur, null, null, null, null, null), imageService, memoryBudget))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(session.getCurrent()).isSameAs(inverted);
+        assertThat(session.getETagValue()).isEqualTo(eTagValue);
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+        // 실패한 편집은 되돌리기 목록에 없다
+        assertThat(session.undo(imageService, memoryBudget)).isTrue();
+        FilterPipelineTest.assertSameRgb(session.getCurrent(), original);
+        assertThat(session.undo(imageService, memoryBudget)).isFalse();
+    }
+
+    @Test
+    void 보관한_세션은_닫거나_밀려날_때까지_원본과_현재_결과만큼_메모리_예산을_잡고_있다() {
+        MemoryBudget memoryBudget = new MemoryBudget(new SimpleMeterRegistry(), 1, 0);
+        // 10x10 세션(800 바이트) 두 개까지만 보관
+        EditSessionStore store = new EditSessionStore(new SimpleMeterRegistry(), memoryBudget, 60_000, 1600);
+        EditSession first = new EditSession("first", FilterPipelineTest.randomImage(10, 10, 1L), "png");
+        EditSession second = new EditSession("second", FilterPipelineTest.randomImage(10, 10, 2L), "png");
+        EditSession third = new EditSession("third", FilterPipelineTest.randomImage(10, 10, 3L), "png");
+
+        store.add(first);
+        assertThat(memoryBudget.getReservedBytes()).isEqualTo(1024L);
+
+        store.add(second);
+        store.add(third);
+        // 용량 때문에 하나가 밀려나면서 예약도 돌려준다
+        assertThat(memoryBudget.getReservedBytes()).isEqualTo(2048L);
+        assertThat(store.getTotalBytes()).isEqualTo(1600L);
+
+        // 이미 밀려난 세션을 닫거나 두 번 닫아도 예약을 더 돌려주지 않는다
+        store.remove("first");
+        store.remove("second");
+        store.remove("third");
+        store.remove("third");
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.imageprocessing.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiCallContext;
+import com.google.api.gax.rpc.UnaryCallable;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.TextAnnotation;
+import com.google.cloud.vision.v1.stub.ImageAnnotatorStub;
+import com.google.rpc.Status;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// 네트워크 없이 실제 ImageAnnotatorClient 를 쓰기 위한 가짜 stub
+// 이미지 내용을 UTF-8 글자로 읽어 그대로 인식 결과로 돌려주고, "error" 로 시작하면 이미지 단위 오류를 돌려준다
+class FakeImageAnnotator extends ImageAnnotatorStub {
+    final List<BatchAnnotateImagesRequest> requests = new CopyOnWriteArrayList<>();
+    // 열려 있는 동안 호출이 끝나지 않는다 (처리 중 중복 제거 확인용)
+    volatile CountDownLatch gate = new CountDownLatch(0);
+    volatile RuntimeException failure;
+
+    ImageAnnotatorClient client() {
+        return ImageAnnotatorClient.create(this);
+    }
+
+    int imageCount() {
+        return requests.stream().mapToInt(BatchAnnotateImagesRequest::getRequestsCount).sum();
+    }
+
+    @Override
+    public UnaryCallable<BatchAnnotateImagesRequest, BatchAnnotateImagesResponse> batchAnnotateImagesCallable() {
+        return new UnaryCallable<>() {
+            @Override
+            public ApiFuture<BatchAnnotateImagesResponse> futureCall(BatchAnnotateImagesRequest request, ApiCallContext context) {
+                requests.add(request);
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure != null) {
+                    return ApiFutures.immediateFailedFuture(failure);
+                }
+
+                BatchAnnotateImagesResponse.Builder response = BatchAnnotateImagesResponse.newBuilder();
+                for (AnnotateImageRequest image : request.getRequestsList()) {
+                    response.addResponses(annotate(image.getImage().getContent().toStringUtf8()));
+                }
+                return ApiFutures.immediateFuture(response.build());
+            }
+        };
+    }
+
+    private static AnnotateImageResponse annotate(String content) {
+        if (content.startsWith("error")) {
+            return AnnotateImageResponse.newBuilder()
+                    .setError(Status.newBuilder().setMessage(content).build())
+                    .build();
+        }
+        return AnnotateImageResponse.newBuilder()
+                .setFullTextAnnotation(TextAnnotation.newBuilder().setText(content).build())
+                .build();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return false;
+    }
+
+    @Override
+    public void shutdownNow() {
+    }
+
+    @Override
+    public boolean awaitTermination(long duration, TimeUnit unit) {
+        return true;
+    }
+}
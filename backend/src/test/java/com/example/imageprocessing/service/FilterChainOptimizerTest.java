@@ -0,0 +1,75 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterChainOptimizerTest {
+
+    @Test
+    void 반전_두_번과_중복_흑백은_제거된다() {
+        List<FilterType> history = List.of(
+                FilterType.Inversion, FilterType.Inversion,
+                FilterType.GrayScale, FilterType.GrayScale,
+                FilterType.Inversion);
+
+        assertThat(FilterChainOptimizer.optimize(history))
+                .containsExactly(FilterType.GrayScale, FilterType.Inversion);
+    }
+
+    @Test
+    void 흑백과_반전의_순서는_유지된다() {
+        assertThat(FilterChainOptimizer.optimize(List.of(FilterType.Inversion, FilterType.GrayScale)))
+                .containsExactly(FilterType.Inversion, FilterType.GrayScale);
+        assertThat(FilterChainOptimizer.optimize(List.of(FilterType.GrayScale, FilterType.Inversion)))
+                .containsExactly(FilterType.GrayScale, FilterType.Inversion);
+    }
+
+    @Test
+    void 주변_픽셀_필터는_그대로_두고_그_사이_구간만_따로_줄인다() {
+        List<FilterType> history = List.of(
+                FilterType.Inversion, FilterType.Inversion, FilterType.Blur, FilterType.Blur,
+                FilterType.GrayScale, FilterType.GrayScale, FilterType.Inversion, FilterType.Sharpen, FilterType.Inversion);
+
+        assertThat(FilterChainOptimizer.optimize(history))
+                .containsExactly(FilterType.Blur, FilterType.Blur, FilterType.GrayScale, FilterType.Inversion,
+                        FilterType.Sharpen, FilterType.Inversion);
+    }
+
+    @Test
+    void 흑백_픽셀은_다시_흑백_변환해도_값이_같다() {
+        for (int value = 0; value <= 255; value++) {
+            Color gray = new Pixel(value, value, value).toGrayScale().toAwtColor();
+
+            assertThat(gray.getRed()).as("value %d", value).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void 무작위_히스토리와_이미지에서_최적화_전후_결과가_같다() {
+        Random random = new Random(20251018L);
+        FilterType[] candidates = FilterType.values();
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<FilterType> history = new ArrayList<>();
+            int length = random.nextInt(13);
+            for (int i = 0; i < length; i++) {
+                history.add(candidates[random.nextInt(candidates.length)]);
+            }
+            int brightness = random.nextInt(511) - 255;
+            BufferedImage image = FilterPipelineTest.randomImage(1 + random.nextInt(16), 1 + random.nextInt(16), random.nextLong());
+
+            BufferedImage expected = FilterPipeline.compile(history, brightness).apply(image);
+            BufferedImage actual = FilterPipeline.compile(FilterChainOptimizer.optimize(history), brightness).apply(image);
+
+            FilterPipelineTest.assertSameRgb(actual, expected);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterPipelineTest {
+
+    @Test
+    void 여러_필터를_한_번에_적용해도_순차_적용과_결과가_같다() {
+        BufferedImage image = randomImage(37, 23, 42L);
+        List<FilterType> history = List.of(FilterType.Inversion, FilterType.GrayScale, FilterType.Inversion);
+
+        BufferedImage expected = image;
+        for (FilterType type : history) {
+            expected = applyEachPixel(expected, type == FilterType.GrayScale ? Pixel::toGrayScale : Pixel::toInvert);
+        }
+        expected = applyEachPixel(expected, pixel -> pixel.adjustBrightness(-40));
+
+        BufferedImage actual = FilterPipeline.compile(history, -40).apply(image);
+
+        assertSameRgb(actual, expected);
+    }
+
+    @Test
+    void 적용할_필터가_없으면_원본을_그대로_반환한다() {
+        BufferedImage image = randomImage(4, 4, 1L);
+
+        FilterPipeline pipeline = FilterPipeline.compile(List.of(FilterType.Brightness, FilterType.Crop), 0);
+
+        assertThat(pipeline.isIdentity()).isTrue();
+        assertThat(pipeline.apply(image)).isSameAs(image);
+    }
+
+    @Test
+    void 알파_채널은_그대로_유지된다() {
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0x80102030);
+        image.setRGB(1, 0, 0x00FFFFFF);
+
+        BufferedImage inverted = FilterPipeline.compile(List.of(FilterType.Inversion), 0).apply(image);
+
+        assertThat(inverted.getRGB(0, 0)).isEqualTo(0x80EFDFCF);
+        assertThat(inverted.getRGB(1, 0)).isEqualTo(0x00000000);
+    }
+
+    @Test
+    void 디코딩_형식과_상관없이_같은_결과를_낸다() {
+        BufferedImage rgbImage = randomImage(19, 11, 7L);
+        List<FilterType> history = List.of(FilterType.GrayScale, FilterType.Inversion);
+        BufferedImage expected = FilterPipeline.compile(history, 25).apply(rgbImage);
+
+        BufferedImage bgrImage = new BufferedImage(19, 11, BufferedImage.TYPE_3BYTE_BGR);
+        bgrImage.getGraphics().drawImage(rgbImage, 0, 0, null);
+
+        assertSameRgb(FilterPipeline.compile(history, 25).apply(bgrImage), expected);
+    }
+
+    @Test
+    void 잘라낸_이미지도_잘라낸_영역만_처리한다() {
+        BufferedImage image = randomImage(20, 20, 3L);
+        BufferedImage subimage = image.getSubimage(5, 7, 8, 6);
+
+        BufferedImage actual = FilterPipeline.compile(List.of(FilterType.Inversion), 0).apply(subimage);
+
+        assertThat(actual.getWidth()).isEqualTo(8);
+        assertThat(actual.getHeight()).isEqualTo(6);
+        assertThat(actual.getRGB(0, 0)).isEqualTo(0xFF000000 | ~image.getRGB(5, 7) & 0xFFFFFF);
+    }
+
+    @Test
+    void 병렬로_처리해도_순차_처리와_결과가_같다() {
+        BufferedImage image = randomImage(301, 257, 11L);
+        FilterPipeline pipeline = FilterPipeline.compile(List.of(FilterType.Inversion, FilterType.GrayScale), 60);
+        ParallelRasterExecutor executor = new ParallelRasterExecutor(4, 1, true);
+
+        try {
+            BufferedImage expected = pipeline.apply(image);
+            BufferedImage actual = pipeline.apply(image, executor);
+
+            assertThat(RasterAccess.pixels(actual)).isEqualTo(RasterAccess.pixels(expected));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void 주변_픽셀_필터를_사이에_두고_앞뒤_필터가_순서대로_적용된다() {
+        BufferedImage image = randomImage(29, 17, 21L);
+        List<FilterType> history = List.of(FilterType.Inversion, FilterType.Blur, FilterType.GrayScale);
+
+        BufferedImage inverted = FilterPipeline.compile(List.of(FilterType.Inversion), 0).apply(image);
+        BufferedImage blurred = ConvolutionFilter.of(FilterType.Blur).apply(inverted, ParallelRasterExecutor.sequential());
+        BufferedImage expected = FilterPipeline.compile(List.of(FilterType.GrayScale), 30).apply(blurred);
+
+        FilterPipeline pipeline = FilterPipeline.compile(history, 30);
+
+        assertThat(pipeline.radius()).isEqualTo(SeparableKernel.gaussian(ConvolutionFilter.BLUR_SIGMA).radius());
+        assertSameRgb(pipeline.apply(image), expected);
+    }
+
+    static BufferedImage randomImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    static void assertSameRgb(BufferedImage actual, BufferedImage expected) {
+        assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertThat(actual.getRGB(x, y)).as("(%d, %d)", x, y).isEqualTo(expected.getRGB(x, y));
+            }
+        }
+    }
+
+    // 기존 프로세서처럼 필터 하나마다 새 이미지를 만들어 적용
+    private static BufferedImage applyEachPixel(BufferedImage image, UnaryOperator<Pixel> operation) {
+        BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Color color = new Color(image.getRGB(x, y));
+                Pixel pixel = operation.apply(new Pixel(color.getRed(), color.getGreen(), color.getBlue()));
+                result.setRGB(x, y, pixel.toAwtColor().getRGB());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilterProgramCacheTest {
+
+    @Test
+    void 같은_히스토리_문자열은_다시_파싱하지_않는다() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FilterProgramCache programCache = new FilterProgramCache(meterRegistry, 10);
+
+        List<FilterType> first = programCache.history("[\"Inversion\",\"Blur\"]");
+        List<FilterType> second = programCache.history("[\"Inversion\",\"Blur\"]");
+
+        assertThat(first).containsExactly(FilterType.Inversion, FilterType.Blur);
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.counter("image.program.cache", "cache", "history", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("image.program.cache", "cache", "history", "result", "miss").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void 쉼표로_구분한_이름과_한_글자_코드도_받는다() throws IOException {
+        FilterProgramCache programCache = new FilterProgramCache(new SimpleMeterRegistry(), 10);
+        List<FilterType> history = List.of(FilterType.GrayScale, FilterType.Inversion, FilterType.BoxBlur, FilterType.EdgeDetect);
+
+        assertThat(FilterProgramCache.encode(history)).isEqualTo("g,i,x,e");
+        assertThat(programCache.history("g,i,x,e")).isEqualTo(history);
+        assertThat(programCache.history("GrayScale, inversion,BoxBlur,e")).isEqualTo(history);
+        assertThat(programCache.history("")).isEmpty();
+        assertThatThrownBy(() -> programCache.history("g,z")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 같은_프로그램은_합성한_파이프라인을_재사용하고_항목_수를_넘으면_내보낸다() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FilterProgramCache programCache = new FilterProgramCache(meterRegistry, 2);
+
+        FilterPipeline pipeline = programCache.pipeline(List.of(FilterType.GrayScale), 10);
+        assertThat(programCache.pipeline(List.of(FilterType.GrayScale), 10)).isSameAs(pipeline);
+        assertThat(programCache.pipeline(List.of(FilterType.GrayScale), 20)).isNotSameAs(pipeline);
+
+        programCache.pipeline(List.of(FilterType.Inversion), 0);
+        assertThat(meterRegistry.get("image.program.cache.size").tag("cache", "pipeline").gauge().value()).isEqualTo(2.0);
+        // 가장 오래 안 쓴 항목이 빠졌으므로 다시 합성한다
+        assertThat(programCache.pipeline(List.of(FilterType.GrayScale), 10)).isNotSameAs(pipeline);
+        assertThat(meterRegistry.counter("image.program.cache", "cache", "pipeline", "result", "hit").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void 짧은_표현으로_보낸_히스토리도_JSON_과_같은_결과를_낸다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        BufferedImage original = FilterPipelineTest.randomImage(32, 24, 6L);
+        MockMultipartFile file = ImageServiceTest.png(original);
+
+        ProcessedImage compact = imageService.processGrayscale(file, "i,b", 15, ImageService.FULL_RESOLUTION, null);
+        ProcessedImage json = imageService.processGrayscale(file, "[\"Inversion\",\"Blur\"]", 15, ImageService.FULL_RESOLUTION, null);
+
+        // 정규화한 프로그램이 같으므로 결과 캐시 키도 같다
+        assertThat(compact.getETag()).isEqualTo(json.getETag());
+        FilterPipelineTest.assertSameRgb(ImageServiceTest.decode(compact), ImageServiceTest.decode(json));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 힙에 올릴 수 없는 크기의 이미지를 디스크 처리로 끝까지 처리하는지 확인
+// 오래 걸리고 디스크를 수 GB 쓰므로 일반 test 에서는 빼고 ./gradlew gigapixelTest 로 작은 힙(-Xmx256m)에서 따로 실행한다
+@Tag("gigapixel")
+class GigapixelImageTest {
+    // 한 변의 길이. 기본값이면 32768 x 32768 (약 10억 픽셀, packed 로 4GB)
+    private static final int SIZE = Integer.getInteger("gigapixel.size", 32768);
+
+    @Test
+    void 힙보다_큰_PNG_를_줄_묶음으로_처리한다() throws IOException {
+        process("png");
+    }
+
+    // JPEG 은 손실 압축이라 완만한 그라데이션에 잡음을 조금 더한 무늬로 만들고 채널마다 오차를 허용한다
+    // 인코딩 결과도 쓰는 대로 내보내야 (ImageEncoder.FlushingImageOutputStream) 작은 힙에서 끝난다
+    @Test
+    void 힙보다_큰_JPEG_을_줄_묶음으로_처리한다() throws IOException {
+        process("jpg");
+    }
+
+    private void process(String formatName) throws IOException {
+        boolean jpeg = formatName.equals("jpg");
+        long pixels = (long) SIZE * SIZE;
+        assertThat(Runtime.getRuntime().maxMemory()).isLessThan(pixels * 4);
+
+        Path directory = Files.createTempDirectory("gigapixel-test");
+        OutOfCoreProcessor processor = new OutOfCoreProcessor(1, 2_000_000_000L, 1 << 20, directory.toString());
+        ImageEncoder imageEncoder = new ImageEncoder(0.9f, true, 1);
+        ImageDecoder imageDecoder = new ImageDecoder(new ImageValidator(100_000_000));
+        Path input = directory.resolve("input." + formatName);
+        Path output = directory.resolve("output." + formatName);
+        try {
+            // 원본도 힙에 만들지 않고 매핑된 이미지에 줄 묶음씩 채워서 인코딩
+            try (ScratchImage source = ScratchImage.packed(directory, SIZE, SIZE, false);
+                 OutputStream stream = Files.newOutputStream(input)) {
+                int rows = processor.stripRows(SIZE);
+                int[] strip = new int[rows * SIZE];
+                for (int startRow = 0; startRow < SIZE; startRow += rows) {
+                    int count = Math.min(rows, SIZE - startRow);
+                    for (int y = 0; y < count; y++) {
+                        for (int x = 0; x < SIZE; x++) {
+                            strip[y * SIZE + x] = pattern(x, startRow + y, jpeg);
+                        }
+                    }
+                    source.writeRgb(startRow, count, strip);
+                }
+                imageEncoder.writeSequential(source.getImage(), formatName, stream);
+            }
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ImageService imageService = new ImageService(
+                    imageDecoder,
+                    new CropProcessor(),
+                    ParallelRasterExecutor.sequential(),
+                    new MemoryBudget(meterRegistry, 0, 0),
+                    imageEncoder,
+                    new ImageResultCache(meterRegistry, 0, 0, "", 0),
+                    new ImageMetrics(meterRegistry),
+                    CpuStageExecutor.callerRuns(),
+                    processor,
+                    new FilterProgramCache(meterRegistry, 100),
+                    true, 100, 60_000);
+            ProcessedImage processed = imageService.processInvert(new PathMultipartFile(input.getFileName().toString(), input), null, 0, ImageService.FULL_RESOLUTION, null);
+            try (OutputStream stream = Files.newOutputStream(output)) {
+                processed.writeTo(stream);
+            }
+            assertThat(processed.getStatistics().getPixelCount()).isEqualTo(pixels);
+
+            // 결과도 매핑된 이미지로 디코딩해서 모서리와 가운데 픽셀만 확인
+            try (ImageSource source = imageDecoder.open(new PathMultipartFile(output.getFileName().toString(), output), processor.getMaxPixels());
+                 ScratchImage result = processor.decode(source, null, 1)) {
+                int[][] points = {{0, 0}, {SIZE - 1, 0}, {0, SIZE - 1}, {SIZE - 1, SIZE - 1}, {SIZE / 2, SIZE / 2 + 1}};
+                for (int[] point : points) {
+                    int actual = result.getImage().getRGB(point[0], point[1]);
+                    int expected = ~pattern(point[0], point[1], jpeg);
+                    for (int shift = 0; shift <= 16; shift += 8) {
+                        assertThat(Math.abs(((actual >> shift) & 0xFF) - ((expected >> shift) & 0xFF)))
+                                .as("(%d, %d)", point[0], point[1])
+                                .isLessThanOrEqualTo(jpeg ? 40 : 0);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.count()).isZero();
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static int pattern(int x, int y, boolean gradient) {
+        if (gradient) {
+            // 모서리끼리 색이 다르고 경계가 없는 완만한 그라데이션 (채도가 높은 색은 YCbCr 변환 오차가 커서 0x40~0xBF 범위로)
+            // 밝기에만 픽셀마다 작은 잡음을 더해서 인코딩 결과가 힙보다 커지게 한다 (결과 전체를 모으면 -Xmx256m 에서 실패)
+            int noise = ((x * 0x9E3779B1 ^ y * 0x85EBCA77) >>> 27) - 16;
+            int r = 0x40 + (int) ((long) x * 0x80 / SIZE) + noise;
+            int g = 0x40 + (int) ((long) y * 0x80 / SIZE) + noise;
+            int b = 0x40 + (int) ((long) (x + y) * 0x40 / SIZE) + noise;
+            return (r << 16) | (g << 8) | b;
+        }
+        return ((x & 0xFF) << 16) | ((y & 0xFF) << 8) | ((x + y) & 0xFF);
+    }
+}
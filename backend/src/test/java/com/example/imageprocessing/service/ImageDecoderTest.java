@@ -0,0 +1,54 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageDecoderTest {
+
+    @Test
+    void 헤더에서_형식과_크기를_읽고_한_번만_디코딩한다() throws IOException {
+        ImageDecoder decoder = new ImageDecoder(new ImageValidator(1_000_000));
+
+        try (ImageSource source = decoder.open(pngFile(40, 30))) {
+            assertThat(source.getHeader().formatName()).isEqualTo("png");
+            assertThat(source.getHeader().width()).isEqualTo(40);
+            assertThat(source.getHeader().height()).isEqualTo(30);
+
+            BufferedImage image = source.read();
+            assertThat(image.getWidth()).isEqualTo(40);
+        }
+    }
+
+    @Test
+    void 최대_픽셀_수를_넘으면_디코딩_전에_거절한다() throws IOException {
+        ImageDecoder decoder = new ImageDecoder(new ImageValidator(1_000));
+        MockMultipartFile file = pngFile(40, 30);
+
+        assertThatThrownBy(() -> decoder.open(file))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 이미지가_아니면_거절한다() {
+        ImageDecoder decoder = new ImageDecoder(new ImageValidator(1_000_000));
+        MockMultipartFile file = new MockMultipartFile("file", "a.png", "image/png", "not an image".getBytes());
+
+        assertThatThrownBy(() -> decoder.open(file))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static MockMultipartFile pngFile(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return new MockMultipartFile("file", "image.png", "image/png", output.toByteArray());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.imageprocessing.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageEncoderTest {
+    private final ImageEncoder imageEncoder = new ImageEncoder(0.9f, true, 4);
+
+    @Test
+    void PNG_는_무손실로_스트림에_쓴다() throws IOException {
+        BufferedImage image = FilterPipelineTest.randomImage(31, 17, 5L);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        imageEncoder.write(image, "png", output);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        FilterPipelineTest.assertSameRgb(decoded, image);
+    }
+
+    @Test
+    void 알파가_있는_이미지도_JPEG_으로_쓸_수_있다() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        imageEncoder.write(image, "jpg", output);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        assertThat(decoded.getWidth()).isEqualTo(16);
+        assertThat(imageEncoder.contentType("jpg")).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void 알_수_없는_형식은_PNG_로_쓴다() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        imageEncoder.write(FilterPipelineTest.randomImage(4, 4, 1L), "unknown", output);
+
+        assertThat(ImageIO.read(new ByteArrayInputStream(output.toByteArray()))).isNotNull();
+        assertThat(imageEncoder.contentType("unknown")).isEqualTo("image/png");
+    }
+
+    @Test
+    void PNG_와_JPEG_모두_인코딩하는_동안_응답_스트림에_내보낸다() throws IOException {
+        BufferedImage image = FilterPipelineTest.randomImage(512, 512, 6L);
+
+        for (ImageEncoder encoder : List.of(imageEncoder, new ImageEncoder(0.9f, false, 4))) {
+            for (String formatName : List.of("png", "jpg")) {
+                WriterProbe output = new WriterProbe();
+                encoder.write(image, formatName, output);
+
+                assertThat(output.writtenDuringEncode).as(formatName).isPositive();
+                assertThat(ImageIO.read(new ByteArrayInputStream(output.toByteArray())).getWidth()).isEqualTo(512);
+            }
+        }
+        WriterProbe output = new WriterProbe();
+        imageEncoder.writeSequential(image, "jpg", output);
+        assertThat(output.writtenDuringEncode).isPositive();
+    }
+
+    // ImageWriter.write 가 쓰는 도중에 받은 바이트 수. write 가 끝날 때의 flush 나 스트림을 닫을 때 한꺼번에 내보낸 것은 세지 않는다
+    private static class WriterProbe extends ByteArrayOutputStream {
+        private long writtenDuringEncode;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (insideImageWriter()) {
+                writtenDuringEncode += len;
+            }
+            super.write(b, off, len);
+        }
+
+        private static boolean insideImageWriter() {
+            List<StackWalker.StackFrame> frames = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(Stream::toList);
+            return frames.stream().anyMatch(frame -> ImageWriter.class.isAssignableFrom(frame.getDeclaringClass()) && frame.getMethodName().equals("write"))
+                    && frames.stream().noneMatch(frame -> frame.getMethodName().equals("flush") || frame.getMethodName().equals("close"));
+        }
+    }
+}
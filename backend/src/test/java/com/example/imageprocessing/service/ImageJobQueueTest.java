@@ -0,0 +1,62 @@
+package com.example.imageprocessing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageJobQueueTest {
+
+    @Test
+    void 우선순위가_높은_작업부터_꺼낸다() throws InterruptedException {
+        ImageJobQueue queue = new ImageJobQueue();
+        queue.add(job("low", "a", ImageJob.Priority.LOW));
+        queue.add(job("normal", "a", ImageJob.Priority.NORMAL));
+        queue.add(job("high", "a", ImageJob.Priority.HIGH));
+
+        assertThat(drain(queue)).containsExactly("high", "normal", "low");
+    }
+
+    @Test
+    void 같은_우선순위에서는_테넌트를_돌아가며_꺼낸다() throws InterruptedException {
+        ImageJobQueue queue = new ImageJobQueue();
+        for (int i = 1; i <= 3; i++) {
+            queue.add(job("a" + i, "a", ImageJob.Priority.NORMAL));
+        }
+        queue.add(job("b1", "b", ImageJob.Priority.NORMAL));
+        queue.add(job("c1", "c", ImageJob.Priority.NORMAL));
+        queue.add(job("b2", "b", ImageJob.Priority.NORMAL));
+
+        assertThat(queue.size()).isEqualTo(6);
+        assertThat(queue.size("a")).isEqualTo(3);
+        assertThat(drain(queue)).containsExactly("a1", "b1", "c1", "a2", "b2", "a3");
+        assertThat(queue.size("a")).isZero();
+    }
+
+    @Test
+    void 대기_중인_작업을_빼면_크기와_순서에서_빠진다() throws InterruptedException {
+        ImageJobQueue queue = new ImageJobQueue();
+        ImageJob removed = job("a1", "a", ImageJob.Priority.NORMAL);
+        queue.add(removed);
+        queue.add(job("b1", "b", ImageJob.Priority.NORMAL));
+
+        assertThat(queue.remove(removed)).isTrue();
+        assertThat(queue.remove(removed)).isFalse();
+        assertThat(queue.size("a")).isZero();
+        assertThat(drain(queue)).containsExactly("b1");
+    }
+
+    private static ImageJob job(String id, String tenant, ImageJob.Priority priority) {
+        return new ImageJob(id, tenant, priority, "image.png", null, FilterProgram.of(List.of(), 0));
+    }
+
+    private static List<String> drain(ImageJobQueue queue) throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        while (queue.size() > 0) {
+            ids.add(queue.take().getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageJobServiceTest {
+
+    @Test
+    void 작업_결과는_동기_요청과_같고_필터_단계의_줄_수만큼_진행률이_찬다() throws Exception {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        ImageJobService jobService = new ImageJobService(imageService, new SimpleMeterRegistry(), 1, 10, 10, 60_000, 1 << 20, 10, 100, "");
+        BufferedImage original = FilterPipelineTest.randomImage(40, 30, 19L);
+        FilterProgram program = FilterProgram.of(List.of(FilterType.Blur, FilterType.Inversion), 10);
+
+        ImageJob job = jobService.submit(png(original), program, "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(ImageJob.State.SUCCEEDED);
+        // 블러(가로, 세로) + 픽셀 단위 단계 = 세 번
+        assertThat(job.getTotalRows()).isEqualTo(30 * 3);
+        assertThat(job.getRowsProcessed()).isEqualTo(job.getTotalRows());
+
+        BufferedImage result = ImageIO.read(Files.newInputStream(jobService.result(job.getId()).getResult()));
+        FilterPipelineTest.assertSameRgb(result, imageService.applyProgram(original, program));
+        jobService.shutdown();
+    }
+
+    @Test
+    void 실패한_작업은_오류를_남기고_결과를_요청하면_거절한다() throws Exception {
+        ImageJobService jobService = new ImageJobService(TestImageServiceBuilder.defaults(), new SimpleMeterRegistry(), 1, 10, 10, 60_000, 1 << 20, 10, 100, "");
+        MockMultipartFile broken = new MockMultipartFile("file", "broken.png", "image/png", new byte[]{1, 2, 3});
+
+        ImageJob job = jobService.submit(broken, FilterProgram.of(List.of(), 0), "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(ImageJob.State.FAILED);
+        assertThat(job.getError()).isNotBlank();
+        assertThatThrownBy(() -> jobService.result(job.getId())).isInstanceOf(ImageJobNotReadyException.class);
+        jobService.shutdown();
+    }
+
+    @Test
+    void 보관_기간이_지난_결과는_파일과_함께_정리한다() throws Exception {
+        ImageJobService jobService = new ImageJobService(TestImageServiceBuilder.defaults(), new SimpleMeterRegistry(), 1, 10, 10, 0, 1 << 20, 10, 100, "");
+
+        ImageJob job = jobService.submit(png(FilterPipelineTest.randomImage(8, 8, 1L)), FilterProgram.of(List.of(FilterType.GrayScale), 0), "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(job);
+        Thread.sleep(5);
+        jobService.evictExpiredJobs();
+
+        assertThat(Files.exists(job.getResult())).isFalse();
+        assertThatThrownBy(() -> jobService.get(job.getId())).isInstanceOf(ImageJobNotFoundException.class);
+        jobService.shutdown();
+    }
+
+    @Test
+    void 결과_크기_한도를_넘으면_먼저_끝난_결과부터_지운다() throws Exception {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        MockMultipartFile file = png(FilterPipelineTest.randomImage(8, 8, 1L));
+        FilterProgram program = FilterProgram.of(List.of(), 0);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        imageService.processBatchItem(file, program).writeTo(encoded);
+        // 결과 한 장은 들어가고 두 장은 넘치는 한도
+        ImageJobService jobService = new ImageJobService(imageService, new SimpleMeterRegistry(), 1, 10, 10, 60_000, encoded.size() * 3L / 2, 10, 100, "");
+
+        ImageJob first = jobService.submit(file, program, "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(first);
+        Thread.sleep(5);
+        ImageJob second = jobService.submit(file, program, "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(second);
+
+        assertThatThrownBy(() -> jobService.get(first.getId())).isInstanceOf(ImageJobNotFoundException.class);
+        assertThat(Files.exists(first.getResult())).isFalse();
+        assertThat(Files.exists(jobService.result(second.getId()).getResult())).isTrue();
+        assertThat(jobService.getResultBytes()).isLessThanOrEqualTo(encoded.size() * 3L / 2);
+        jobService.shutdown();
+    }
+
+    @Test
+    void 결과_한_장이_한도보다_크면_성공으로_알리지_않고_실패로_끝낸다() throws Exception {
+        ImageJobService jobService = new ImageJobService(TestImageServiceBuilder.defaults(), new SimpleMeterRegistry(), 1, 10, 10, 60_000, 1, 10, 100, "");
+
+        ImageJob job = jobService.submit(png(FilterPipelineTest.randomImage(8, 8, 1L)), FilterProgram.of(List.of(), 0), "tenant", ImageJob.Priority.NORMAL);
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(ImageJob.State.FAILED);
+        assertThat(job.getError()).isNotBlank();
+        assertThat(Files.exists(job.getInput())).isFalse();
+        assertThat(jobService.getResultBytes()).isZero();
+        jobService.shutdown();
+    }
+
+    @Test
+    void 테넌트별_대기_한도를_넘으면_503_으로_거절하고_대기_중인_작업은_취소할_수_있다() throws Exception {
+        // 작업 스레드를 멈춰 두어 작업이 대기열에 쌓이게 한다
+        ImageJobService jobService = new ImageJobService(TestImageServiceBuilder.defaults(), new SimpleMeterRegistry(), 1, 10, 2, 60_000, 1 << 20, 10, 100, "");
+        jobService.shutdown();
+        FilterProgram program = FilterProgram.of(List.of(), 0);
+
+        ImageJob queued = jobService.submit(png(FilterPipelineTest.randomImage(4, 4, 1L)), program, "a", ImageJob.Priority.NORMAL);
+        jobService.submit(png(FilterPipelineTest.randomImage(4, 4, 2L)), program, "a", ImageJob.Priority.NORMAL);
+
+        assertThatThrownBy(() -> jobService.submit(png(FilterPipelineTest.randomImage(4, 4, 3L)), program, "a", ImageJob.Priority.NORMAL))
+                .isInstanceOf(ImageOverloadException.class);
+        assertThat(jobService.submit(png(FilterPipelineTest.randomImage(4, 4, 4L)), program, "b", ImageJob.Priority.NORMAL).getState())
+                .isEqualTo(ImageJob.State.QUEUED);
+
+        jobService.cancel(queued.getId());
+        assertThat(queued.getState()).isEqualTo(ImageJob.State.CANCELLED);
+        assertThat(Files.exists(queued.getInput())).isFalse();
+        assertThatThrownBy(() -> jobService.get(queued.getId())).isInstanceOf(ImageJobNotFoundException.class);
+    }
+
+    @Test
+    void 진행률을_알리는_실행기는_처리한_줄_수를_모두_더해_알린다() {
+        ParallelRasterExecutor base = new ParallelRasterExecutor(4, 0, false);
+        AtomicLong rows = new AtomicLong();
+
+        base.withProgress(rows::addAndGet).forEachRowBand(10, 97, (startRow, endRow) -> {});
+
+        assertThat(rows.get()).isEqualTo(97);
+        base.shutdown();
+    }
+
+    @Test
+    void 서버가_바빠서_처리하지_못한_작업은_실패시키지_않고_나중에_다시_처리한다() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 기다리지 않고 바로 거절하는 1MB 예산을 다른 요청이 다 쓰고 있다
+        MemoryBudget memoryBudget = new MemoryBudget(meterRegistry, 1, 0);
+        MemoryBudget.Reservation busy = memoryBudget.reserve(1024 * 1024);
+        ImageService imageService = new TestImageServiceBuilder().meterRegistry(meterRegistry).memoryBudget(memoryBudget).build();
+        ImageJobService jobService = new ImageJobService(imageService, meterRegistry, 1, 10, 10, 60_000, 1 << 20, 10, 100, "");
+
+        ImageJob job = jobService.submit(png(FilterPipelineTest.randomImage(8, 8, 1L)), FilterProgram.of(List.of(FilterType.GrayScale), 0), "tenant", ImageJob.Priority.NORMAL);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getRetries() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(job.getRetries()).isGreaterThanOrEqualTo(2);
+        assertThat(job.getState().isFinished()).isFalse();
+
+        busy.close();
+        awaitFinished(job);
+
+        assertThat(job.getState()).isEqualTo(ImageJob.State.SUCCEEDED);
+        assertThat(Files.exists(jobService.result(job.getId()).getResult())).isTrue();
+        jobService.shutdown();
+    }
+
+    private static void awaitFinished(ImageJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.getState().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(job.getState().isFinished()).isTrue();
+    }
+
+    private static MockMultipartFile png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return new MockMultipartFile("file", "image.png", "image/png", bytes.toByteArray());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageMetricsTest {
+
+    @Test
+    void 단계를_필터_형식_크기_구간별로_기록한다() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImageMetrics metrics = new ImageMetrics(meterRegistry);
+
+        metrics.start(ImageMetrics.DECODE).stop("GrayScale", "JPEG", 12_000_000);
+
+        assertThat(meterRegistry.get("image.pipeline.stage")
+                .tag("stage", "decode")
+                .tag("filter", "GrayScale")
+                .tag("format", "jpg")
+                .tag("size", "4-16MP")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image.pipeline.throughput")
+                .tag("stage", "decode")
+                .summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 형식_태그는_정해진_값으로만_기록한다() {
+        assertThat(ImageMetrics.formatTag("PNG")).isEqualTo("png");
+        assertThat(ImageMetrics.formatTag("jpeg")).isEqualTo("jpg");
+        assertThat(ImageMetrics.formatTag("tif")).isEqualTo("tiff");
+        assertThat(ImageMetrics.formatTag("exe?name=1")).isEqualTo("other");
+        assertThat(ImageMetrics.formatTag(null)).isEqualTo("unknown");
+    }
+
+    @Test
+    void 크기_구간은_픽셀_수로_나눈다() {
+        assertThat(ImageMetrics.sizeBucket(0)).isEqualTo("unknown");
+        assertThat(ImageMetrics.sizeBucket(640 * 480)).isEqualTo("0-1MP");
+        assertThat(ImageMetrics.sizeBucket(1_000_000)).isEqualTo("1-4MP");
+        assertThat(ImageMetrics.sizeBucket(50_000_000)).isEqualTo("16-64MP");
+        assertThat(ImageMetrics.sizeBucket(100_000_000)).isEqualTo("64MP+");
+    }
+}
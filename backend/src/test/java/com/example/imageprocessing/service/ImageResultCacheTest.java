@@ -0,0 +1,91 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageResultCacheTest {
+
+    @Test
+    void 같은_원본과_프로그램이면_같은_키를_만든다() throws IOException {
+        ImageResultCache cache = new ImageResultCache(new SimpleMeterRegistry(), 1024, 1024, "", 0);
+        MockMultipartFile file = new MockMultipartFile("file", "a.png", "image/png", new byte[]{1, 2, 3});
+        MockMultipartFile sameBytes = new MockMultipartFile("file", "b.png", "image/png", new byte[]{1, 2, 3});
+
+        assertThat(cache.keyOf(file, "filters=GrayScale")).isEqualTo(cache.keyOf(sameBytes, "filters=GrayScale"));
+        assertThat(cache.keyOf(file, "filters=GrayScale")).isNotEqualTo(cache.keyOf(file, "filters=Inversion"));
+    }
+
+    @Test
+    void 용량을_넘으면_가장_오래_안_쓴_항목부터_밀어낸다() throws IOException {
+        ImageResultCache cache = new ImageResultCache(new SimpleMeterRegistry(), 10, 10, "", 0);
+
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+        cache.put("c", new byte[4]);
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getCurrentBytes()).isEqualTo(8L);
+    }
+
+    @Test
+    void 메모리에서_밀려나도_디스크에서_다시_읽는다() throws IOException {
+        Path directory = Files.createTempDirectory("image-cache");
+        ImageResultCache cache = new ImageResultCache(new SimpleMeterRegistry(), 4, 4, directory.toString(), 1024);
+
+        cache.put("a", new byte[]{1, 2, 3, 4});
+        cache.put("b", new byte[]{5, 6, 7, 8});
+
+        assertThat(cache.get("a").bytes()).isEqualTo(new byte[]{1, 2, 3, 4});
+    }
+
+    @Test
+    void 디스크_계층도_최근에_읽은_결과를_남기고_오래_안_쓴_결과부터_지운다() throws IOException {
+        Path directory = Files.createTempDirectory("image-cache");
+        // 메모리에는 한 장만, 디스크에는 두 장만 들어간다
+        ImageResultCache cache = new ImageResultCache(new SimpleMeterRegistry(), 4, 4, directory.toString(), 8);
+
+        cache.put("a", new byte[]{1, 2, 3, 4});
+        cache.put("b", new byte[]{5, 6, 7, 8});
+        // 디스크에서 읽어서 a 가 가장 최근에 쓴 항목이 된다
+        assertThat(cache.get("a").bytes()).isEqualTo(new byte[]{1, 2, 3, 4});
+        cache.put("c", new byte[]{9, 10, 11, 12});
+
+        assertThat(Files.exists(directory.resolve("a.img"))).isTrue();
+        assertThat(Files.exists(directory.resolve("b.img"))).isFalse();
+        assertThat(cache.getDiskBytes()).isEqualTo(8L);
+
+        // 다시 시작하면 남아 있는 파일로 색인을 만든다
+        ImageResultCache restarted = new ImageResultCache(new SimpleMeterRegistry(), 4, 4, directory.toString(), 8);
+        assertThat(restarted.getDiskBytes()).isEqualTo(8L);
+        assertThat(restarted.get("c").bytes()).isEqualTo(new byte[]{9, 10, 11, 12});
+    }
+
+    @Test
+    void 응답으로_쓴_바이트를_끝까지_성공하면_저장한다() throws IOException {
+        ImageResultCache cache = new ImageResultCache(new SimpleMeterRegistry(), 1024, 8, "", 0);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        ImageResultCache.Recorder small = cache.record("small", response);
+        small.write(new byte[]{1, 2, 3});
+        small.commit();
+
+        ImageResultCache.Recorder large = cache.record("large", response);
+        large.write(new byte[16]);
+        large.commit();
+
+        assertThat(response.size()).isEqualTo(19);
+        assertThat(cache.get("small").bytes()).isEqualTo(new byte[]{1, 2, 3});
+        assertThat(cache.get("large")).isNull();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageServiceTest {
+
+    @Test
+    void 크롭은_영역만_디코딩하고_히스토리와_밝기를_적용한다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        BufferedImage original = FilterPipelineTest.randomImage(64, 48, 3L);
+
+        BufferedImage cropped = decode(imageService.processCrop(png(original), 10, 5, 50, 40, "[\"Inversion\",\"GrayScale\"]", 25, ImageService.FULL_RESOLUTION, null));
+
+        FilterProgram expectedProgram = new FilterProgram(
+                List.of(FilterType.Inversion, FilterType.GrayScale), 25, new CropRegion(10, 5, 50, 40));
+        assertThat(cropped.getWidth()).isEqualTo(40);
+        assertThat(cropped.getHeight()).isEqualTo(35);
+        FilterPipelineTest.assertSameRgb(cropped, imageService.applyProgram(original, expectedProgram));
+    }
+
+    @Test
+    void 주변_픽셀_필터와_크롭은_전체에_필터를_적용한_뒤_자른_것과_같다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        BufferedImage original = FilterPipelineTest.randomImage(64, 48, 4L);
+
+        BufferedImage cropped = decode(imageService.processCrop(png(original), 10, 5, 50, 40, "[\"Blur\",\"EdgeDetect\"]", 0, ImageService.FULL_RESOLUTION, null));
+
+        BufferedImage filtered = imageService.applyProgram(original, FilterProgram.of(List.of(FilterType.Blur, FilterType.EdgeDetect), 0));
+        FilterPipelineTest.assertSameRgb(cropped, filtered.getSubimage(10, 5, 40, 35));
+    }
+
+    @Test
+    void 이미지_밖을_크롭하면_디코딩_전에_거절한다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        MockMultipartFile file = png(FilterPipelineTest.randomImage(20, 20, 1L));
+
+        assertThatThrownBy(() -> imageService.processCrop(file, 0, 0, 21, 10, null, 0, ImageService.FULL_RESOLUTION, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void 미리보기는_긴_변이_지정한_크기_이하가_되도록_건너뛰며_디코딩한다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        BufferedImage original = FilterPipelineTest.randomImage(64, 48, 5L);
+
+        BufferedImage preview = decode(imageService.processInvert(png(original), null, 0, 16, null));
+
+        assertThat(preview.getWidth()).isEqualTo(16);
+        assertThat(preview.getHeight()).isEqualTo(12);
+        BufferedImage expected = imageService.applyProgram(original, FilterProgram.of(List.of(FilterType.Inversion), 0));
+        for (int y = 0; y < preview.getHeight(); y++) {
+            for (int x = 0; x < preview.getWidth(); x++) {
+                assertThat(preview.getRGB(x, y) & 0xFFFFFF).isEqualTo(expected.getRGB(x * 4, y * 4) & 0xFFFFFF);
+            }
+        }
+    }
+
+    @Test
+    void 건너뛰기_간격은_긴_변_기준으로_올림한다() {
+        assertThat(ImageService.subsampling(7000, 4000, ImageService.FULL_RESOLUTION)).isEqualTo(1);
+        assertThat(ImageService.subsampling(800, 600, 1600)).isEqualTo(1);
+        assertThat(ImageService.subsampling(7000, 4000, 1600)).isEqualTo(5);
+        assertThat(ImageService.subsampling(4000, 7000, 2000)).isEqualTo(4);
+    }
+
+    @Test
+    void 결과_ETag_와_같은_If_None_Match_면_캐시에_없어도_디코딩하지_않는다() throws IOException {
+        MockMultipartFile file = png(FilterPipelineTest.randomImage(16, 12, 3L));
+        String eTag = TestImageServiceBuilder.defaults().processInvert(file, null, 0, ImageService.FULL_RESOLUTION, null).getETag();
+
+        // 결과 캐시가 빈 새 서비스
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImageService imageService = new TestImageServiceBuilder().meterRegistry(meterRegistry).build();
+        ProcessedImage notModified = imageService.processInvert(file, null, 0, ImageService.FULL_RESOLUTION, "\"other\", W/" + eTag);
+
+        assertThat(notModified.isNotModified()).isTrue();
+        assertThat(notModified.getETag()).isEqualTo(eTag);
+        assertThat(meterRegistry.find("image.pipeline.stage").timer()).isNull();
+        assertThat(imageService.processInvert(file, null, 0, ImageService.FULL_RESOLUTION, "\"other\"").isNotModified()).isFalse();
+    }
+
+    @Test
+    void If_None_Match_가_별표면_처리해서_본문을_돌려준다() throws IOException {
+        MockMultipartFile file = png(FilterPipelineTest.randomImage(16, 12, 3L));
+
+        ProcessedImage processed = TestImageServiceBuilder.defaults().processInvert(file, null, 0, ImageService.FULL_RESOLUTION, "*");
+
+        assertThat(processed.isNotModified()).isFalse();
+        assertThat(decode(processed).getWidth()).isEqualTo(16);
+    }
+
+    @Test
+    void 필터_단계도_디코딩_단계처럼_헤더의_형식으로_기록한다() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImageService imageService = new TestImageServiceBuilder().meterRegistry(meterRegistry).build();
+        // 확장자(jpg)와 실제 형식(png)이 다른 업로드
+        MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", png(FilterPipelineTest.randomImage(16, 12, 4L)).getBytes());
+
+        imageService.processInvert(file, null, 0, ImageService.FULL_RESOLUTION, null).writeTo(new ByteArrayOutputStream());
+
+        for (String stage : List.of(ImageMetrics.VALIDATE, ImageMetrics.DECODE, ImageMetrics.FILTER)) {
+            assertThat(meterRegistry.get("image.pipeline.stage").tag("stage", stage).tag("format", "png").timer().count())
+                    .as(stage).isEqualTo(1);
+        }
+        // 인코딩은 응답으로 쓰는 형식
+        assertThat(meterRegistry.get("image.pipeline.stage").tag("stage", ImageMetrics.ENCODE).tag("format", "jpg").timer().count()).isEqualTo(1);
+    }
+
+    static MockMultipartFile png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return new MockMultipartFile("file", "image.png", "image/png", output.toByteArray());
+    }
+
+    static BufferedImage decode(ProcessedImage processedImage) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processedImage.writeTo(output);
+        return ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageStatisticsTest {
+
+    @Test
+    void 병렬로_필터를_적용하면서_센_히스토그램이_결과_픽셀을_하나씩_센_것과_같다() {
+        BufferedImage original = FilterPipelineTest.randomImage(301, 203, 30L);
+        ParallelRasterExecutor executor = new ParallelRasterExecutor(4, 1, true);
+        ImageStatistics.Collector collector = new ImageStatistics.Collector();
+
+        BufferedImage result = FilterPipeline.compile(List.of(FilterType.Inversion), 20).apply(original, executor, collector);
+
+        assertSameHistograms(collector.finish(), result);
+        executor.shutdown();
+    }
+
+    @Test
+    void 필터가_없거나_마지막이_주변_픽셀_단계여도_결과를_센다() {
+        BufferedImage original = FilterPipelineTest.randomImage(64, 48, 31L);
+        ParallelRasterExecutor executor = new ParallelRasterExecutor(2, 1, true);
+
+        for (List<FilterType> history : List.of(List.<FilterType>of(), List.of(FilterType.GrayScale, FilterType.Blur))) {
+            ImageStatistics.Collector collector = new ImageStatistics.Collector();
+            BufferedImage result = FilterPipeline.compile(history, 0).apply(original, executor, collector);
+            assertSameHistograms(collector.finish(), result);
+        }
+        // getSubimage 로 자른 이미지는 한 줄씩 읽는다
+        BufferedImage cropped = original.getSubimage(5, 7, 30, 20);
+        assertSameHistograms(ImageStatistics.of(cropped, executor), cropped);
+        executor.shutdown();
+    }
+
+    @Test
+    void 휘도_평균과_최소_최대_백분위를_계산한다() {
+        // 절반은 검정, 절반은 휘도 200 인 회색
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (int y = 5; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                image.setRGB(x, y, 0xC8C8C8);
+            }
+        }
+
+        ImageStatistics statistics = ImageStatistics.of(image, ParallelRasterExecutor.sequential());
+
+        assertThat(statistics.getPixelCount()).isEqualTo(100L);
+        assertThat(statistics.getMeanLuminance()).isEqualTo(100.0);
+        assertThat(statistics.getMinLuminance()).isEqualTo(0);
+        assertThat(statistics.getMaxLuminance()).isEqualTo(200);
+        assertThat(statistics.luminancePercentile(50)).isEqualTo(0);
+        assertThat(statistics.luminancePercentile(51)).isEqualTo(200);
+        assertThat(statistics.getLuminancePercentiles().get("p99")).isEqualTo(200);
+        assertThat(statistics.getRedHistogram()[200]).isEqualTo(50L);
+    }
+
+    @Test
+    void 자동_밝기는_중앙값을_가운데로_옮기되_밝은_쪽이_잘리지_않게_한다() {
+        // 휘도 20~99 가 고르게 섞인 어두운 이미지: 중앙값 59 → +69
+        BufferedImage dark = grayImage(20, 99);
+        assertThat(ImageStatistics.of(dark, ParallelRasterExecutor.sequential()).autoBrightnessAdjustment()).isEqualTo(69);
+
+        // 대부분 어둡지만 10% 가 이미 250 이면 5 까지만 올린다
+        BufferedImage highlights = new BufferedImage(100, 10, BufferedImage.TYPE_INT_RGB);
+        BufferedImage shadows = new BufferedImage(100, 10, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 100; x++) {
+                highlights.setRGB(x, y, x < 90 ? 0x282828 : 0xFAFAFA);
+                shadows.setRGB(x, y, x < 5 ? 0x0A0A0A : 0xDCDCDC);
+            }
+        }
+        assertThat(ImageStatistics.of(highlights, ParallelRasterExecutor.sequential()).autoBrightnessAdjustment()).isEqualTo(5);
+
+        // 어둡게 할 때는 하위 1% 가 0 아래로 내려가지 않을 만큼만 (중앙값 220 이지만 5% 가 10 이라 -10)
+        assertThat(ImageStatistics.of(shadows, ParallelRasterExecutor.sequential()).autoBrightnessAdjustment()).isEqualTo(-10);
+    }
+
+    @Test
+    void 자동_밝기로_처리하면_정한_값과_적용_후_통계를_돌려주고_캐시된_결과에도_붙는다() throws IOException {
+        ImageService imageService = TestImageServiceBuilder.defaults();
+        BufferedImage dark = grayImage(20, 99);
+
+        ProcessedImage processed = imageService.processAutoBrightness(ImageServiceTest.png(dark), "[]", ImageService.FULL_RESOLUTION, null);
+        BufferedImage result = ImageServiceTest.decode(processed);
+
+        assertThat(processed.getAutoBrightnessAdjustment()).isEqualTo(69);
+        FilterPipelineTest.assertSameRgb(result, imageService.applyProgram(dark, FilterProgram.of(List.of(), 69)));
+        assertSameHistograms(processed.getStatistics(), result);
+        assertThat(imageService.statistics(processed.getETag())).isPresent();
+
+        ProcessedImage cached = imageService.processAutoBrightness(ImageServiceTest.png(dark), "[]", ImageService.FULL_RESOLUTION, null);
+        assertThat(cached.getETag()).isEqualTo(processed.getETag());
+        assertThat(cached.getAutoBrightnessAdjustment()).isEqualTo(69);
+        assertThat(cached.getStatistics()).isSameAs(processed.getStatistics());
+    }
+
+    // low~high 휘도의 회색을 줄마다 번갈아 채운다
+    @Test
+    void 통계를_끄면_통계를_남기지_않아도_캐시된_자동_밝기_결과에는_정한_값이_붙는다() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImageService imageService = new TestImageServiceBuilder().meterRegistry(meterRegistry).statisticsEnabled(false).build();
+        BufferedImage dark = grayImage(20, 99);
+
+        ProcessedImage processed = imageService.processAutoBrightness(ImageServiceTest.png(dark), "[]", ImageService.FULL_RESOLUTION, null);
+        ImageServiceTest.decode(processed);
+        assertThat(processed.getAutoBrightnessAdjustment()).isEqualTo(69);
+        assertThat(processed.getStatistics()).isNull();
+        assertThat(imageService.statistics(processed.getETag())).isEmpty();
+        assertThat(meterRegistry.find("image.output.luminance").summary()).isNull();
+
+        // 밝기 값은 통계 보관소가 아니라 결과 캐시 항목에 있다
+        ProcessedImage cached = imageService.processAutoBrightness(ImageServiceTest.png(dark), "[]", ImageService.FULL_RESOLUTION, null);
+        assertThat(cached.getAutoBrightnessAdjustment()).isEqualTo(69);
+        ProcessedImage notModified = imageService.processAutoBrightness(ImageServiceTest.png(dark), "[]", ImageService.FULL_RESOLUTION, processed.getETag());
+        assertThat(notModified.isNotModified()).isTrue();
+        assertThat(notModified.getAutoBrightnessAdjustment()).isEqualTo(69);
+    }
+
+    private static BufferedImage grayImage(int low, int high) {
+        int levels = high - low + 1;
+        BufferedImage image = new BufferedImage(levels, 4, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < levels; x++) {
+                int gray = low + x;
+                image.setRGB(x, y, (gray << 16) | (gray << 8) | gray);
+            }
+        }
+        return image;
+    }
+
+    private static void assertSameHistograms(ImageStatistics statistics, BufferedImage image) {
+        long[] red = new long[256];
+        long[] green = new long[256];
+        long[] blue = new long[256];
+        long[] luminance = new long[256];
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                red[(rgb >> 16) & 0xFF]++;
+                green[(rgb >> 8) & 0xFF]++;
+                blue[rgb & 0xFF]++;
+                luminance[ImageStatistics.luminanceOf(rgb)]++;
+            }
+        }
+        assertThat(statistics.getPixelCount()).isEqualTo((long) image.getWidth() * image.getHeight());
+        assertThat(statistics.getRedHistogram()).isEqualTo(red);
+        assertThat(statistics.getGreenHistogram()).isEqualTo(green);
+        assertThat(statistics.getBlueHistogram()).isEqualTo(blue);
+        assertThat(statistics.getLuminanceHistogram()).isEqualTo(luminance);
+    }
+}
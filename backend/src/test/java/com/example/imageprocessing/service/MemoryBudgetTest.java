@@ -0,0 +1,40 @@
+package com.example.imageprocessing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemoryBudgetTest {
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void 처리가_끝나면_예약한_메모리를_반납한다() {
+        MemoryBudget budget = new MemoryBudget(new SimpleMeterRegistry(), 10, 0);
+
+        try (MemoryBudget.Reservation ignored = budget.reserve(4 * MB)) {
+            assertThat(budget.getReservedBytes()).isEqualTo(4 * MB);
+        }
+
+        assertThat(budget.getReservedBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    void 예산이_모자라면_기다린_뒤_거절한다() {
+        MemoryBudget budget = new MemoryBudget(new SimpleMeterRegistry(), 10, 10);
+
+        try (MemoryBudget.Reservation ignored = budget.reserve(8 * MB)) {
+            assertThatThrownBy(() -> budget.reserve(4 * MB))
+                    .isInstanceOf(ImageOverloadException.class);
+        }
+    }
+
+    @Test
+    void 예산_전체보다_큰_요청은_바로_거절한다() {
+        MemoryBudget budget = new MemoryBudget(new SimpleMeterRegistry(), 10, 10_000);
+
+        assertThatThrownBy(() -> budget.reserve(11 * MB))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
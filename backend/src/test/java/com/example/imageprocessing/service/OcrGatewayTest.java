@@ -0,0 +1,253 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OcrGatewayTest {
+
+    @Test
+    void 동시에_들어온_요청은_최대_크기만큼_묶어서_한_번에_보낸다() throws Exception {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        OcrGateway gateway = gateway(annotator, new SimpleMeterRegistry(), 4, 10_000, 60_000, 0, false);
+
+        List<Future<OcrResult>> results = new ArrayList<>();
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            MockMultipartFile file = text("image " + i);
+            results.add(requests.submit(() -> gateway.extractText(file)));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(results.get(i).get().text()).isEqualTo("image " + i);
+        }
+        assertThat(annotator.requests.size()).isEqualTo(1);
+        assertThat(annotator.imageCount()).isEqualTo(4);
+        requests.shutdown();
+        gateway.shutdown();
+    }
+
+    @Test
+    void 묶음의_바이트_한도가_차면_보내고_한도보다_큰_이미지는_따로_보낸다() throws Exception {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 장수와 대기 시간으로는 보내지 않고, 4 바이트 이미지 두 장이면 찬다
+        OcrGateway gateway = gateway(annotator::client, meterRegistry, new MemoryBudget(meterRegistry, 64, 0), 16, 8, 16, 10_000, 60_000, 0, false);
+
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        List<Future<OcrResult>> results = new ArrayList<>();
+        for (String content : List.of("aaaa", "bbbb", "cccc", "dddd")) {
+            results.add(requests.submit(() -> gateway.extractText(text(content))));
+        }
+        for (Future<OcrResult> result : results) {
+            result.get();
+        }
+        assertThat(imagesPerRequest(annotator)).isEqualTo(List.of(2, 2));
+
+        // 모아 둔 작은 이미지가 있을 때 한도보다 큰 이미지가 오면 작은 이미지를 먼저 보내고 큰 이미지는 혼자 보낸다
+        Future<OcrResult> small = requests.submit(() -> gateway.extractText(text("eeee")));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (gateway.getPendingBytes() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(gateway.extractText(text("large image")).text()).isEqualTo("large image");
+        assertThat(small.get().text()).isEqualTo("eeee");
+        assertThat(imagesPerRequest(annotator)).isEqualTo(List.of(2, 2, 1, 1));
+
+        // 한 장 한도를 넘으면 보내지 않는다
+        assertThatThrownBy(() -> gateway.extractText(text("much larger than sixteen bytes")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(imagesPerRequest(annotator)).isEqualTo(List.of(2, 2, 1, 1));
+        requests.shutdown();
+        gateway.shutdown();
+    }
+
+    @Test
+    void 줄이기_위해_디코딩하기_전에_메모리_예산을_예약한다() throws IOException {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 64x48 흑백 변환에는 두 장 (24 KB) 이 필요한데 예산은 1MB 이고 이미 다 쓰고 있다
+        MemoryBudget memoryBudget = new MemoryBudget(meterRegistry, 1, 0);
+        MemoryBudget.Reservation busy = memoryBudget.reserve(1024 * 1024);
+        OcrGateway gateway = gateway(annotator::client, meterRegistry, memoryBudget, 1, 1 << 20, 1 << 20, 0, 60_000, 16, true);
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(FilterPipelineTest.randomImage(64, 48, 20L), "png", original);
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", original.toByteArray());
+
+        assertThatThrownBy(() -> gateway.extractText(file)).isInstanceOf(ImageOverloadException.class);
+        assertThat(annotator.requests).isEmpty();
+
+        busy.close();
+        gateway.extractText(file);
+        assertThat(annotator.imageCount()).isEqualTo(1);
+        assertThat(memoryBudget.getReservedBytes()).isZero();
+        gateway.shutdown();
+    }
+
+    @Test
+    void 묶음이_차지_않아도_최대_대기_시간이_지나면_보낸다() throws IOException {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        OcrGateway gateway = gateway(annotator, new SimpleMeterRegistry(), 16, 5, 60_000, 0, false);
+
+        assertThat(gateway.extractText(text("hello")).text()).isEqualTo("hello");
+        assertThat(annotator.imageCount()).isEqualTo(1);
+        gateway.shutdown();
+    }
+
+    @Test
+    void 처리_중인_같은_이미지는_한_번만_보내고_결과를_같이_받는다() throws Exception {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        annotator.gate = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OcrGateway gateway = gateway(annotator, meterRegistry, 1, 0, 60_000, 0, false);
+
+        ExecutorService requests = Executors.newFixedThreadPool(3);
+        List<Future<OcrResult>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(requests.submit(() -> gateway.extractText(text("same"))));
+        }
+        // 나머지 두 요청이 처리 중인 결과를 기다리기 시작한 뒤 응답을 보낸다
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.counter("image.ocr.deduplicated").count() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        annotator.gate.countDown();
+
+        for (Future<OcrResult> result : results) {
+            assertThat(result.get().text()).isEqualTo("same");
+        }
+        assertThat(annotator.imageCount()).isEqualTo(1);
+        requests.shutdown();
+        gateway.shutdown();
+    }
+
+    @Test
+    void 성공한_결과는_캐시하고_보관_기간이_지나면_다시_보낸다() throws Exception {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        OcrGateway cachedGateway = gateway(annotator, new SimpleMeterRegistry(), 1, 0, 60_000, 0, false);
+
+        cachedGateway.extractText(text("cached"));
+        cachedGateway.extractText(text("cached"));
+        assertThat(annotator.imageCount()).isEqualTo(1);
+
+        FakeImageAnnotator expiringAnnotator = new FakeImageAnnotator();
+        OcrGateway expiringGateway = gateway(expiringAnnotator, new SimpleMeterRegistry(), 1, 0, 0, 0, false);
+        expiringGateway.extractText(text("expired"));
+        Thread.sleep(5);
+        expiringGateway.extractText(text("expired"));
+        assertThat(expiringAnnotator.imageCount()).isEqualTo(2);
+
+        cachedGateway.shutdown();
+        expiringGateway.shutdown();
+    }
+
+    @Test
+    void 이미지_단위_오류는_돌려주되_캐시하지_않고_호출_실패는_예외로_알린다() throws IOException {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        OcrGateway gateway = gateway(annotator, new SimpleMeterRegistry(), 1, 0, 60_000, 0, false);
+
+        OcrResult result = gateway.extractText(text("error: bad image"));
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.error()).isEqualTo("error: bad image");
+        gateway.extractText(text("error: bad image"));
+        assertThat(annotator.imageCount()).isEqualTo(2);
+
+        annotator.failure = new IllegalStateException("unavailable");
+        assertThatThrownBy(() -> gateway.extractText(text("down"))).isInstanceOf(IllegalStateException.class);
+        gateway.shutdown();
+    }
+
+    @Test
+    void 설정하면_줄이고_흑백으로_바꾼_이미지를_보낸다() throws IOException {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        OcrGateway gateway = gateway(annotator, new SimpleMeterRegistry(), 1, 0, 60_000, 16, true);
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(FilterPipelineTest.randomImage(64, 48, 20L), "png", original);
+
+        gateway.extractText(new MockMultipartFile("file", "photo.png", "image/png", original.toByteArray()));
+
+        byte[] sent = annotator.requests.get(0).getRequests(0).getImage().getContent().toByteArray();
+        BufferedImage sentImage = ImageIO.read(new ByteArrayInputStream(sent));
+        assertThat(sent.length).isLessThan(original.size());
+        assertThat(sentImage.getWidth()).isEqualTo(16);
+        assertThat(sentImage.getHeight()).isEqualTo(12);
+        int rgb = sentImage.getRGB(3, 4);
+        assertThat((rgb >> 16) & 0xFF).isEqualTo(rgb & 0xFF);
+        assertThat((rgb >> 8) & 0xFF).isEqualTo(rgb & 0xFF);
+        gateway.shutdown();
+    }
+
+    @Test
+    void 클라이언트는_처음_보낼_때_만들고_실패하면_다음_요청에서_다시_만든다() throws Exception {
+        FakeImageAnnotator annotator = new FakeImageAnnotator();
+        AtomicInteger attempts = new AtomicInteger();
+        OcrGateway gateway = gateway(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("인증 정보가 없습니다.");
+            }
+            return annotator.client();
+        }, new SimpleMeterRegistry(), 1, 0, 60_000, 0, false);
+        assertThat(attempts.get()).isZero();
+
+        assertThatThrownBy(() -> gateway.extractText(text("first"))).isInstanceOf(IllegalStateException.class);
+        assertThat(gateway.extractText(text("second")).text()).isEqualTo("second");
+        assertThat(gateway.extractText(text("third")).text()).isEqualTo("third");
+        assertThat(attempts.get()).isEqualTo(2);
+        gateway.shutdown();
+    }
+
+    static OcrGateway gateway(FakeImageAnnotator annotator, SimpleMeterRegistry meterRegistry, int maxBatchSize, long maxWaitMillis,
+                              long cacheTtlMillis, int maxDimension, boolean grayscale) {
+        return gateway(annotator::client, meterRegistry, maxBatchSize, maxWaitMillis, cacheTtlMillis, maxDimension, grayscale);
+    }
+
+    static OcrGateway gateway(ObjectFactory<ImageAnnotatorClient> clientFactory, SimpleMeterRegistry meterRegistry, int maxBatchSize,
+                              long maxWaitMillis, long cacheTtlMillis, int maxDimension, boolean grayscale) {
+        return gateway(clientFactory, meterRegistry, new MemoryBudget(meterRegistry, 64, 0), maxBatchSize, 1 << 20, 1 << 20,
+                maxWaitMillis, cacheTtlMillis, maxDimension, grayscale);
+    }
+
+    static OcrGateway gateway(ObjectFactory<ImageAnnotatorClient> clientFactory, SimpleMeterRegistry meterRegistry, MemoryBudget memoryBudget,
+                              int maxBatchSize, long maxBatchBytes, long maxImageBytes, long maxWaitMillis, long cacheTtlMillis,
+                              int maxDimension, boolean grayscale) {
+        return new OcrGateway(clientFactory,
+                new ImageDecoder(new ImageValidator(1_000_000)),
+                new GrayscaleProcessor(ParallelRasterExecutor.sequential()),
+                new ImageEncoder(0.9f, true, 4),
+                CpuStageExecutor.callerRuns(),
+                memoryBudget,
+                new ImageMetrics(meterRegistry),
+                meterRegistry,
+                maxBatchSize, maxBatchBytes, maxImageBytes, maxWaitMillis, 100, cacheTtlMillis, maxDimension, grayscale);
+    }
+
+    private static List<Integer> imagesPerRequest(FakeImageAnnotator annotator) {
+        return annotator.requests.stream()
+                .map(request -> request.getRequestsCount())
+                .toList();
+    }
+
+    private static MockMultipartFile text(String content) {
+        return new MockMultipartFile("file", "text.png", "image/png", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
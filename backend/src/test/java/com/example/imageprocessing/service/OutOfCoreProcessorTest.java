@@ -0,0 +1,132 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutOfCoreProcessorTest {
+    // 마지막 줄 묶음이 덜 차도록 너비(64)로 나누어떨어지지 않는 크기
+    private static final int STRIP_PIXELS = 64 * 7 + 10;
+
+    @Test
+    void 줄_묶음으로_처리한_결과가_메모리에서_처리한_결과와_같다() throws IOException {
+        Path directory = Files.createTempDirectory("scratch-test");
+        ImageService outOfCore = new TestImageServiceBuilder().outOfCoreProcessor(new OutOfCoreProcessor(1, 2_000_000_000L, STRIP_PIXELS, directory.toString())).build();
+        ImageService inMemory = TestImageServiceBuilder.defaults();
+        MockMultipartFile file = ImageServiceTest.png(FilterPipelineTest.randomImage(64, 48, 7L));
+
+        ProcessedImage processed = outOfCore.processGrayscale(file, "[\"Inversion\"]", 25, ImageService.FULL_RESOLUTION, null);
+        ProcessedImage expected = inMemory.processGrayscale(file, "[\"Inversion\"]", 25, ImageService.FULL_RESOLUTION, null);
+
+        assertThat(processed.getStatistics().getLuminanceHistogram()).isEqualTo(expected.getStatistics().getLuminanceHistogram());
+        FilterPipelineTest.assertSameRgb(ImageServiceTest.decode(processed), ImageServiceTest.decode(expected));
+        // 응답을 다 쓰면 임시 파일을 지운다
+        assertThat(scratchFiles(directory)).isZero();
+    }
+
+    @Test
+    void 흑백_원본은_디코더_형식_그대로_펼치고_크롭_영역만_디코딩한다() throws IOException {
+        Path directory = Files.createTempDirectory("scratch-test");
+        ImageService outOfCore = new TestImageServiceBuilder().outOfCoreProcessor(new OutOfCoreProcessor(1, 2_000_000_000L, STRIP_PIXELS, directory.toString())).build();
+        ImageService inMemory = TestImageServiceBuilder.defaults();
+        BufferedImage gray = new BufferedImage(64, 48, BufferedImage.TYPE_BYTE_GRAY);
+        gray.createGraphics().drawImage(FilterPipelineTest.randomImage(64, 48, 8L), 0, 0, null);
+        MockMultipartFile file = ImageServiceTest.png(gray);
+
+        BufferedImage cropped = ImageServiceTest.decode(outOfCore.processCrop(file, 3, 5, 60, 47, "[\"Inversion\"]", -20, ImageService.FULL_RESOLUTION, null));
+
+        assertThat(cropped.getWidth()).isEqualTo(57);
+        assertThat(cropped.getHeight()).isEqualTo(42);
+        FilterPipelineTest.assertSameRgb(cropped,
+                ImageServiceTest.decode(inMemory.processCrop(file, 3, 5, 60, 47, "[\"Inversion\"]", -20, ImageService.FULL_RESOLUTION, null)));
+        assertThat(scratchFiles(directory)).isZero();
+    }
+
+    @Test
+    void 알파가_있는_원본의_자동_밝기는_두_번_훑어서_같은_값을_정한다() throws IOException {
+        Path directory = Files.createTempDirectory("scratch-test");
+        ImageService outOfCore = new TestImageServiceBuilder().outOfCoreProcessor(new OutOfCoreProcessor(1, 2_000_000_000L, STRIP_PIXELS, directory.toString())).build();
+        ImageService inMemory = TestImageServiceBuilder.defaults();
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(9L);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (random.nextInt(256) << 24) | random.nextInt(0x404040));
+            }
+        }
+        MockMultipartFile file = ImageServiceTest.png(image);
+
+        ProcessedImage processed = outOfCore.processAutoBrightness(file, null, ImageService.FULL_RESOLUTION, null);
+        ProcessedImage expected = inMemory.processAutoBrightness(file, null, ImageService.FULL_RESOLUTION, null);
+
+        assertThat(processed.getAutoBrightnessAdjustment()).isPositive().isEqualTo(expected.getAutoBrightnessAdjustment());
+        FilterPipelineTest.assertSameRgb(ImageServiceTest.decode(processed), ImageServiceTest.decode(expected));
+    }
+
+    @Test
+    void JPEG_으로_저장할_때는_알파를_흰_배경에_합성한다() throws IOException {
+        Path directory = Files.createTempDirectory("scratch-test");
+        OutOfCoreProcessor processor = new OutOfCoreProcessor(1, 2_000_000_000L, STRIP_PIXELS, directory.toString());
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0x80000000);
+        image.setRGB(1, 0, 0x00123456);
+        image.setRGB(2, 0, 0xFF102030);
+
+        try (ImageSource source = new ImageDecoder(new ImageValidator(1_000_000)).open(ImageServiceTest.png(image))) {
+            OutOfCoreProcessor.Result result = processor.apply(processor.decode(source, null, 1),
+                    FilterPipeline.compile(List.of(), 0), false, true, ParallelRasterExecutor.sequential(), false);
+            try (ScratchImage output = result.image()) {
+                assertThat(output.hasAlpha()).isFalse();
+                assertThat(output.getImage().getRGB(0, 0)).isEqualTo(0xFF7F7F7F);
+                assertThat(output.getImage().getRGB(1, 0)).isEqualTo(0xFFFFFFFF);
+                assertThat(output.getImage().getRGB(2, 0)).isEqualTo(0xFF102030);
+            }
+        }
+        assertThat(scratchFiles(directory)).isZero();
+    }
+
+    @Test
+    void 주변_픽셀_필터나_기준보다_작은_이미지는_메모리에서_처리한다() throws IOException {
+        OutOfCoreProcessor processor = new OutOfCoreProcessor(1000, 2_000_000_000L, STRIP_PIXELS, "");
+
+        assertThat(processor.supports("png", FilterProgram.of(List.of(FilterType.Inversion), 10), 1000)).isTrue();
+        assertThat(processor.supports("JPEG", FilterProgram.of(List.of(), 10), 1000)).isTrue();
+        assertThat(processor.supports("png", FilterProgram.of(List.of(FilterType.Blur), 0), 1000)).isFalse();
+        assertThat(processor.supports("png", FilterProgram.of(List.of(FilterType.Inversion), 0), 999)).isFalse();
+        assertThat(processor.supports("bmp", FilterProgram.of(List.of(FilterType.Inversion), 0), 1000)).isFalse();
+        assertThat(new OutOfCoreProcessor(0, 2_000_000_000L, STRIP_PIXELS, "").supports("png", FilterProgram.of(List.of(), 0), Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void 업로드_한도보다_큰_이미지는_디스크에서_처리할_수_있을_때만_받는다() throws IOException {
+        OutOfCoreProcessor processor = new OutOfCoreProcessor(1, 64 * 48, STRIP_PIXELS, "");
+        ImageService imageService = new TestImageServiceBuilder().outOfCoreProcessor(processor).imageValidator(new ImageValidator(1_000)).build();
+        MockMultipartFile file = ImageServiceTest.png(FilterPipelineTest.randomImage(64, 48, 10L));
+
+        assertThat(ImageServiceTest.decode(imageService.processInvert(file, null, 0, ImageService.FULL_RESOLUTION, null)).getWidth()).isEqualTo(64);
+        // 주변 픽셀 필터는 힙에서 처리하므로 기본 한도(image.max-pixels)로 거른다
+        assertThatThrownBy(() -> imageService.processConvolution(file, FilterType.Blur, null, 0, ImageService.FULL_RESOLUTION, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        // 디스크 처리 한도도 넘으면 디코딩 전에 거른다
+        assertThatThrownBy(() -> imageService.processInvert(ImageServiceTest.png(FilterPipelineTest.randomImage(65, 48, 10L)), null, 0, ImageService.FULL_RESOLUTION, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(processor.supports("png", FilterProgram.of(List.of(FilterType.Inversion), 0), 64 * 48 + 1)).isFalse();
+    }
+
+    private static long scratchFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
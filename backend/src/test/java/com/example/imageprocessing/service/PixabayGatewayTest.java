@@ -0,0 +1,190 @@
+package com.example.imageprocessing.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PixabayGatewayTest {
+    private HttpServer server;
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger thumbnailRequests = new AtomicInteger();
+    private volatile CountDownLatch gate;
+    private volatile int status = 200;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // 검색어를 그대로 previewURL 에 돌려주는 가짜 Pixabay
+        server.createContext("/api/", exchange -> {
+            String q = URLDecoder.decode(exchange.getRequestURI().getRawQuery().replaceFirst(".*&q=", ""), StandardCharsets.UTF_8);
+            queries.add(q);
+            awaitGate();
+            String preview = "http://localhost:" + server.getAddress().getPort() + "/preview/1.png";
+            respond(exchange, status, "application/json",
+                    "{\"total\":1,\"hits\":[{\"id\":1,\"tags\":\"" + q + "\",\"previewURL\":\"" + preview + "\"}]}");
+        });
+        server.createContext("/preview/", exchange -> {
+            thumbnailRequests.incrementAndGet();
+            respond(exchange, 200, "image/png", "thumbnail");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void 검색어를_정규화해서_같은_검색은_캐시된_결과를_돌려준다() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PixabayGateway gateway = gateway(meterRegistry, 60_000, false);
+
+        JsonNode first = gateway.search("  Red   Flower ");
+        JsonNode second = gateway.search("red flower");
+
+        assertThat(first.get(0).get("tags").asText()).isEqualTo("red flower");
+        assertThat(second).isSameAs(first);
+        assertThat(queries).containsExactly("red flower");
+        assertThat(meterRegistry.counter("image.pixabay.cache", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("image.pixabay.cache", "result", "miss").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("image.external.call").tag("service", "pixabay").timer().count()).isEqualTo(1);
+        gateway.shutdown();
+    }
+
+    @Test
+    void 검색어는_인코딩해서_보내고_너무_긴_검색어는_거부한다() throws IOException {
+        PixabayGateway gateway = gateway(new SimpleMeterRegistry(), 60_000, false);
+
+        gateway.search("cats&dogs=1 #2");
+
+        assertThat(queries).containsExactly("cats&dogs=1 #2");
+        assertThatThrownBy(() -> gateway.search("a".repeat(101))).isInstanceOf(IllegalArgumentException.class);
+        gateway.shutdown();
+    }
+
+    @Test
+    void 동시에_들어온_같은_검색은_한_번만_호출한다() throws Exception {
+        gate = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PixabayGateway gateway = gateway(meterRegistry, 60_000, false);
+
+        ExecutorService requests = Executors.newFixedThreadPool(3);
+        List<Future<JsonNode>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(requests.submit(() -> gateway.search("sky")));
+        }
+        // 나머지 두 요청이 처리 중인 결과를 기다리기 시작한 뒤 응답을 보낸다
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.counter("image.pixabay.cache", "result", "coalesced").count() < 2
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        gate.countDown();
+
+        for (Future<JsonNode> result : results) {
+            assertThat(result.get().get(0).get("tags").asText()).isEqualTo("sky");
+        }
+        assertThat(queries).containsExactly("sky");
+        requests.shutdown();
+        gateway.shutdown();
+    }
+
+    @Test
+    void 보관_기간이_지난_검색은_다시_호출한다() throws Exception {
+        PixabayGateway gateway = gateway(new SimpleMeterRegistry(), 0, false);
+
+        gateway.search("sea");
+        Thread.sleep(5);
+        gateway.search("sea");
+
+        assertThat(queries).containsExactly("sea", "sea");
+        gateway.shutdown();
+    }
+
+    @Test
+    void 실패한_응답은_예외로_알리고_캐시하지_않는다() throws IOException {
+        PixabayGateway gateway = gateway(new SimpleMeterRegistry(), 60_000, false);
+
+        status = 500;
+        assertThatThrownBy(() -> gateway.search("moon")).isInstanceOf(IOException.class);
+        status = 200;
+        assertThat(gateway.search("moon").size()).isEqualTo(1);
+
+        assertThat(queries).containsExactly("moon", "moon");
+        gateway.shutdown();
+    }
+
+    @Test
+    void 썸네일_미리_받기를_켜면_받아_둔_썸네일을_내려준다() throws Exception {
+        PixabayGateway gateway = gateway(new SimpleMeterRegistry(), 60_000, true);
+
+        JsonNode hits = gateway.search("tree");
+        assertThat(hits.get(0).get("thumbnailURL").asText()).isEqualTo(PixabayGateway.THUMBNAIL_PATH + "1");
+
+        Optional<PixabayGateway.Thumbnail> thumbnail = gateway.thumbnail("1");
+        assertThat(thumbnail).isPresent();
+        assertThat(thumbnail.get().contentType()).isEqualTo("image/png");
+        assertThat(new String(thumbnail.get().bytes(), StandardCharsets.UTF_8)).isEqualTo("thumbnail");
+        gateway.thumbnail("1");
+        assertThat(thumbnailRequests.get()).isEqualTo(1);
+
+        assertThat(gateway.thumbnail("2")).isEmpty();
+        gateway.shutdown();
+    }
+
+    private PixabayGateway gateway(SimpleMeterRegistry meterRegistry, long cacheTtlMillis, boolean prefetchThumbnails) {
+        return new PixabayGateway(new ObjectMapper(),
+                new ImageMetrics(meterRegistry),
+                meterRegistry,
+                "test-key",
+                "http://localhost:" + server.getAddress().getPort() + "/api/",
+                1_000, 5_000, 100, cacheTtlMillis, prefetchThumbnails, 100);
+    }
+
+    private void awaitGate() {
+        CountDownLatch latch = gate;
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
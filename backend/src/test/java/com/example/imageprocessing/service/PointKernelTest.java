@@ -0,0 +1,128 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ChannelLookupTables;
+import com.example.imageprocessing.domain.Pixel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointKernelTest {
+
+    @Test
+    void 고정소수점_흑백은_모든_색에서_Math_round_결과와_같다() {
+        assertThat(PointKernel.VECTOR).isNotSameAs(PointKernel.SCALAR);
+        PointOperation grayscale = operation(List.of(FilterType.GrayScale), 0);
+
+        // 2^24 가지 색을 빨강 값마다 나눠서 확인
+        int[] source = new int[256 * 256];
+        int[] target = new int[source.length];
+        for (int red = 0; red < 256; red++) {
+            for (int i = 0; i < source.length; i++) {
+                source[i] = 0xFF000000 | red << 16 | i;
+            }
+            PointKernel.VECTOR.apply(grayscale, source, target, 0, source.length);
+
+            for (int i = 0; i < source.length; i++) {
+                int green = i >> 8;
+                int blue = i & 0xFF;
+                int expected = new Pixel(red, green, blue).toGrayScale().toAwtColor().getRed();
+                assertThat(target[i] & 0xFF).as("(%d, %d, %d)", red, green, blue).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void 반전과_밝기를_이어_붙인_산술_연산은_룩업_테이블과_같다() {
+        int[] adjustments = {-300, -255, -128, -1, 1, 37, 200, 255, 300};
+        for (int adjustment : adjustments) {
+            ChannelMap[] maps = {
+                    ChannelMap.brightness(adjustment),
+                    ChannelMap.INVERT.then(ChannelMap.brightness(adjustment)),
+                    ChannelMap.brightness(adjustment).then(ChannelMap.INVERT),
+                    ChannelMap.INVERT.then(ChannelMap.brightness(adjustment)).then(ChannelMap.INVERT).then(ChannelMap.brightness(-adjustment)),
+            };
+            int[][] tables = {
+                    ChannelLookupTables.brightness(adjustment),
+                    ChannelLookupTables.compose(ChannelLookupTables.invert(), ChannelLookupTables.brightness(adjustment)),
+                    ChannelLookupTables.compose(ChannelLookupTables.brightness(adjustment), ChannelLookupTables.invert()),
+                    ChannelLookupTables.compose(ChannelLookupTables.compose(ChannelLookupTables.compose(
+                            ChannelLookupTables.invert(), ChannelLookupTables.brightness(adjustment)),
+                            ChannelLookupTables.invert()), ChannelLookupTables.brightness(-adjustment)),
+            };
+
+            for (int i = 0; i < maps.length; i++) {
+                assertThat(maps[i].matches(tables[i])).as("adjustment %d, case %d", adjustment, i).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void 벡터_구현은_모든_필터_조합에서_스칼라_구현과_같다() {
+        Random random = new Random(18L);
+        int[] source = new int[4099];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = random.nextInt();
+        }
+
+        List<List<FilterType>> histories = new ArrayList<>();
+        for (int mask = 0; mask < 8; mask++) {
+            List<FilterType> history = new ArrayList<>();
+            if ((mask & 1) != 0) {
+                history.add(FilterType.Inversion);
+            }
+            if ((mask & 2) != 0) {
+                history.add(FilterType.GrayScale);
+            }
+            if ((mask & 4) != 0) {
+                history.add(FilterType.Inversion);
+            }
+            histories.add(history);
+        }
+
+        for (List<FilterType> history : histories) {
+            for (int brightness : new int[]{-255, -60, 0, 45, 255}) {
+                PointOperation operation = operation(history, brightness);
+                assertThat(operation.isVectorizable()).as("%s %d", history, brightness).isTrue();
+
+                int[] expected = new int[source.length];
+                int[] actual = new int[source.length];
+                PointKernel.SCALAR.apply(operation, source, expected, 0, source.length);
+                PointKernel.VECTOR.apply(operation, source, actual, 0, source.length);
+
+                assertThat(actual).as("%s %d", history, brightness).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void 같은_배열에_덮어써도_결과가_같다() {
+        int[] source = new int[1000];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = i * 0x010203;
+        }
+        PointOperation operation = operation(List.of(FilterType.Inversion, FilterType.GrayScale), 20);
+
+        int[] expected = new int[source.length];
+        PointKernel.SCALAR.apply(operation, source, expected, 0, source.length);
+        PointKernel.VECTOR.apply(operation, source, source, 0, source.length);
+
+        assertThat(source).isEqualTo(expected);
+    }
+
+    @Test
+    void 설정으로_벡터_구현을_끌_수_있다() {
+        assertThat(PointKernel.of(new ParallelRasterExecutor(1, Long.MAX_VALUE, false))).isSameAs(PointKernel.SCALAR);
+        assertThat(PointKernel.of(new ParallelRasterExecutor(1, Long.MAX_VALUE, true))).isSameAs(PointKernel.VECTOR);
+    }
+
+    private static PointOperation operation(List<FilterType> history, int brightness) {
+        PointOperation operation = new PointOperation();
+        history.forEach(operation::add);
+        operation.addBrightness(brightness);
+        return operation;
+    }
+}
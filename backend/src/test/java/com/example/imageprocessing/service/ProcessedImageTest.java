@@ -0,0 +1,52 @@
+package com.example.imageprocessing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProcessedImageTest {
+
+    @Test
+    void 본문을_쓴_뒤에_요청_정리가_다시_불러도_한_번만_반납한다() throws IOException {
+        AtomicInteger releases = new AtomicInteger();
+        ProcessedImage processed = new ProcessedImage("key", "image/png", output -> output.write(1), releases::incrementAndGet);
+
+        processed.writeTo(new ByteArrayOutputStream());
+        processed.discard();
+        processed.discard();
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    void 본문을_쓰는_중에_요청이_끝나면_쓰기가_끝날_때_반납한다() throws IOException {
+        AtomicInteger releases = new AtomicInteger();
+        ProcessedImage[] processed = new ProcessedImage[1];
+        processed[0] = new ProcessedImage("key", "image/png", output -> {
+            // 시간 초과 등으로 요청 정리가 먼저 불린 경우
+            processed[0].discard();
+            assertThat(releases.get()).isZero();
+            output.write(1);
+        }, releases::incrementAndGet);
+
+        processed[0].writeTo(new ByteArrayOutputStream());
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    void 본문을_쓰기_전에_정리했으면_쓰지_않는다() {
+        AtomicInteger releases = new AtomicInteger();
+        ProcessedImage processed = new ProcessedImage("key", "image/png", output -> output.write(1), releases::incrementAndGet);
+
+        processed.discard();
+
+        assertThat(releases.get()).isEqualTo(1);
+        assertThatThrownBy(() -> processed.writeTo(new ByteArrayOutputStream())).isInstanceOf(IllegalStateException.class);
+    }
+}
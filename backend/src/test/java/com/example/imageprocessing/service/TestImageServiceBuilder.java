@@ -0,0 +1,61 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.ImageValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+
+// 테스트용 ImageService. 정하지 않은 부분은 기본값을 쓴다
+// (순차 실행, 파일로 내리지 않는 처리기, 64 MB 메모리 예산, 통계 수집)
+class TestImageServiceBuilder {
+    private OutOfCoreProcessor outOfCoreProcessor;
+    private ImageValidator imageValidator = new ImageValidator(1_000_000);
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 정하지 않으면 meterRegistry 에 지표를 남기는 예산을 만든다
+    private MemoryBudget memoryBudget;
+    private boolean statisticsEnabled = true;
+
+    static ImageService defaults() throws IOException {
+        return new TestImageServiceBuilder().build();
+    }
+
+    TestImageServiceBuilder outOfCoreProcessor(OutOfCoreProcessor outOfCoreProcessor) {
+        this.outOfCoreProcessor = outOfCoreProcessor;
+        return this;
+    }
+
+    TestImageServiceBuilder imageValidator(ImageValidator imageValidator) {
+        this.imageValidator = imageValidator;
+        return this;
+    }
+
+    TestImageServiceBuilder meterRegistry(SimpleMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    TestImageServiceBuilder memoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    TestImageServiceBuilder statisticsEnabled(boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+        return this;
+    }
+
+    ImageService build() throws IOException {
+        return new ImageService(
+                new ImageDecoder(imageValidator),
+                new CropProcessor(),
+                ParallelRasterExecutor.sequential(),
+                memoryBudget != null ? memoryBudget : new MemoryBudget(meterRegistry, 64, 0),
+                new ImageEncoder(0.9f, true, 4),
+                new ImageResultCache(meterRegistry, 1024, 1024, "", 0),
+                new ImageMetrics(meterRegistry),
+                CpuStageExecutor.callerRuns(),
+                outOfCoreProcessor != null ? outOfCoreProcessor : new OutOfCoreProcessor(0, 2_000_000_000L, 1 << 20, ""),
+                new FilterProgramCache(meterRegistry, 100),
+                statisticsEnabled, 100, 60_000);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.imageprocessing.service;
+
+import com.example.imageprocessing.domain.GrayscaleWeights;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// PointKernel 의 Vector API 구현. 레인 수만큼의 픽셀을 채널별로 나눠 덧셈/최대/최소와 고정소수점 흑백 가중합으로 계산한다
+//
+// 테이블을 읽지 않으므로 gather 없이 연속된 배열만 읽고 쓴다.
+// 흑백 가중합이 x.5 근처인 색이 한 레인이라도 있으면 그 묶음만 스칼라 구현(double 계산)으로 처리해서 결과를 맞춘다.
+// VectorSupport 가 모듈이 있을 때만 이름으로 로딩하므로 다른 클래스에서 직접 참조하지 않는다.
+final class VectorPointKernel implements PointKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int ALPHA_MASK = 0xFF000000;
+    private static final int SHIFT = GrayscaleWeights.FIXED_POINT_SHIFT;
+    private static final int HALF = 1 << (SHIFT - 1);
+    private static final int FRACTION_MASK = (1 << SHIFT) - 1;
+
+    @Override
+    public void apply(PointOperation operation, int[] source, int[] target, int from, int to) {
+        if (!operation.isVectorizable()) {
+            SCALAR.apply(operation, source, target, from, to);
+            return;
+        }
+
+        // 항등 연산은 null 로 두고 건너뛴다
+        ChannelMap preMap = operation.preMap().isIdentity() ? null : operation.preMap();
+        ChannelMap postMap = operation.postMap().isIdentity() ? null : operation.postMap();
+        boolean grayscale = operation.isGrayscale();
+        int lanes = SPECIES.length();
+        int vectorEnd = from + SPECIES.loopBound(to - from);
+
+        int i = from;
+        for (; i < vectorEnd; i += lanes) {
+            IntVector pixels = IntVector.fromArray(SPECIES, source, i);
+            IntVector alpha = pixels.and(ALPHA_MASK);
+            IntVector red = map(pixels.lanewise(VectorOperators.LSHR, 16).and(0xFF), preMap);
+            IntVector green = map(pixels.lanewise(VectorOperators.LSHR, 8).and(0xFF), preMap);
+            IntVector blue = map(pixels.and(0xFF), preMap);
+
+            if (!grayscale) {
+                alpha.or(red.lanewise(VectorOperators.LSHL, 16))
+                        .or(green.lanewise(VectorOperators.LSHL, 8))
+                        .or(blue)
+                        .intoArray(target, i);
+                continue;
+            }
+
+            IntVector weighted = red.mul(GrayscaleWeights.RED_FIXED_POINT)
+                    .add(green.mul(GrayscaleWeights.GREEN_FIXED_POINT))
+                    .add(blue.mul(GrayscaleWeights.BLUE_FIXED_POINT));
+            VectorMask<Integer> ties = weighted.and(FRACTION_MASK).sub(HALF).abs()
+                    .compare(VectorOperators.LE, GrayscaleWeights.FIXED_POINT_TIE_WINDOW);
+            if (ties.anyTrue()) {
+                SCALAR.apply(operation, source, target, i, i + lanes);
+                continue;
+            }
+
+            IntVector gray = map(weighted.add(HALF).lanewise(VectorOperators.LSHR, SHIFT), postMap);
+            alpha.or(gray.lanewise(VectorOperators.LSHL, 16))
+                    .or(gray.lanewise(VectorOperators.LSHL, 8))
+                    .or(gray)
+                    .intoArray(target, i);
+        }
+
+        SCALAR.apply(operation, source, target, i, to);
+    }
+
+    private static IntVector map(IntVector channel, ChannelMap map) {
+        if (map == null) {
+            return channel;
+        }
+        IntVector shifted = map.inverted() ? channel.neg().add(map.offset()) : channel.add(map.offset());
+        return shifted.max(map.min()).min(map.max());
+    }
+}
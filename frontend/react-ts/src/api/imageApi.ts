@@ -4,7 +4,7 @@ function getApiBase(): string {
     return import.meta.env.VITE_API_URL || "";
 }
 
-function buildFullUrl(path: string): string {
+export function buildFullUrl(path: string): string {
     const base = getApiBase();
 
     if (!base || /^https?:\/\//i.test(path)) return path;
@@ -10,7 +10,7 @@ interface Props {
     ocrResult: string | null;
 }
 
-const buttons: FilterType[] = ["GrayScale", "Brightness", "Inversion", "Crop", "Reset", "OCR"];
+const buttons: FilterType[] = ["GrayScale", "Brightness", "Inversion", "Crop", "Blur", "BoxBlur", "Sharpen", "EdgeDetect", "Reset", "OCR"];
 
 export default function EditorPanel({
     onFilter,
@@ -1,5 +1,5 @@
 import { useState } from "react";
-import { callPixabayAPI } from "../api/imageApi";
+import { buildFullUrl, callPixabayAPI } from "../api/imageApi";
 
 interface Props {
     isOpen: boolean;
@@ -42,7 +42,7 @@ export default function ImageFinder({ isOpen, onClose, onSelectImage }: Props) {
                     {results.map((img) => (
                         <img
                             key={img.id}
-                            src={img.previewURL}
+                            src={img.thumbnailURL ? buildFullUrl(img.thumbnailURL) : img.previewURL}
                             className="cursor-pointer hover:opacity-80"
                             onClick={() => {
                                 onSelectImage(img.largeImageURL);
@@ -1,13 +1,17 @@
 import {useState, useCallback} from "react";
 import {callFilterAPI, callOcrAPI} from '../api/imageApi';
 
-export type FilterType = 'GrayScale' | 'Inversion' | 'Brightness' | 'Crop' | 'Reset' | 'OCR';
+export type FilterType = 'GrayScale' | 'Inversion' | 'Brightness' | 'Crop' | 'Blur' | 'BoxBlur' | 'Sharpen' | 'EdgeDetect' | 'Reset' | 'OCR';
 
 const FILTER_URLS: { [key: string]: string } = {
     "GrayScale": "/api/image/grayscale",
     "Inversion": "/api/image/invert",
     "Brightness": "/api/image/brightness",
     "Crop": "/api/image/crop",
+    "Blur": "/api/image/blur",
+    "BoxBlur": "/api/image/box-blur",
+    "Sharpen": "/api/image/sharpen",
+    "EdgeDetect": "/api/image/edge-detect",
     "OCR": "/api/image/ocr"
 }
 
@@ -133,7 +137,7 @@ export function useImageEditor() {
         setFilterHistory(newHistory);
 
         const extraData: Record<string, string> = {
-            "filterHistory": JSON.stringify(newHistory),
+            "filterHistory": newHistory.join(","),
             "adjustment": String(brightnessAdjustment)
         };
 
@@ -155,7 +159,7 @@ export function useImageEditor() {
         setOcrResult(null);
 
         await callFilterAPI(baseFileForBrightness, FILTER_URLS["Brightness"], setFile, setImage, {
-            "filterHistory": JSON.stringify(filterHistory),
+            "filterHistory": filterHistory.join(","),
             "brightnessAdjustment": String(value)
         });
     }, [baseFileForBrightness, filterHistory]);